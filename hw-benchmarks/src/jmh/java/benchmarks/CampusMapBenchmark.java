@@ -0,0 +1,63 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pathfinder.CampusDataset;
+import pathfinder.CampusMap;
+import pathfinder.ContractionHierarchy;
+import pathfinder.SearchMode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times constructing a CampusMap, from the campus CSV files or from the compiled dataset that
+ * runPathfinder and runSpark load, with each default mode, since some modes do their searching
+ * up front.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CampusMapBenchmark {
+
+    /**
+     * Where the campus data comes from: "csv" parses the CSV files, and "compiled" loads the
+     * compiled dataset, with the contraction hierarchy stored next to it.
+     */
+    @Param({"csv", "compiled"})
+    public String source;
+
+    @Param({"DIJKSTRA", "ROUTE_TABLE", "CONTRACTION_HIERARCHY"})
+    public SearchMode mode;
+
+    private Path compiled;
+
+    @Setup(Level.Trial)
+    public void compile() throws IOException {
+        compiled = Files.createTempFile("campus", ".bin");
+        CampusDataset dataset = CampusDataset.fromCsv("campus_buildings.csv", "campus_paths.csv");
+        dataset.write(compiled);
+        try (OutputStream out = Files.newOutputStream(CampusDataset.hierarchyFile(compiled))) {
+            ContractionHierarchy.build(dataset.getGraph()).write(out);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.delete(compiled);
+        Files.delete(CampusDataset.hierarchyFile(compiled));
+    }
+
+    @Benchmark
+    public CampusMap construct() throws IOException {
+        CampusDataset dataset = "csv".equals(source)
+                ? CampusDataset.fromCsv("campus_buildings.csv", "campus_paths.csv")
+                : CampusDataset.load(compiled);
+        return new CampusMap(dataset, mode);
+    }
+}
@@ -0,0 +1,84 @@
+package benchmarks;
+
+import graph.Graph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the basic Graph operations on grids of growing size: building a graph node by node
+ * and edge by edge, and looking up the edges leaving a node; IncomingEdgesBenchmark times the
+ * edges entering one. Graphs are built with validation off, as CampusMap builds them, so the
+ * times are of the operations alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+    /**
+     * The number of nodes along each side of the grid, so 100 to 100,000 nodes in all.
+     */
+    @Param({"10", "32", "100", "316"})
+    public int side;
+
+    private Graph<Integer, Double> grid;
+    private List<Graph.Edge<Integer, Double>> edges;
+    private int[] lookups;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void buildGrid() {
+        grid = Inputs.grid(side);
+        edges = new ArrayList<>();
+        for (int node = 0; node < side * side; node++) {
+            edges.addAll(grid.getEdgesFrom(node));
+        }
+        lookups = Inputs.pairs(side * side, 1024);
+    }
+
+    /**
+     * Steps through the random nodes, one per call.
+     */
+    private int nextNode() {
+        next = (next + 1) % lookups.length;
+        return lookups[next];
+    }
+
+    /**
+     * Adds every node of the grid to an empty graph.
+     */
+    @Benchmark
+    public Graph<Integer, Double> addNodes() {
+        Graph<Integer, Double> graph = new Graph<>(Graph.Validation.OFF);
+        for (int node = 0; node < side * side; node++) {
+            graph.addNode(node);
+        }
+        return graph;
+    }
+
+    /**
+     * Adds every node and then every edge of the grid to an empty graph. Less the time of
+     * addNodes, this is the time to add the edges.
+     */
+    @Benchmark
+    public Graph<Integer, Double> addNodesAndEdges() {
+        Graph<Integer, Double> graph = addNodes();
+        for (Graph.Edge<Integer, Double> edge : edges) {
+            graph.addEdge(edge);
+        }
+        return graph;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Set<Graph.Edge<Integer, Double>> getEdgesFrom() {
+        return grid.getEdgesFrom(nextNode());
+    }
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import graph.Graph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up the incoming edges of a node through the incoming-edge index
+ * in Graph against the old approach of scanning every edge list in the graph.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncomingEdgesBenchmark {
+
+    /**
+     * The number of edges in the graph; every node has 10 outgoing edges on average.
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int edgeCount;
+
+    private Graph<Integer, Integer> graph;
+    private int nodeCount;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void buildGraph() {
+        nodeCount = edgeCount / 10;
+        graph = Inputs.randomGraph(nodeCount, edgeCount);
+    }
+
+    private int nextNode() {
+        next = (next + 7919) % nodeCount;
+        return next;
+    }
+
+    @Benchmark
+    public List<Graph.Edge<Integer, Integer>> indexedEdgesTo() {
+        return graph.getEdgesTo(nextNode());
+    }
+
+    @Benchmark
+    public List<Integer> indexedParents() {
+        return graph.getParents(nextNode());
+    }
+
+    @Benchmark
+    public List<Graph.Edge<Integer, Integer>> scannedEdgesTo() {
+        return scanEdgesTo(nextNode());
+    }
+
+    @Benchmark
+    public List<Integer> scannedParents() {
+        List<Integer> parents = new ArrayList<>();
+        for (Graph.Edge<Integer, Integer> edge : scanEdgesTo(nextNode())) {
+            if (!parents.contains(edge.getParent())) {
+                parents.add(edge.getParent());
+            }
+        }
+        return parents;
+    }
+
+    /**
+     * The lookup Graph#getEdgesTo did before it kept an incoming-edge index.
+     */
+    private List<Graph.Edge<Integer, Integer>> scanEdgesTo(Integer node) {
+        List<Graph.Edge<Integer, Integer>> edges = new ArrayList<>();
+        for (Integer parent : graph.getNodes()) {
+            if (!parent.equals(node)) {
+                for (Graph.Edge<Integer, Integer> edge : graph.getEdgesFrom(parent)) {
+                    if (edge.getChild().equals(node)) {
+                        edges.add(edge);
+                    }
+                }
+            }
+        }
+        return edges;
+    }
+}
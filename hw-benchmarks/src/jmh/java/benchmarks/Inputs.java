@@ -0,0 +1,126 @@
+package benchmarks;
+
+import graph.Graph;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The inputs the benchmarks share: the real campus graph, and synthetic grid and random graphs
+ * of any size made from a fixed seed, so that every run measures the same graphs.
+ */
+final class Inputs {
+
+    /**
+     * The seed of every random input, so runs are reproducible.
+     */
+    static final long SEED = 331;
+
+    private Inputs() {
+    }
+
+    /**
+     * @return The points of the campus buildings, in the order campus_buildings.csv has them.
+     */
+    static List<Point> campusBuildings() {
+        List<Point> buildings = new ArrayList<>();
+        for (CampusBuilding building : CampusPathsParser.parseCampusBuildings("campus_buildings.csv")) {
+            buildings.add(new Point(building.getX(), building.getY()));
+        }
+        return buildings;
+    }
+
+    /**
+     * @return The campus graph of campus_buildings.csv and campus_paths.csv, with each path's
+     * distance as its label.
+     */
+    static Graph<Point, Double> campusGraph() {
+        Graph<Point, Double> graph = new Graph<>(Graph.Validation.OFF);
+        for (Point building : campusBuildings()) {
+            graph.addNode(building);
+        }
+        for (CampusPath path : CampusPathsParser.parseCampusPaths("campus_paths.csv")) {
+            Point node1 = new Point(path.getX1(), path.getY1());
+            Point node2 = new Point(path.getX2(), path.getY2());
+            graph.addNode(node1);
+            graph.addNode(node2);
+            graph.addEdge(new Graph.Edge<>(node1, node2, path.getDistance()));
+        }
+        return graph;
+    }
+
+    /**
+     * Returns a side by side grid, with node row * side + column joined to the nodes above,
+     * below, left and right of it by edges both ways. Each edge costs between 1 and 2, at
+     * random, like paths that wind a little between street corners.
+     *
+     * @param side The number of nodes along each side of the grid.
+     * @return The grid, with side * side nodes and about 4 * side * side edges.
+     */
+    static Graph<Integer, Double> grid(int side) {
+        Random random = new Random(SEED);
+        Graph<Integer, Double> grid = new Graph<>(Graph.Validation.OFF);
+        for (int node = 0; node < side * side; node++) {
+            grid.addNode(node);
+        }
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                int node = row * side + column;
+                if (column + 1 < side) {
+                    double cost = 1 + random.nextDouble();
+                    grid.addEdge(new Graph.Edge<>(node, node + 1, cost));
+                    grid.addEdge(new Graph.Edge<>(node + 1, node, cost));
+                }
+                if (row + 1 < side) {
+                    double cost = 1 + random.nextDouble();
+                    grid.addEdge(new Graph.Edge<>(node, node + side, cost));
+                    grid.addEdge(new Graph.Edge<>(node + side, node, cost));
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Returns a graph with edges between random nodes, which may be loops or repeat a pair of
+     * nodes, each labeled with its index. Like every graph here, it is built with validation
+     * off, so that setting up large ones doesn't take a full checkRep per edge.
+     *
+     * @param nodeCount The number of nodes, with ids from 0 to nodeCount - 1.
+     * @param edgeCount The number of edges.
+     * @return The graph, the same one on every run.
+     */
+    static Graph<Integer, Integer> randomGraph(int nodeCount, int edgeCount) {
+        Random random = new Random(SEED);
+        Graph<Integer, Integer> graph = new Graph<>(Graph.Validation.OFF);
+        for (int node = 0; node < nodeCount; node++) {
+            graph.addNode(node);
+        }
+        for (int i = 0; i < edgeCount; i++) {
+            graph.addEdge(new Graph.Edge<>(random.nextInt(nodeCount), random.nextInt(nodeCount), i));
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the given number of random (start, end) pairs of ids from 0 to nodeCount - 1,
+     * the same ones on every run.
+     *
+     * @param nodeCount The number of nodes to choose from.
+     * @param count     The number of pairs.
+     * @return The pairs, with the start of pair i at 2 * i and its end at 2 * i + 1.
+     */
+    static int[] pairs(int nodeCount, int count) {
+        Random random = new Random(SEED);
+        int[] pairs = new int[2 * count];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = random.nextInt(nodeCount);
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import campuspaths.utils.ServerMetrics;
+import org.openjdk.jmh.annotations.*;
+import pathfinder.SearchMode;
+import pathfinder.SearchStats;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what ServerMetrics adds to each request: everything SparkServer records for a
+ * /findPath request, including reading the clock, and for one search. Both must stay well
+ * under a microsecond.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private ServerMetrics metrics;
+    private ServerMetrics.Endpoint findPath;
+
+    @Setup(Level.Trial)
+    public void register() {
+        metrics = new ServerMetrics();
+        findPath = metrics.endpoint("/findPath", true);
+        metrics.endpoint("/getNames", false);
+    }
+
+    @Benchmark
+    public void request() {
+        metrics.start();
+        long begin = System.nanoTime();
+        long parsed = System.nanoTime();
+        long routed = System.nanoTime();
+        findPath.phases(parsed - begin, routed - parsed, System.nanoTime() - routed);
+        metrics.finish("/findPath", 200);
+    }
+
+    @Benchmark
+    public void search() {
+        SearchStats stats = new SearchStats();
+        metrics.searched(SearchMode.BIDIRECTIONAL, stats);
+    }
+
+    @Benchmark
+    public String scrape() {
+        return metrics.toPrometheus();
+    }
+}
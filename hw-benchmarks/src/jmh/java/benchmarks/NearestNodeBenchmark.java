@@ -0,0 +1,56 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pathfinder.datastructures.KdTree;
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures nearest and k-nearest node queries on a k-d tree over uniformly random points,
+ * from campus size up to millions of nodes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class NearestNodeBenchmark {
+
+    @Param({"2000", "1000000"})
+    public int nodes;
+
+    private KdTree tree;
+    private double[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Random random = new Random(Inputs.SEED);
+        List<Point> points = new ArrayList<>(nodes);
+        for (int i = 0; i < nodes; i++) {
+            points.add(new Point(random.nextDouble() * 4000, random.nextDouble() * 4000));
+        }
+        tree = new KdTree(points);
+        queries = new double[2048];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = random.nextDouble() * 4000;
+        }
+    }
+
+    @Benchmark
+    public int nearest() {
+        next = (next + 2) % queries.length;
+        return tree.nearest(queries[next], queries[next + 1]);
+    }
+
+    @Benchmark
+    public int[] nearestTen() {
+        next = (next + 2) % queries.length;
+        return tree.nearest(queries[next], queries[next + 1], 10);
+    }
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times CampusPathsParser on the real campus files, and on campus paths files of growing size
+ * shaped like campus_paths.csv, where it compares parsing into a list of lines and splitting
+ * each one against the streaming parser and the parallel chunked parser.
+ * Run with -prof gc to see the allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+public class ParsingBenchmark {
+
+    /**
+     * A synthetic campus paths file.
+     */
+    @State(Scope.Benchmark)
+    public static class Synthetic {
+
+        /**
+         * The number of lines in the file.
+         */
+        @Param({"1000", "10000", "100000", "1000000"})
+        public int lines;
+
+        private byte[] file;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            // coordinates with up to 8 digits and distances with 17, like campus_paths.csv.
+            Random random = new Random(Inputs.SEED);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(lines * 64);
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < lines; i++) {
+                line.setLength(0);
+                for (int j = 0; j < 4; j++) {
+                    line.append(Math.round(random.nextDouble() * 4e7) / 1e4).append(',');
+                }
+                line.append(random.nextDouble() * 100).append('\n');
+                out.writeBytes(line.toString().getBytes(StandardCharsets.US_ASCII));
+            }
+            file = out.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public List<CampusPath> campusPaths() {
+        return CampusPathsParser.parseCampusPaths("campus_paths.csv");
+    }
+
+    @Benchmark
+    public List<CampusBuilding> campusBuildings() {
+        return CampusPathsParser.parseCampusBuildings("campus_buildings.csv");
+    }
+
+    @Benchmark
+    public List<CampusPath> syntheticPaths(Synthetic synthetic) {
+        return CampusPathsParser.parseCampusPaths(new ByteArrayInputStream(synthetic.file));
+    }
+
+    @Benchmark
+    public void syntheticStreaming(Synthetic synthetic, Blackhole blackhole) {
+        CampusPathsParser.parseCampusPaths(new ByteArrayInputStream(synthetic.file), blackhole::consume);
+    }
+
+    @Benchmark
+    public List<CampusPath> syntheticParallel(Synthetic synthetic) {
+        return CampusPathsParser.parseCampusPathsParallel(new ByteArrayInputStream(synthetic.file), 1 << 20);
+    }
+}
@@ -0,0 +1,79 @@
+package benchmarks;
+
+import campuspaths.utils.JsonResponseWriter;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import pathfinder.CampusMap;
+import pathfinder.SearchMode;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing /findPath responses with a new Gson per request, as the server used to,
+ * against the reusable JsonResponseWriter, in both its layouts. Run with "-prof gc" to see the
+ * bytes allocated per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+
+    private final OutputStream out = OutputStream.nullOutputStream();
+    private final JsonResponseWriter writer = new JsonResponseWriter();
+    private List<Path<Point>> paths;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void findPaths() throws IOException {
+        CampusMap map = new CampusMap(SearchMode.BIDIRECTIONAL);
+        List<String> names = new ArrayList<>(map.buildingNames().keySet());
+        paths = new ArrayList<>();
+        for (String start : names) {
+            for (String end : names) {
+                paths.add(map.findShortestPath(start, end));
+            }
+        }
+        // the writer must send exactly what Gson did, or the React application would break.
+        for (Path<Point> path : paths) {
+            ByteArrayOutputStream written = new ByteArrayOutputStream();
+            writer.writePath(path, written);
+            if (!Arrays.equals(new Gson().toJson(path).getBytes(StandardCharsets.UTF_8),
+                               written.toByteArray())) {
+                throw new IllegalStateException("JsonResponseWriter differs from Gson on " + path);
+            }
+        }
+    }
+
+    private Path<Point> nextPath() {
+        next = (next + 1) % paths.size();
+        return paths.get(next);
+    }
+
+    @Benchmark
+    public void gson() throws IOException {
+        Gson gson = new Gson();
+        out.write(gson.toJson(nextPath()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void writer() throws IOException {
+        writer.writePath(nextPath(), out);
+    }
+
+    @Benchmark
+    public void compactWriter() throws IOException {
+        writer.writeCompactPath(nextPath(), out);
+    }
+}
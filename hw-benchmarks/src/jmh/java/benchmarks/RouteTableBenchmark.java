@@ -0,0 +1,63 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pathfinder.CampusMap;
+import pathfinder.SearchMode;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a CampusMap that searches on every query against one that looks routes up in its
+ * precomputed building route table: how long each takes to start up, how much heap the
+ * loaded map keeps, and how long a query between two buildings takes.
+ * Run with "-prof gc" to also see the allocation of each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteTableBenchmark {
+
+    @Param({"DIJKSTRA", "ROUTE_TABLE"})
+    public SearchMode mode;
+
+    private CampusMap map;
+    private List<String> buildings;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void loadCampus() {
+        long before = usedHeap();
+        map = new CampusMap(mode);
+        long after = usedHeap();
+        System.out.printf("%nCampusMap(%s) retains about %d KiB%n", mode, (after - before) / 1024);
+        buildings = new ArrayList<>(map.buildingNames().keySet());
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CampusMap startup() {
+        return new CampusMap(mode);
+    }
+
+    @Benchmark
+    public Path<Point> query() {
+        next = (next + 1) % (buildings.size() * buildings.size());
+        return map.findShortestPath(buildings.get(next / buildings.size()),
+                                    buildings.get(next % buildings.size()));
+    }
+}
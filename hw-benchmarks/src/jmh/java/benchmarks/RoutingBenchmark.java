@@ -0,0 +1,164 @@
+package benchmarks;
+
+import graph.CompactGraph;
+import graph.Graph;
+import org.openjdk.jmh.annotations.*;
+import pathfinder.ContractionHierarchy;
+import pathfinder.EuclideanHeuristic;
+import pathfinder.Isochrone;
+import pathfinder.SearchStats;
+import pathfinder.ShortestPath;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times ShortestPath.dijkstra on the real campus data and on grids of growing size, both the
+ * Path-per-relaxation dijkstra over a Graph and the primitive-array one over a CompactGraph,
+ * cycling through a fixed set of random routes. On the campus it also times A*, bidirectional
+ * dijkstra and contraction hierarchy queries of the same routes, and an isochrone of the whole
+ * campus; campusCompactWithStats shows what counting a search's work in SearchStats costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmark {
+
+    /**
+     * The number of routes each benchmark cycles through.
+     */
+    private static final int ROUTES = 256;
+
+    /**
+     * The campus graph, with routes between random pairs of buildings.
+     */
+    @State(Scope.Benchmark)
+    public static class Campus {
+        private Graph<Point, Double> graph;
+        private CompactGraph<Point> compact;
+        private EuclideanHeuristic heuristic;
+        private ContractionHierarchy<Point> hierarchy;
+        private final SearchStats stats = new SearchStats();
+        private List<Point> buildings;
+        private int[] routes;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void loadCampus() {
+            graph = Inputs.campusGraph();
+            compact = graph.toCompact(Double::doubleValue);
+            heuristic = EuclideanHeuristic.of(compact);
+            hierarchy = ContractionHierarchy.build(compact);
+            buildings = Inputs.campusBuildings();
+            routes = Inputs.pairs(buildings.size(), ROUTES);
+        }
+
+        /**
+         * Steps through the routes, one per call, returning the index of the route's start.
+         */
+        private int nextRoute() {
+            next = (next + 2) % routes.length;
+            return next;
+        }
+    }
+
+    /**
+     * A grid graph, with routes between random pairs of its nodes.
+     */
+    @State(Scope.Benchmark)
+    public static class Grid {
+
+        /**
+         * The number of nodes along each side of the grid, so 100 to 100,000 nodes in all.
+         */
+        @Param({"10", "32", "100", "316"})
+        public int side;
+
+        private Graph<Integer, Double> graph;
+        private CompactGraph<Integer> compact;
+        private int[] routes;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void buildGrid() {
+            graph = Inputs.grid(side);
+            compact = graph.toCompact(Double::doubleValue);
+            routes = Inputs.pairs(side * side, ROUTES);
+        }
+
+        /**
+         * Steps through the routes, one per call, returning the index of the route's start.
+         */
+        private int nextRoute() {
+            next = (next + 2) % routes.length;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Path<Point> campusGraph(Campus campus) {
+        int route = campus.nextRoute();
+        return ShortestPath.dijkstra(campus.graph, campus.buildings.get(campus.routes[route]),
+                                     campus.buildings.get(campus.routes[route + 1]));
+    }
+
+    @Benchmark
+    public Path<Point> campusCompact(Campus campus) {
+        int route = campus.nextRoute();
+        return ShortestPath.dijkstra(campus.compact, campus.buildings.get(campus.routes[route]),
+                                     campus.buildings.get(campus.routes[route + 1]));
+    }
+
+    @Benchmark
+    public Path<Point> campusCompactWithStats(Campus campus) {
+        int route = campus.nextRoute();
+        campus.stats.reset();
+        return ShortestPath.dijkstra(campus.compact, campus.buildings.get(campus.routes[route]),
+                                     campus.buildings.get(campus.routes[route + 1]), campus.stats);
+    }
+
+    @Benchmark
+    public Path<Point> campusAStar(Campus campus) {
+        int route = campus.nextRoute();
+        Point end = campus.buildings.get(campus.routes[route + 1]);
+        return ShortestPath.aStar(campus.compact, campus.buildings.get(campus.routes[route]), end,
+                                  campus.heuristic.towards(end));
+    }
+
+    @Benchmark
+    public Path<Point> campusBidirectional(Campus campus) {
+        int route = campus.nextRoute();
+        return ShortestPath.bidirectionalDijkstra(campus.compact, campus.buildings.get(campus.routes[route]),
+                                                  campus.buildings.get(campus.routes[route + 1]));
+    }
+
+    @Benchmark
+    public Path<Point> campusContractionHierarchy(Campus campus) {
+        int route = campus.nextRoute();
+        return campus.hierarchy.shortestPath(campus.buildings.get(campus.routes[route]),
+                                             campus.buildings.get(campus.routes[route + 1]));
+    }
+
+    @Benchmark
+    public Isochrone<Point> campusIsochrone(Campus campus) {
+        // a limit past the farthest point, so every node is settled.
+        return ShortestPath.isochrone(campus.compact, campus.buildings.get(campus.routes[campus.nextRoute()]),
+                                      Double.POSITIVE_INFINITY);
+    }
+
+    @Benchmark
+    public Path<Integer> gridGraph(Grid grid) {
+        int route = grid.nextRoute();
+        return ShortestPath.dijkstra(grid.graph, grid.routes[route], grid.routes[route + 1]);
+    }
+
+    @Benchmark
+    public Path<Integer> gridCompact(Grid grid) {
+        int route = grid.nextRoute();
+        return ShortestPath.dijkstra(grid.compact, grid.routes[route], grid.routes[route + 1]);
+    }
+}
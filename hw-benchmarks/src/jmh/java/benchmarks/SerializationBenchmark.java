@@ -0,0 +1,56 @@
+package benchmarks;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times serializing a Path of Points to Json with Gson, as the server's /findPath used to, on
+ * paths of growing length, both with a new Gson per path, as the server created one per
+ * request, and with one Gson shared by every path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    /**
+     * The number of segments in the path. Routes across campus have up to about 100.
+     */
+    @Param({"1", "10", "100", "1000"})
+    public int segments;
+
+    private final Gson gson = new Gson();
+    private Path<Point> path;
+
+    @Setup(Level.Trial)
+    public void buildPath() {
+        // a random walk with campus-like coordinates and segment lengths.
+        Random random = new Random(Inputs.SEED);
+        Point point = new Point(1500, 1500);
+        path = new Path<>(point);
+        for (int i = 0; i < segments; i++) {
+            double dx = random.nextDouble() * 100 - 50;
+            double dy = random.nextDouble() * 100 - 50;
+            point = new Point(point.getX() + dx, point.getY() + dy);
+            path = path.extend(point, Math.hypot(dx, dy));
+        }
+    }
+
+    @Benchmark
+    public String newGson() {
+        return new Gson().toJson(path);
+    }
+
+    @Benchmark
+    public String sharedGson() {
+        return gson.toJson(path);
+    }
+}
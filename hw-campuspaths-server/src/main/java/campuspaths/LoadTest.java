@@ -0,0 +1,126 @@
+package campuspaths;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * LoadTest drives a running SparkServer with /findPath requests between random buildings from
+ * many client threads at once, then reports the throughput, the median and 99th percentile
+ * latency, and how many requests got each status code, such as 503 when the server sheds load.
+ * <p>
+ * Run it with the runLoadTest task, giving it the server's address, the number of client
+ * threads and the number of seconds to run, all optional:
+ * {@code gradle runLoadTest --args="http://localhost:4567 64 10"}.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String server = args.length > 0 ? args[0] : "http://localhost:4567";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String names = http.send(HttpRequest.newBuilder(URI.create(server + "/getNames")).build(),
+                                 HttpResponse.BodyHandlers.ofString()).body();
+        List<Map<String, Object>> buildings = new Gson().fromJson(names,
+                new TypeToken<List<Map<String, Object>>>() {}.getType());
+        List<String> shortNames = new ArrayList<>();
+        for (Map<String, Object> building : buildings) {
+            shortNames.add(URLEncoder.encode((String) building.get("shortName"), StandardCharsets.UTF_8));
+        }
+
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        Client[] workers = new Client[clients];
+        for (int i = 0; i < clients; i++) {
+            workers[i] = new Client(http, server, shortNames, end, new Random(i));
+            workers[i].start();
+        }
+        // every latency, in nanoseconds, and the number of responses with each status.
+        long[] latencies = new long[0];
+        Map<Integer, Integer> statuses = new TreeMap<>();
+        for (Client worker : workers) {
+            worker.join();
+            int count = latencies.length;
+            latencies = Arrays.copyOf(latencies, count + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, count, worker.count);
+            worker.statuses.forEach((status, times) -> statuses.merge(status, times, Integer::sum));
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("%d clients for %d s: %d requests, %.1f requests/s%n",
+                          clients, seconds, latencies.length, latencies.length / (double) seconds);
+        if (latencies.length > 0) {
+            System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                              percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                              latencies[latencies.length - 1] / 1e6);
+        }
+        System.out.println("statuses " + statuses);
+    }
+
+    /**
+     * Returns the value at the given fraction of the sorted values, which can't be empty.
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    /**
+     * A client thread, which sends one request at a time until the test ends and records how
+     * long each took.
+     */
+    private static class Client extends Thread {
+        private final HttpClient http;
+        private final String server;
+        private final List<String> shortNames;
+        private final long end;
+        private final Random random;
+        private long[] latencies = new long[1024];
+        private int count = 0;
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+        private Client(HttpClient http, String server, List<String> shortNames, long end, Random random) {
+            this.http = http;
+            this.server = server;
+            this.shortNames = shortNames;
+            this.end = end;
+            this.random = random;
+        }
+
+        @Override
+        public void run() {
+            while (System.nanoTime() < end) {
+                String start = shortNames.get(random.nextInt(shortNames.size()));
+                String finish = shortNames.get(random.nextInt(shortNames.size()));
+                HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(server + "/findPath?start=" + start + "&end=" + finish)).build();
+                long sent = System.nanoTime();
+                int status;
+                try {
+                    status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (Exception e) {
+                    // counted apart from every real status code.
+                    status = -1;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, 2 * count);
+                }
+                latencies[count++] = System.nanoTime() - sent;
+                statuses.merge(status, 1, Integer::sum);
+            }
+        }
+    }
+}
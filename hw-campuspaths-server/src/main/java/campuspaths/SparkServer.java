@@ -12,24 +12,82 @@
 package campuspaths;
 
 import campuspaths.utils.CORSFilter;
+import campuspaths.utils.CachedResponse;
+import campuspaths.utils.ComputePool;
+import campuspaths.utils.JsonResponseWriter;
+import campuspaths.utils.LoadShedder;
+import campuspaths.utils.ServerMetrics;
 import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
 import pathfinder.CampusMap;
+import pathfinder.Isochrone;
+import pathfinder.RouteCache;
+import pathfinder.SearchMode;
 import pathfinder.datastructures.Path;
 import pathfinder.datastructures.Point;
 import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
 import spark.Request;
 import spark.Response;
 import spark.Route;
 import spark.Spark;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 public class SparkServer {
 
-    public static void main(String[] args) {
+    /**
+     * The most pairs of buildings one /findPaths request can ask for.
+     */
+    private static final int MAX_BATCH = 100;
+
+    /**
+     * The most buildings one /matrix request can list in each of "from" and "to", enough for
+     * every building on campus.
+     */
+    private static final int MAX_MATRIX = 100;
+
+    /**
+     * The most requests the server reads and writes at once in the pooled mode. Requests
+     * mostly wait on clients or on the compute pool, so these threads are cheap.
+     */
+    private static final int MAX_REQUEST_THREADS = 256;
+
+    /**
+     * The most routing tasks that can wait for a compute thread before requests are turned
+     * away with 503.
+     */
+    private static final int COMPUTE_QUEUE = 64;
+
+    /**
+     * How long, in seconds, clients turned away with 503 are told to wait.
+     */
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    public static void main(String[] args) throws IOException {
+        // The "campuspaths.serverMode" system property picks how requests are served:
+        // "pooled", the default, serves them on many request threads and runs routing on a
+        // compute pool with one thread per core, shedding requests when its queue is full.
+        // "inline" routes on Spark's own request threads, as the server first did.
+        // Virtual threads would suit the request threads better, but they need Java 21, and
+        // this server builds for Java 11, so the pooled mode uses plain threads instead.
+        // The thread pool must be set before anything else touches Spark.
+        ComputePool compute;
+        if ("inline".equals(System.getProperty("campuspaths.serverMode", "pooled"))) {
+            compute = ComputePool.inline();
+        } else {
+            Spark.threadPool(MAX_REQUEST_THREADS);
+            compute = ComputePool.bounded(Runtime.getRuntime().availableProcessors(), COMPUTE_QUEUE);
+        }
+
         CORSFilter corsFilter = new CORSFilter();
         corsFilter.apply();
         // The above two lines help set up some settings that allow the
@@ -37,47 +95,276 @@ public class SparkServer {
         // comes from a different server.
         // You should leave these two lines at the very beginning of main().
 
-        CampusMap map = new CampusMap();
+        // Almost every request routes between two buildings, which bidirectional search suits best.
+        CampusMap map = new CampusMap(SearchMode.BIDIRECTIONAL);
+        // A few popular building pairs make up most requests, so remember recent routes.
+        // Every campus path goes both ways at the same cost, so routes can be reused reversed.
+        RouteCache routes = new RouteCache(map, 1024, true);
+
+        // Count every request to these endpoints and time it, and time the phases of the
+        // routing endpoints' requests, for the "/metrics" endpoint.
+        ServerMetrics metrics = new ServerMetrics();
+        ServerMetrics.Endpoint findPathMetrics = metrics.endpoint("/findPath", true);
+        ServerMetrics.Endpoint findPathsMetrics = metrics.endpoint("/findPaths", true);
+        ServerMetrics.Endpoint matrixMetrics = metrics.endpoint("/matrix", true);
+        ServerMetrics.Endpoint isochroneMetrics = metrics.endpoint("/isochrone", true);
+        ServerMetrics.Endpoint segmentsMetrics = metrics.endpoint("/segments", true);
+        metrics.endpoint("/getNames", false);
+        metrics.endpoint("/metrics", false);
+        LoadShedder shedder = new LoadShedder(RETRY_AFTER_SECONDS);
+        metrics.counter("campuspaths_route_cache_hits_total", "Routes found in the route cache.",
+                        routes::getHits);
+        metrics.counter("campuspaths_route_cache_misses_total", "Routes not found in the route cache.",
+                        routes::getMisses);
+        metrics.counter("campuspaths_route_cache_evictions_total", "Routes evicted from the route cache.",
+                        routes::getEvictions);
+        metrics.gauge("campuspaths_route_cache_size", "Routes in the route cache.", routes::size);
+        metrics.gauge("campuspaths_compute_queued", "Routing tasks waiting for a compute thread.",
+                      compute::queued);
+        metrics.counter("campuspaths_rejected_total", "Requests turned away because the compute pool was full.",
+                        shedder::rejected);
+        map.setSearchListener(metrics::searched);
+        Spark.before((request, response) -> metrics.start());
+        Spark.afterAfter((request, response) -> metrics.finish(request.pathInfo(), response.raw().getStatus()));
+
+        // Turn requests away while the compute pool is full, rather than queueing them all.
+        Spark.exception(RejectedExecutionException.class, shedder);
+
+        // Builds each response in a buffer kept between requests, one per server thread. Large
+        // responses commit as they are written, so every header, including CORSFilter's, which
+        // are added before the route runs, must be set before the first write.
+        ThreadLocal<JsonResponseWriter> writers = ThreadLocal.withInitial(JsonResponseWriter::new);
+        // Reads request bodies; Gson is thread safe, so one serves every request.
+        Gson gson = new Gson();
 
         // Respond to a "GET" request being made to the server's "/findPath" endpoint.
-        // Sends the shortest path between the given buildings in the Json format.
+        // Sends the shortest path between the given buildings in the Json format, or only its
+        // cost and the coordinates of its points if "format" is "compact".
         Spark.get("/findPath", new Route() {
             @Override
             public Object handle(Request request, Response response) throws Exception {
+                long begin = System.nanoTime();
                 String start = request.queryParams("start");
                 String end = request.queryParams("end");
 
                 if (!map.shortNameExists(start) || !map.shortNameExists(end)) {
                     Spark.halt(400, "Short names don't exist");
                 }
-                Path<Point> shortestPath = map.findShortestPath(start, end);
+                long parsed = System.nanoTime();
+                // cached routes are answered at once, so only searches wait for, or are turned
+                // away by, the compute pool.
+                Path<Point> shortestPath = routes.cached(start, end);
+                if (shortestPath == null) {
+                    shortestPath = compute.compute(() -> routes.findShortestPath(start, end));
+                }
+                long routed = System.nanoTime();
+
+                response.type("application/json");
+                OutputStream out = response.raw().getOutputStream();
+                if ("compact".equals(request.queryParams("format"))) {
+                    writers.get().writeCompactPath(shortestPath, out);
+                } else {
+                    writers.get().writePath(shortestPath, out);
+                }
+                findPathMetrics.phases(parsed - begin, routed - parsed, System.nanoTime() - routed);
+                // the body is already written.
+                return "";
+            }
+        });
+
+        // Respond to a "POST" request being made to the server's "/findPaths" endpoint.
+        // The body is a Json array of up to MAX_BATCH {"start": shortName, "end": shortName}
+        // pairs. Sends the shortest path between each pair, in order, as a Json array.
+        Spark.post("/findPaths", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
+                long begin = System.nanoTime();
+                List<Map<String, String>> pairs = null;
+                try {
+                    pairs = gson.fromJson(request.body(),
+                            new TypeToken<List<Map<String, String>>>() {}.getType());
+                } catch (JsonSyntaxException e) {
+                    Spark.halt(400, "The body must be a Json array of start and end pairs");
+                }
+                if (pairs == null || pairs.size() > MAX_BATCH) {
+                    Spark.halt(400, "The body must be a Json array of at most " + MAX_BATCH + " pairs");
+                }
+                List<String> starts = new ArrayList<>();
+                List<String> ends = new ArrayList<>();
+                for (Map<String, String> pair : pairs) {
+                    if (pair == null || !map.shortNameExists(pair.get("start"))
+                            || !map.shortNameExists(pair.get("end"))) {
+                        Spark.halt(400, "Short names don't exist");
+                    }
+                    starts.add(pair.get("start"));
+                    ends.add(pair.get("end"));
+                }
+                long parsed = System.nanoTime();
+                // one search per start building, split into a part per compute thread, and this
+                // request's thread waits for them.
+                List<Path<Point>> paths = map.findShortestPaths(starts, ends, compute.executor());
+                long routed = System.nanoTime();
+
+                response.type("application/json");
+                writers.get().writePaths(paths, response.raw().getOutputStream());
+                findPathsMetrics.phases(parsed - begin, routed - parsed, System.nanoTime() - routed);
+                return "";
+            }
+        });
+
+        // Respond to a "GET" request being made to the server's "/matrix" endpoint.
+        // Sends the costs of the shortest paths from each building in "from" to each in "to",
+        // both comma separated lists of up to MAX_MATRIX short names, in the Json format, with
+        // null for no path. The paths themselves are only sent if "geometry" is "true", in the
+        // compact format.
+        Spark.get("/matrix", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
+                long begin = System.nanoTime();
+                String from = request.queryParams("from");
+                String to = request.queryParams("to");
+                if (from == null || to == null) {
+                    Spark.halt(400, "from and to are required");
+                }
+                List<String> starts = List.of(from.split(","));
+                List<String> ends = List.of(to.split(","));
+                if (starts.size() > MAX_MATRIX || ends.size() > MAX_MATRIX) {
+                    Spark.halt(400, "from and to can each have at most " + MAX_MATRIX + " short names");
+                }
+                for (String name : starts) {
+                    if (!map.shortNameExists(name)) {
+                        Spark.halt(400, "Short names don't exist");
+                    }
+                }
+                for (String name : ends) {
+                    if (!map.shortNameExists(name)) {
+                        Spark.halt(400, "Short names don't exist");
+                    }
+                }
+
+                long parsed = System.nanoTime();
+                // one search per distinct start building, split into a part per compute thread,
+                // and this request's thread waits for them.
+                double[][] costs;
+                List<List<Path<Point>>> paths = null;
+                if ("true".equals(request.queryParams("geometry"))) {
+                    paths = map.pathMatrix(starts, ends, compute.executor());
+                    costs = new double[starts.size()][ends.size()];
+                    for (int i = 0; i < costs.length; i++) {
+                        for (int j = 0; j < costs[i].length; j++) {
+                            Path<Point> path = paths.get(i).get(j);
+                            costs[i][j] = path == null ? Double.POSITIVE_INFINITY : path.getCost();
+                        }
+                    }
+                } else {
+                    costs = map.costMatrix(starts, ends, compute.executor());
+                }
+                long routed = System.nanoTime();
+
+                response.type("application/json");
+                writers.get().writeMatrix(costs, paths, response.raw().getOutputStream());
+                matrixMetrics.phases(parsed - begin, routed - parsed, System.nanoTime() - routed);
+                return "";
+            }
+        });
+
+        // Respond to a "GET" request being made to the server's "/isochrone" endpoint.
+        // Sends every point within "distance" of the "start" building as [x, y, distance], and
+        // the parts of the campus paths leaving them that are still within reach, in the Json format.
+        Spark.get("/isochrone", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
+                long begin = System.nanoTime();
+                String start = request.queryParams("start");
+                if (!map.shortNameExists(start)) {
+                    Spark.halt(400, "Short names don't exist");
+                }
+                String limit = request.queryParams("distance");
+                double distance = Double.NaN;
+                try {
+                    distance = limit == null ? Double.NaN : Double.parseDouble(limit);
+                } catch (NumberFormatException e) {
+                    Spark.halt(400, "distance must be a number at least 0");
+                }
+                if (!(distance >= 0)) {
+                    Spark.halt(400, "distance must be a number at least 0");
+                }
+                double within = distance;
+                long parsed = System.nanoTime();
+                Isochrone<Point> isochrone = compute.compute(() -> map.reachableWithin(start, within));
+                List<CampusPath> boundary = map.boundarySegments(isochrone);
+                long routed = System.nanoTime();
+
+                response.type("application/json");
+                writers.get().writeIsochrone(isochrone, boundary, response.raw().getOutputStream());
+                isochroneMetrics.phases(parsed - begin, routed - parsed, System.nanoTime() - routed);
+                return "";
+            }
+        });
+
+        // Respond to a "GET" request being made to the server's "/segments" endpoint.
+        // Sends the campus paths that pass through the box given as bbox=minX,minY,maxX,maxY,
+        // in the Json format, so a client only draws the part of the map it shows.
+        Spark.get("/segments", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
+                long begin = System.nanoTime();
+                String bbox = request.queryParams("bbox");
+                double[] box = new double[4];
+                String[] edges = bbox == null ? new String[0] : bbox.split(",");
+                if (edges.length != box.length) {
+                    Spark.halt(400, "bbox must be minX,minY,maxX,maxY");
+                }
+                try {
+                    for (int i = 0; i < box.length; i++) {
+                        box[i] = Double.parseDouble(edges[i]);
+                    }
+                } catch (NumberFormatException e) {
+                    Spark.halt(400, "bbox must be minX,minY,maxX,maxY");
+                }
+                if (Double.isNaN(box[0]) || Double.isNaN(box[1]) || Double.isNaN(box[2])
+                        || Double.isNaN(box[3])) {
+                    Spark.halt(400, "bbox must be minX,minY,maxX,maxY");
+                }
+                long parsed = System.nanoTime();
+                List<CampusPath> segments = map.segmentsIn(box[0], box[1], box[2], box[3]);
+                long routed = System.nanoTime();
 
-                Gson gson = new Gson();
-                return gson.toJson(shortestPath);
+                response.type("application/json");
+                writers.get().writeSegments(segments, response.raw().getOutputStream());
+                segmentsMetrics.phases(parsed - begin, routed - parsed, System.nanoTime() - routed);
+                return "";
             }
         });
 
+        // The buildings never change while the server runs, so their names are sorted and
+        // written once, now.
+        List<CampusBuilding> bldgs = new ArrayList<>();
+        for (Map.Entry<String, String> bldg: map.buildingNames().entrySet()) {
+            bldgs.add(new CampusBuilding(bldg.getKey(), bldg.getValue(), 0, 0));
+        }
+        bldgs.sort(Comparator.comparing(CampusBuilding::getLongName));
+        ByteArrayOutputStream names = new ByteArrayOutputStream();
+        new JsonResponseWriter().writeBuildings(bldgs, names);
+        CachedResponse namesResponse = new CachedResponse(names.toByteArray(), "application/json");
+
         // Respond to a "GET" request being made to the server's "/getNames" endpoint.
-        // Sends a list of buildings with its short and lone names in the Json format.
+        // Sends a list of buildings with its short and long names in the Json format.
         Spark.get("/getNames", new Route() {
             @Override
             public Object handle(Request request, Response response) throws Exception {
-                Map<String, String> shortToLongNames = map.buildingNames();
-
-                List<CampusBuilding> bldgs = new ArrayList<>();
-                for (Map.Entry<String, String> bldg: shortToLongNames.entrySet()) {
-                    String shortName = bldg.getKey();
-                    String longName = bldg.getValue();
-                    bldgs.add(new CampusBuilding(shortName, longName, 0, 0));
-                }
-                bldgs.sort(new Comparator<CampusBuilding>() {
-                    @Override
-                    public int compare(CampusBuilding o1, CampusBuilding o2) {
-                        return o1.getLongName().compareTo(o2.getLongName());
-                    }
-                });
-                Gson gson = new Gson();
-                return gson.toJson(bldgs);
+                return namesResponse.send(request, response);
+            }
+        });
+
+        // Respond to a "GET" request being made to the server's "/metrics" endpoint.
+        // Sends the server's request counts, latencies, searches and caches in the Prometheus
+        // text format, for a Prometheus server to scrape.
+        Spark.get("/metrics", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
+                response.type("text/plain; version=0.0.4; charset=utf-8");
+                return metrics.toPrometheus();
             }
         });
     }
@@ -32,7 +32,7 @@ import java.util.HashMap;
  * (see "Cross-Site Scripting" or "XSS"), but it isn't a problem for our specific
  * application.
  */
-public class CORSFilter {
+public class CORSFilter implements Filter {
 
     // ===============
     // You don't need to understand how this works at all, but it's something that's necessary
@@ -63,15 +63,22 @@ public class CORSFilter {
      * will be added to the response headers.
      */
     public void apply() {
-        Filter filter = new Filter() {
-            @Override
-            public void handle(Request request, Response response) {
-                corsHeaders.forEach(response::header);
-            }
-        };
-        Spark.afterAfter(filter); // Applies this filter even if there's a halt() or exception.
+        // Added before the route runs, so they are sent even by routes that commit the response
+        // themselves, such as cached and streamed ones, and still sent on a halt() or exception.
+        Spark.before(this);
         //
         Logger logger = LoggerFactory.getLogger("CampusPaths Server");
         logger.info("Listening on: http://localhost:" + Spark.port());
     }
+
+    /**
+     * Adds the CORS headers to a response.
+     *
+     * @param request  The request being answered.
+     * @param response The response to add the headers to.
+     */
+    @Override
+    public void handle(Request request, Response response) {
+        corsHeaders.forEach(response::header);
+    }
 }
@@ -0,0 +1,170 @@
+package campuspaths.utils;
+
+import spark.Request;
+import spark.Response;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A CachedResponse is an immutable response body that never changes while the server runs,
+ * kept both as is and gzipped, with a strong ETag for each, so that serving it only copies
+ * bytes. Clients that send back the ETag in If-None-Match get an empty 304 instead.
+ */
+public class CachedResponse {
+
+    /**
+     * The body as given.
+     */
+    private final byte[] identity;
+
+    /**
+     * The body gzipped.
+     */
+    private final byte[] gzipped;
+
+    /**
+     * The ETag of identity, a quoted hash of the body.
+     */
+    private final String identityTag;
+
+    /**
+     * The ETag of gzipped, which differs from identityTag since the bytes differ.
+     */
+    private final String gzipTag;
+
+    /**
+     * The Content-Type of the body.
+     */
+    private final String contentType;
+
+    /**
+     * Keeps a response body, compressing it and hashing it once, now.
+     *
+     * @param body        The bytes of the response body, which this takes ownership of.
+     * @param contentType The Content-Type of the body.
+     */
+    public CachedResponse(byte[] body, String contentType) {
+        this.identity = body;
+        this.contentType = contentType;
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            // a ByteArrayOutputStream doesn't throw.
+            throw new UncheckedIOException(e);
+        }
+        this.gzipped = compressed.toByteArray();
+        String hash = sha256(body);
+        this.identityTag = "\"" + hash + "\"";
+        this.gzipTag = "\"" + hash + "-gzip\"";
+    }
+
+    /**
+     * Sends the body in reply to a request: an empty 304 if the request's If-None-Match has
+     * its ETag, the gzipped body if the request accepts gzip, and the body as is otherwise.
+     * The response is committed, so the handler's return value isn't sent.
+     *
+     * @param request  The request being answered.
+     * @param response The response to send the body in.
+     * @return An empty String for the handler to return.
+     * @throws IOException if writing the response fails.
+     */
+    public String send(Request request, Response response) throws IOException {
+        boolean gzip = acceptsGzip(request.headers("Accept-Encoding"));
+        String tag = gzip ? gzipTag : identityTag;
+        HttpServletResponse raw = response.raw();
+        raw.setHeader("ETag", tag);
+        raw.setHeader("Vary", "Accept-Encoding");
+        // the body is cheap to check for, so have clients always ask whether theirs is current.
+        raw.setHeader("Cache-Control", "no-cache");
+        if (matches(request.headers("If-None-Match"))) {
+            raw.setStatus(304);
+        } else {
+            byte[] body = gzip ? gzipped : identity;
+            raw.setContentType(contentType);
+            if (gzip) {
+                raw.setHeader("Content-Encoding", "gzip");
+            }
+            raw.setContentLength(body.length);
+            raw.getOutputStream().write(body);
+        }
+        // committing the response stops Spark from writing, and gzipping, a body of its own.
+        raw.flushBuffer();
+        return "";
+    }
+
+    /**
+     * Returns whether an If-None-Match header has either of this body's ETags, or is "*". As
+     * If-None-Match requires, a weak tag matches the strong tag with the same value.
+     */
+    private boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(identityTag) || tag.equals(gzipTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether an Accept-Encoding header lists gzip, or "*", without q=0.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(parameter.substring(2)) == 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the SHA-256 hash of bytes in hexadecimal.
+     */
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16));
+                hex.append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package campuspaths.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A ComputePool runs the server's CPU-bound routing work, such as dijkstra searches, apart from
+ * the threads that read requests and write responses, so slow clients can't hold up searches and
+ * searches can't starve the threads serving clients. It has one thread per core and a bounded
+ * queue, and refuses work once the queue is full instead of letting waiting requests pile up.
+ * <p>
+ * An inline ComputePool runs all work on the caller's thread instead, as the server did before
+ * it had a pool, and never refuses work.
+ */
+public class ComputePool {
+
+    /**
+     * The threads and queue work runs on, or null to run it on the caller's thread.
+     */
+    private final ThreadPoolExecutor executor;
+
+    private ComputePool(ThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param threads       The number of threads to run work on.
+     * @param queueCapacity The most pieces of work that can wait for a thread.
+     * @return A pool that runs work on its own daemon threads, queueing at most queueCapacity
+     * pieces of work.
+     * @throws IllegalArgumentException if threads or queueCapacity are less than 1.
+     */
+    public static ComputePool bounded(int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("A pool needs a thread and room in its queue.");
+        }
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "compute-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ComputePool(new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy()));
+    }
+
+    /**
+     * @return A pool that runs all work on the caller's thread.
+     */
+    public static ComputePool inline() {
+        return new ComputePool(null);
+    }
+
+    /**
+     * Runs a piece of work on the pool and waits for its result.
+     *
+     * @param work The work to run.
+     * @param <T>  The type of the work's result.
+     * @return The result of the work.
+     * @throws RejectedExecutionException if the pool's queue is full.
+     * @throws Exception                  whatever the work throws.
+     */
+    public <T> T compute(Callable<T> work) throws Exception {
+        if (executor == null) {
+            return work.call();
+        }
+        Future<T> result = executor.submit(work);
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * @return An executor that runs work on this pool, for work split into parts that run at the
+     * same time. Its execute method throws RejectedExecutionException if the pool's queue is full.
+     * Work given to it must not wait for other work given to it, since the threads it would wait
+     * on may all be waiting too.
+     */
+    public Executor executor() {
+        return executor == null ? Runnable::run : executor;
+    }
+
+    /**
+     * @return The number of pieces of work waiting for a thread.
+     */
+    public int queued() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+}
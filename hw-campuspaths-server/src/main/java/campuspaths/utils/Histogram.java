@@ -0,0 +1,112 @@
+package campuspaths.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Histogram counts non-negative whole numbers, such as latencies in nanoseconds, in buckets
+ * whose width grows with their values, the way HdrHistogram does: every power of two is split
+ * into 8 buckets, so any count it reports is within 12.5% of the value it is for, from 1 up to
+ * Long.MAX_VALUE, in a fixed few kilobytes. Recording a value is a few arithmetic operations
+ * and two atomic additions, and many threads can record at once without locking.
+ */
+public class Histogram {
+
+    /**
+     * The number of buckets each power of two is split into, and the number of values below it
+     * that get a bucket each.
+     */
+    private static final int SUB_BUCKETS = 8;
+
+    /**
+     * log2(SUB_BUCKETS).
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    // AF(this) = a multiset of values, with counts[bucketOf(v)] of them in v's bucket,
+    //            adding up to total.
+    // RI: counts != null && counts.length() == bucketOf(Long.MAX_VALUE) + 1
+    //     && every element of counts >= 0 && total >= 0
+
+    /**
+     * The number of values recorded in each bucket.
+     */
+    private final AtomicLongArray counts;
+
+    /**
+     * The total of every value recorded.
+     */
+    private final LongAdder total;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public Histogram() {
+        this.counts = new AtomicLongArray(bucketOf(Long.MAX_VALUE) + 1);
+        this.total = new LongAdder();
+    }
+
+    /**
+     * Returns the bucket of value. Bucket 0 holds 0 and below; otherwise the buckets are
+     * indexed by value - 1, so that every power of two is the highest value of its bucket.
+     */
+    private static int bucketOf(long value) {
+        if (value <= 0) {
+            return 0;
+        }
+        long below = value - 1;
+        if (below < SUB_BUCKETS) {
+            return 1 + (int) below;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(below);
+        int sub = (int) (below >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return 1 + SUB_BUCKETS * (exponent - SUB_BUCKET_BITS + 1) + sub;
+    }
+
+    /**
+     * Counts one value.
+     *
+     * @param value The value to count, where negative values count as 0.
+     * @spec.modifies this
+     * @spec.effects adds value to this.
+     */
+    public void record(long value) {
+        counts.incrementAndGet(bucketOf(value));
+        total.add(Math.max(0, value));
+    }
+
+    /**
+     * @return The number of values recorded.
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return The total of every value recorded, with negative values as 0.
+     */
+    public long sum() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the number of values recorded that are at most bound. This is exact when bound
+     * is below 8 or a power of two; otherwise it also counts the values that share bound's
+     * bucket, which are at most 12.5% larger than bound.
+     *
+     * @param bound The largest value to count.
+     * @return The number of values recorded that are at most bound, as above.
+     */
+    public long countAtMost(long bound) {
+        int last = bucketOf(bound);
+        long count = 0;
+        for (int i = 0; i <= last; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+}
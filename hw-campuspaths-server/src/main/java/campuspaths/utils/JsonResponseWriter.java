@@ -0,0 +1,377 @@
+package campuspaths.utils;
+
+import pathfinder.Isochrone;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The JsonResponseWriter writes the server's responses as Json bytes straight to an output
+ * stream, without reflection or an intermediate String. It keeps its buffer between responses,
+ * so once the buffer has grown to fit the largest response, writing one allocates nothing.
+ * <p>
+ * A JsonResponseWriter is not thread safe: use one per thread.
+ */
+public class JsonResponseWriter {
+
+    /**
+     * The bytes of the response being written, in buffer[0..size - 1].
+     */
+    private byte[] buffer = new byte[8192];
+
+    /**
+     * The number of bytes written to buffer.
+     */
+    private int size = 0;
+
+    /**
+     * Holds the digits of one number while it is copied into buffer.
+     */
+    private final StringBuilder number = new StringBuilder(32);
+
+    /**
+     * Writes a path in the same Json layout Gson gives a Path, which the React application
+     * reads: {"cost":c,"start":{"x":x,"y":y},"path":[{"start":{...},"end":{...},"cost":c},...]},
+     * or null if there is no path.
+     *
+     * @param path The path to write, or {@literal null}.
+     * @param out  The stream to write it to.
+     * @throws IOException if writing to out fails.
+     */
+    public void writePath(Path<Point> path, OutputStream out) throws IOException {
+        size = 0;
+        path(path);
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * Writes paths as a Json array, each in {@link #writePath(Path, OutputStream)}'s layout.
+     *
+     * @param paths The paths to write, which may include {@literal null}s, in order.
+     * @param out   The stream to write them to.
+     * @throws IOException if writing to out fails.
+     */
+    public void writePaths(List<Path<Point>> paths, OutputStream out) throws IOException {
+        size = 0;
+        put('[');
+        for (int i = 0; i < paths.size(); i++) {
+            if (i > 0) {
+                put(',');
+            }
+            path(paths.get(i));
+        }
+        put(']');
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * Writes a path as only its cost and the coordinates of its points, in order:
+     * {"cost":c,"coordinates":[[x,y],...]}, or null if there is no path. This is about a third
+     * the size of {@link #writePath(Path, OutputStream)}'s layout, which repeats every point.
+     *
+     * @param path The path to write, or {@literal null}.
+     * @param out  The stream to write it to.
+     * @throws IOException if writing to out fails.
+     */
+    public void writeCompactPath(Path<Point> path, OutputStream out) throws IOException {
+        size = 0;
+        compactPath(path);
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * Writes a matrix of route costs, with null for no route: {"costs":[[c,...],...]}, and if
+     * paths are given, the routes themselves in {@link #writeCompactPath(Path, OutputStream)}'s
+     * layout: {"costs":[[c,...],...],"paths":[[{"cost":c,"coordinates":[...]},...],...]}.
+     *
+     * @param costs The cost of the route from start i to end j at [i][j], or
+     *              Double.POSITIVE_INFINITY if there is none.
+     * @param paths The route from start i to end j at (i, j), or {@literal null} if there is
+     *              none, or {@literal null} to send only the costs.
+     * @param out   The stream to write them to.
+     * @throws IOException if writing to out fails.
+     */
+    public void writeMatrix(double[][] costs, List<List<Path<Point>>> paths, OutputStream out)
+            throws IOException {
+        size = 0;
+        ascii("{\"costs\":[");
+        for (int i = 0; i < costs.length; i++) {
+            if (i > 0) {
+                put(',');
+            }
+            put('[');
+            for (int j = 0; j < costs[i].length; j++) {
+                if (j > 0) {
+                    put(',');
+                }
+                // Json has no infinity.
+                if (Double.isInfinite(costs[i][j])) {
+                    ascii("null");
+                } else {
+                    number(costs[i][j]);
+                }
+            }
+            put(']');
+        }
+        put(']');
+        if (paths != null) {
+            ascii(",\"paths\":[");
+            for (int i = 0; i < paths.size(); i++) {
+                if (i > 0) {
+                    put(',');
+                }
+                put('[');
+                for (int j = 0; j < paths.get(i).size(); j++) {
+                    if (j > 0) {
+                        put(',');
+                    }
+                    compactPath(paths.get(i).get(j));
+                }
+                put(']');
+            }
+            put(']');
+        }
+        put('}');
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * Writes the points an isochrone reaches as [x,y,cost] and the campus paths on its
+     * boundary, in the same Json layout Gson gives a map of them:
+     * {"points":[[x,y,c],...],"boundary":[{"x1":x,"y1":y,"x2":x,"y2":y,"distance":d},...]}.
+     *
+     * @param isochrone The isochrone whose points to write.
+     * @param boundary  The parts of campus paths that leave the isochrone's points and are
+     *                  still within its limit.
+     * @param out       The stream to write them to.
+     * @throws IOException if writing to out fails.
+     */
+    public void writeIsochrone(Isochrone<Point> isochrone, List<CampusPath> boundary, OutputStream out)
+            throws IOException {
+        size = 0;
+        ascii("{\"points\":[");
+        boolean first = true;
+        for (Point point : isochrone.nodes()) {
+            if (!first) {
+                put(',');
+            }
+            first = false;
+            put('[');
+            number(point.getX());
+            put(',');
+            number(point.getY());
+            put(',');
+            number(isochrone.costTo(point));
+            put(']');
+        }
+        ascii("],\"boundary\":");
+        campusPaths(boundary);
+        put('}');
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * Writes campus paths in the same Json layout Gson gives a list of CampusPaths:
+     * [{"x1":x,"y1":y,"x2":x,"y2":y,"distance":d},...].
+     *
+     * @param segments The campus paths to write, in order.
+     * @param out      The stream to write them to.
+     * @throws IOException if writing to out fails.
+     */
+    public void writeSegments(List<CampusPath> segments, OutputStream out) throws IOException {
+        size = 0;
+        campusPaths(segments);
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * Writes the short and long names of buildings, in the same Json layout Gson gives a list
+     * of CampusBuildings: [{"shortName":s,"longName":l,"x":x,"y":y},...].
+     *
+     * @param buildings The buildings to write, in order.
+     * @param out       The stream to write them to.
+     * @throws IOException if writing to out fails.
+     */
+    public void writeBuildings(List<CampusBuilding> buildings, OutputStream out) throws IOException {
+        size = 0;
+        put('[');
+        for (int i = 0; i < buildings.size(); i++) {
+            CampusBuilding building = buildings.get(i);
+            if (i > 0) {
+                put(',');
+            }
+            ascii("{\"shortName\":");
+            string(building.getShortName());
+            ascii(",\"longName\":");
+            string(building.getLongName());
+            ascii(",\"x\":");
+            number(building.getX());
+            ascii(",\"y\":");
+            number(building.getY());
+            put('}');
+        }
+        put(']');
+        out.write(buffer, 0, size);
+    }
+
+    private void path(Path<Point> path) {
+        if (path == null) {
+            ascii("null");
+            return;
+        }
+        ascii("{\"cost\":");
+        number(path.getCost());
+        ascii(",\"start\":");
+        point(path.getStart());
+        ascii(",\"path\":[");
+        boolean first = true;
+        for (Path<Point>.Segment segment : path) {
+            if (!first) {
+                put(',');
+            }
+            first = false;
+            ascii("{\"start\":");
+            point(segment.getStart());
+            ascii(",\"end\":");
+            point(segment.getEnd());
+            ascii(",\"cost\":");
+            number(segment.getCost());
+            put('}');
+        }
+        ascii("]}");
+    }
+
+    private void compactPath(Path<Point> path) {
+        if (path == null) {
+            ascii("null");
+            return;
+        }
+        ascii("{\"cost\":");
+        number(path.getCost());
+        ascii(",\"coordinates\":[");
+        coordinates(path.getStart());
+        for (Path<Point>.Segment segment : path) {
+            put(',');
+            coordinates(segment.getEnd());
+        }
+        ascii("]}");
+    }
+
+    private void campusPaths(List<CampusPath> segments) {
+        put('[');
+        for (int i = 0; i < segments.size(); i++) {
+            CampusPath segment = segments.get(i);
+            if (i > 0) {
+                put(',');
+            }
+            ascii("{\"x1\":");
+            number(segment.getX1());
+            ascii(",\"y1\":");
+            number(segment.getY1());
+            ascii(",\"x2\":");
+            number(segment.getX2());
+            ascii(",\"y2\":");
+            number(segment.getY2());
+            ascii(",\"distance\":");
+            number(segment.getDistance());
+            put('}');
+        }
+        put(']');
+    }
+
+    private void point(Point point) {
+        ascii("{\"x\":");
+        number(point.getX());
+        ascii(",\"y\":");
+        number(point.getY());
+        put('}');
+    }
+
+    private void coordinates(Point point) {
+        put('[');
+        number(point.getX());
+        put(',');
+        number(point.getY());
+        put(']');
+    }
+
+    /**
+     * Writes a number as Double.toString does, which is how Gson writes it.
+     */
+    private void number(double value) {
+        number.setLength(0);
+        number.append(value);
+        for (int i = 0; i < number.length(); i++) {
+            put(number.charAt(i));
+        }
+    }
+
+    /**
+     * Writes text that is already valid inside Json and only has ASCII characters.
+     */
+    private void ascii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            put(text.charAt(i));
+        }
+    }
+
+    /**
+     * Writes a quoted Json string, escaped as Gson escapes it and encoded as UTF-8.
+     */
+    private void string(String text) {
+        put('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                put('\\');
+                put(c);
+            } else if (c == '\t' || c == '\b' || c == '\n' || c == '\r' || c == '\f') {
+                put('\\');
+                put("tbnrf".charAt("\t\b\n\r\f".indexOf(c)));
+            } else if (c < 0x20 || c == '\u2028' || c == '\u2029'
+                       || c == '<' || c == '>' || c == '&' || c == '=' || c == '\'') {
+                // control characters, the line separators JavaScript doesn't allow in strings,
+                // and the characters Gson escapes so Json is safe to embed in HTML.
+                ascii("\\u");
+                for (int shift = 12; shift >= 0; shift -= 4) {
+                    put(Character.forDigit((c >> shift) & 0xf, 16));
+                }
+            } else if (c < 0x80) {
+                put(c);
+            } else if (c < 0x800) {
+                put((char) (0xc0 | c >> 6));
+                put((char) (0x80 | c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                       && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                put((char) (0xf0 | codePoint >> 18));
+                put((char) (0x80 | codePoint >> 12 & 0x3f));
+                put((char) (0x80 | codePoint >> 6 & 0x3f));
+                put((char) (0x80 | codePoint & 0x3f));
+            } else {
+                // an unpaired surrogate has no UTF-8 encoding, so it becomes U+FFFD, as in String.getBytes.
+                char unit = Character.isSurrogate(c) ? '\uFFFD' : c;
+                put((char) (0xe0 | unit >> 12));
+                put((char) (0x80 | unit >> 6 & 0x3f));
+                put((char) (0x80 | unit & 0x3f));
+            }
+        }
+        put('"');
+    }
+
+    /**
+     * Appends the low byte of c to buffer, growing it if it is full.
+     */
+    private void put(char c) {
+        if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, 2 * size);
+        }
+        buffer[size++] = (byte) c;
+    }
+}
@@ -0,0 +1,52 @@
+package campuspaths.utils;
+
+import spark.ExceptionHandler;
+import spark.Request;
+import spark.Response;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A LoadShedder answers the requests a full ComputePool turned away with 503 Service
+ * Unavailable and a Retry-After header, rather than letting them wait, and counts them.
+ * Register it for RejectedExecutionException with Spark.exception.
+ */
+public class LoadShedder implements ExceptionHandler<RejectedExecutionException> {
+
+    /**
+     * The Retry-After header's value: how long, in seconds, turned away clients should wait.
+     */
+    private final String retryAfter;
+
+    /**
+     * The number of requests turned away.
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param retryAfterSeconds How long, in seconds, to tell turned away clients to wait.
+     * @throws IllegalArgumentException if retryAfterSeconds is negative.
+     */
+    public LoadShedder(int retryAfterSeconds) {
+        if (retryAfterSeconds < 0) {
+            throw new IllegalArgumentException("Retry-After cannot be negative.");
+        }
+        this.retryAfter = Integer.toString(retryAfterSeconds);
+    }
+
+    @Override
+    public void handle(RejectedExecutionException exception, Request request, Response response) {
+        rejected.increment();
+        response.status(503);
+        response.header("Retry-After", retryAfter);
+        response.body("The server is busy");
+    }
+
+    /**
+     * @return The number of requests turned away so far.
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+}
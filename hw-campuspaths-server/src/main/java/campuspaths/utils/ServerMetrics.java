@@ -0,0 +1,364 @@
+package campuspaths.utils;
+
+import pathfinder.SearchMode;
+import pathfinder.SearchStats;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * ServerMetrics counts what the server does, and writes it in the Prometheus text format for a
+ * /metrics endpoint: the requests and errors of each endpoint, how long each endpoint's requests
+ * take, both in all and in their parse, route and serialize phases, how much work each search
+ * does, and any other counts the server registers, such as its route cache's hits. Recording
+ * is lock free and takes well under a microsecond, so it can happen on every request.
+ */
+public class ServerMetrics {
+
+    /**
+     * The smallest and largest powers of two, in nanoseconds, that latency buckets end at:
+     * about a microsecond and about 34 seconds.
+     */
+    private static final int MIN_LATENCY_EXPONENT = 10;
+    private static final int MAX_LATENCY_EXPONENT = 35;
+
+    /**
+     * The largest power of two that buckets of nodes and edges searched end at, well above the
+     * campus size.
+     */
+    private static final int MAX_SEARCH_EXPONENT = 20;
+
+    /**
+     * Latencies are recorded in nanoseconds, and written in seconds.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The endpoints requests are counted for, by path, in the order they were registered.
+     */
+    private final Map<String, Endpoint> endpoints;
+
+    /**
+     * The work of the searches with each mode.
+     */
+    private final Map<SearchMode, Searches> searches;
+
+    /**
+     * The counters and gauges the server registered, in the order they were registered.
+     */
+    private final List<Sampled> sampled;
+
+    /**
+     * When the request each thread is serving started, in System.nanoTime() nanoseconds.
+     */
+    private final ThreadLocal<long[]> started;
+
+    /**
+     * Creates metrics with no endpoints, counters or gauges, and no searches recorded.
+     */
+    public ServerMetrics() {
+        this.endpoints = new LinkedHashMap<>();
+        this.searches = new EnumMap<>(SearchMode.class);
+        for (SearchMode mode : SearchMode.values()) {
+            searches.put(mode, new Searches());
+        }
+        this.sampled = new ArrayList<>();
+        this.started = ThreadLocal.withInitial(() -> new long[1]);
+    }
+
+    /**
+     * Starts counting the requests of an endpoint. Endpoints must all be registered before the
+     * server serves any request.
+     *
+     * @param path   The path of the endpoint, such as "/findPath".
+     * @param phased Whether the endpoint records how long the phases of its requests take, so
+     *               that those are reported.
+     * @return The endpoint's metrics, for recording how long the phases of its requests take.
+     * @throws IllegalArgumentException if path is already registered.
+     */
+    public Endpoint endpoint(String path, boolean phased) {
+        if (endpoints.containsKey(path)) {
+            throw new IllegalArgumentException("Endpoint " + path + " is already registered.");
+        }
+        Endpoint endpoint = new Endpoint(phased);
+        endpoints.put(path, endpoint);
+        return endpoint;
+    }
+
+    /**
+     * Reports a count that only goes up, kept elsewhere, such as a cache's hits. Counters must
+     * all be registered before the server serves any request.
+     *
+     * @param name  The metric's name, which should end in "_total".
+     * @param help  What the metric counts.
+     * @param value Reads the count.
+     */
+    public void counter(String name, String help, LongSupplier value) {
+        sampled.add(new Sampled(name, help, "counter", value));
+    }
+
+    /**
+     * Reports a count that goes up and down, kept elsewhere, such as a queue's length. Gauges
+     * must all be registered before the server serves any request.
+     *
+     * @param name  The metric's name.
+     * @param help  What the metric measures.
+     * @param value Reads the count.
+     */
+    public void gauge(String name, String help, LongSupplier value) {
+        sampled.add(new Sampled(name, help, "gauge", value));
+    }
+
+    /**
+     * Marks the start of the request the current thread is serving, for {@link #finish}.
+     */
+    public void start() {
+        started.get()[0] = System.nanoTime();
+    }
+
+    /**
+     * Counts the request the current thread has finished serving, and how long it took since
+     * {@link #start}. Requests to paths that aren't registered aren't counted.
+     *
+     * @param path   The path of the request.
+     * @param status The status of the response, where 400 and above count as errors.
+     */
+    public void finish(String path, int status) {
+        Endpoint endpoint = endpoints.get(path);
+        if (endpoint != null) {
+            endpoint.requests.increment();
+            if (status >= 400) {
+                endpoint.errors.increment();
+            }
+            endpoint.total.record(System.nanoTime() - started.get()[0]);
+        }
+    }
+
+    /**
+     * Counts the work one search did.
+     *
+     * @param mode  The algorithm the search used.
+     * @param stats The work the search did.
+     */
+    public void searched(SearchMode mode, SearchStats stats) {
+        Searches work = searches.get(mode);
+        work.settled.record(stats.getNodesSettled());
+        work.relaxed.record(stats.getEdgesRelaxed());
+        work.peakQueue.record(stats.getPeakQueueSize());
+        work.duration.record(stats.getNanos());
+        work.pushes.add(stats.getHeapPushes());
+        work.pops.add(stats.getHeapPops());
+        work.stale.add(stats.getStaleSkipped());
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format, version 0.0.4.
+     *
+     * @return The metrics' current values, in the Prometheus text format.
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+
+        header(out, "campuspaths_requests_total", "Requests served, by endpoint.", "counter");
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            out.append("campuspaths_requests_total{endpoint=\"").append(entry.getKey()).append("\"} ")
+               .append(entry.getValue().requests.sum()).append('\n');
+        }
+        header(out, "campuspaths_request_errors_total",
+               "Requests answered with a status of 400 or above, by endpoint.", "counter");
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            out.append("campuspaths_request_errors_total{endpoint=\"").append(entry.getKey()).append("\"} ")
+               .append(entry.getValue().errors.sum()).append('\n');
+        }
+
+        header(out, "campuspaths_request_duration_seconds",
+               "How long requests take, by endpoint and phase. The total phase covers every request; "
+               + "parse, route and serialize only cover routing requests that succeed.", "histogram");
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            String endpoint = "endpoint=\"" + entry.getKey() + "\",phase=";
+            Endpoint phases = entry.getValue();
+            if (phases.phased) {
+                histogram(out, "campuspaths_request_duration_seconds", endpoint + "\"parse\"", phases.parse,
+                          MIN_LATENCY_EXPONENT, MAX_LATENCY_EXPONENT, NANOS_PER_SECOND);
+                histogram(out, "campuspaths_request_duration_seconds", endpoint + "\"route\"", phases.route,
+                          MIN_LATENCY_EXPONENT, MAX_LATENCY_EXPONENT, NANOS_PER_SECOND);
+                histogram(out, "campuspaths_request_duration_seconds", endpoint + "\"serialize\"",
+                          phases.serialize, MIN_LATENCY_EXPONENT, MAX_LATENCY_EXPONENT, NANOS_PER_SECOND);
+            }
+            histogram(out, "campuspaths_request_duration_seconds", endpoint + "\"total\"", phases.total,
+                      MIN_LATENCY_EXPONENT, MAX_LATENCY_EXPONENT, NANOS_PER_SECOND);
+        }
+
+        searchHistogram(out, "campuspaths_search_nodes_settled",
+                        "Nodes settled by each shortest path search, by search mode.",
+                        work -> work.settled, 0, MAX_SEARCH_EXPONENT, 1);
+        searchHistogram(out, "campuspaths_search_edges_relaxed",
+                        "Edges looked at by each shortest path search, by search mode.",
+                        work -> work.relaxed, 0, MAX_SEARCH_EXPONENT, 1);
+        searchHistogram(out, "campuspaths_search_peak_queue_size",
+                        "The most entries each shortest path search held in its queues, by search mode.",
+                        work -> work.peakQueue, 0, MAX_SEARCH_EXPONENT, 1);
+        searchHistogram(out, "campuspaths_search_duration_seconds",
+                        "How long each shortest path search took, by search mode.",
+                        work -> work.duration, MIN_LATENCY_EXPONENT, MAX_LATENCY_EXPONENT, NANOS_PER_SECOND);
+        searchCounter(out, "campuspaths_search_heap_pushes_total",
+                      "Entries added to search queues, or lowered in them, by search mode.", work -> work.pushes);
+        searchCounter(out, "campuspaths_search_heap_pops_total",
+                      "Entries taken off search queues, by search mode.", work -> work.pops);
+        searchCounter(out, "campuspaths_search_stale_skipped_total",
+                      "Entries taken off search queues for nodes already settled, by search mode.",
+                      work -> work.stale);
+
+        for (Sampled metric : sampled) {
+            header(out, metric.name, metric.help, metric.type);
+            out.append(metric.name).append(' ').append(metric.value.getAsLong()).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Appends a histogram of the searches with each mode, as {@link #histogram} does.
+     */
+    private void searchHistogram(StringBuilder out, String name, String help,
+                                 Function<Searches, Histogram> metric,
+                                 int minExponent, int maxExponent, double divisor) {
+        header(out, name, help, "histogram");
+        for (Map.Entry<SearchMode, Searches> entry : searches.entrySet()) {
+            histogram(out, name, "mode=\"" + entry.getKey() + "\"", metric.apply(entry.getValue()),
+                      minExponent, maxExponent, divisor);
+        }
+    }
+
+    /**
+     * Appends a counter of the searches with each mode.
+     */
+    private void searchCounter(StringBuilder out, String name, String help,
+                               Function<Searches, LongAdder> metric) {
+        header(out, name, help, "counter");
+        for (Map.Entry<SearchMode, Searches> entry : searches.entrySet()) {
+            out.append(name).append("{mode=\"").append(entry.getKey()).append("\"} ")
+               .append(metric.apply(entry.getValue()).sum()).append('\n');
+        }
+    }
+
+    /**
+     * Appends the HELP and TYPE lines of a metric.
+     */
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Appends a histogram's cumulative buckets, ending at each power of two from
+     * 2^minExponent to 2^maxExponent and at infinity, then its sum and count, with every value
+     * divided by divisor.
+     */
+    private static void histogram(StringBuilder out, String name, String labels, Histogram histogram,
+                                  int minExponent, int maxExponent, double divisor) {
+        // read the count first, so no bucket is above it if values are recorded meanwhile.
+        long count = histogram.count();
+        for (int exponent = minExponent; exponent <= maxExponent; exponent++) {
+            long bound = 1L << exponent;
+            out.append(name).append("_bucket{").append(labels).append(",le=\"")
+               .append(divisor == 1 ? Long.toString(bound) : Double.toString(bound / divisor)).append("\"} ")
+               .append(Math.min(count, histogram.countAtMost(bound))).append('\n');
+        }
+        out.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(count).append('\n');
+        out.append(name).append("_sum{").append(labels).append("} ");
+        if (divisor == 1) {
+            out.append(histogram.sum());
+        } else {
+            out.append(histogram.sum() / divisor);
+        }
+        out.append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(count).append('\n');
+    }
+
+    /**
+     * The counts of one endpoint's requests.
+     */
+    public static class Endpoint {
+
+        /**
+         * The number of requests, and of requests answered with an error.
+         */
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        /**
+         * How long, in nanoseconds, requests took to parse and check their parameters, to find
+         * their results, to write their responses, and to serve in all.
+         */
+        private final Histogram parse = new Histogram();
+        private final Histogram route = new Histogram();
+        private final Histogram serialize = new Histogram();
+        private final Histogram total = new Histogram();
+
+        /**
+         * Whether the endpoint records its requests' phases.
+         */
+        private final boolean phased;
+
+        private Endpoint(boolean phased) {
+            this.phased = phased;
+        }
+
+        /**
+         * Records how long the phases of a successful request took, in nanoseconds.
+         *
+         * @param parse     The time taken to parse and check the request's parameters.
+         * @param route     The time taken to find the request's result.
+         * @param serialize The time taken to write the response.
+         */
+        public void phases(long parse, long route, long serialize) {
+            this.parse.record(parse);
+            this.route.record(route);
+            this.serialize.record(serialize);
+        }
+    }
+
+    /**
+     * The counts of the work done by the searches with one mode.
+     */
+    private static class Searches {
+
+        /**
+         * The nodes settled, edges relaxed, peak queue size and nanoseconds taken by each search.
+         */
+        private final Histogram settled = new Histogram();
+        private final Histogram relaxed = new Histogram();
+        private final Histogram peakQueue = new Histogram();
+        private final Histogram duration = new Histogram();
+
+        /**
+         * The queue entries pushed, popped, and skipped as stale, by every search.
+         */
+        private final LongAdder pushes = new LongAdder();
+        private final LongAdder pops = new LongAdder();
+        private final LongAdder stale = new LongAdder();
+    }
+
+    /**
+     * A counter or gauge kept elsewhere, read when the metrics are written.
+     */
+    private static class Sampled {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final LongSupplier value;
+
+        private Sampled(String name, String help, String type, LongSupplier value) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package campuspaths.junitTests.utils;
+
+import campuspaths.testUtils.FakeExchange;
+import campuspaths.utils.CORSFilter;
+import campuspaths.utils.CachedResponse;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class TestCachedResponse {
+
+    private static final byte[] BODY = "[{\"shortName\":\"CSE\"}]".getBytes(StandardCharsets.UTF_8);
+
+    private final CachedResponse cached = new CachedResponse(BODY, "application/json");
+
+    /**
+     * Sends the cached body in reply to a request with the given headers.
+     */
+    private FakeExchange send(Map<String, String> headers) throws IOException {
+        FakeExchange exchange = new FakeExchange(headers);
+        assertEquals("", cached.send(exchange.request(), exchange.response()));
+        assertTrue(exchange.isCommitted());
+        return exchange;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testSendsBody() throws IOException {
+        FakeExchange exchange = send(Map.of());
+        assertEquals(200, exchange.status());
+        assertArrayEquals(BODY, exchange.body());
+        assertEquals("application/json", exchange.contentType());
+        assertNull(exchange.header("Content-Encoding"));
+        assertEquals("Accept-Encoding", exchange.header("Vary"));
+        assertNotNull(exchange.header("ETag"));
+    }
+
+    @Test
+    public void testSendsGzipWhenAccepted() throws IOException {
+        FakeExchange exchange = send(Map.of("Accept-Encoding", "deflate, gzip;q=0.8, br"));
+        assertEquals(200, exchange.status());
+        assertEquals("gzip", exchange.header("Content-Encoding"));
+        assertArrayEquals(BODY, gunzip(exchange.body()));
+    }
+
+    @Test
+    public void testGzipAcceptedByWildcardAndCase() throws IOException {
+        assertEquals("gzip", send(Map.of("Accept-Encoding", "*")).header("Content-Encoding"));
+        assertEquals("gzip", send(Map.of("Accept-Encoding", "GZIP")).header("Content-Encoding"));
+    }
+
+    @Test
+    public void testGzipRefused() throws IOException {
+        FakeExchange refused = send(Map.of("Accept-Encoding", "gzip;q=0, identity"));
+        assertNull(refused.header("Content-Encoding"));
+        assertArrayEquals(BODY, refused.body());
+        assertNull(send(Map.of("Accept-Encoding", "gzip;q=0.0")).header("Content-Encoding"));
+        assertNull(send(Map.of("Accept-Encoding", "deflate")).header("Content-Encoding"));
+    }
+
+    @Test
+    public void testTagsDifferByEncoding() throws IOException {
+        String identity = send(Map.of()).header("ETag");
+        String gzip = send(Map.of("Accept-Encoding", "gzip")).header("ETag");
+        assertNotEquals(identity, gzip);
+        assertTrue(identity.startsWith("\"") && identity.endsWith("\""));
+        assertEquals(identity, send(Map.of()).header("ETag"));
+    }
+
+    @Test
+    public void testTagsDifferByBody() throws IOException {
+        CachedResponse other = new CachedResponse("[]".getBytes(StandardCharsets.UTF_8), "application/json");
+        FakeExchange exchange = new FakeExchange(Map.of());
+        other.send(exchange.request(), exchange.response());
+        assertNotEquals(send(Map.of()).header("ETag"), exchange.header("ETag"));
+    }
+
+    @Test
+    public void testNotModified() throws IOException {
+        String tag = send(Map.of()).header("ETag");
+        FakeExchange exchange = send(Map.of("If-None-Match", tag));
+        assertEquals(304, exchange.status());
+        assertEquals(0, exchange.body().length);
+        assertEquals(tag, exchange.header("ETag"));
+    }
+
+    @Test
+    public void testNotModifiedByAnyListedOrWeakTag() throws IOException {
+        String tag = send(Map.of("Accept-Encoding", "gzip")).header("ETag");
+        assertEquals(304, send(Map.of("If-None-Match", "\"other\", " + tag,
+                                      "Accept-Encoding", "gzip")).status());
+        assertEquals(304, send(Map.of("If-None-Match", "W/" + tag)).status());
+        assertEquals(304, send(Map.of("If-None-Match", "*")).status());
+    }
+
+    @Test
+    public void testStaleTagGetsBody() throws IOException {
+        FakeExchange exchange = send(Map.of("If-None-Match", "\"stale\""));
+        assertEquals(200, exchange.status());
+        assertArrayEquals(BODY, exchange.body());
+    }
+
+    @Test
+    public void testKeepsCorsHeaders() throws IOException {
+        CORSFilter cors = new CORSFilter();
+        for (Map<String, String> headers : List.<Map<String, String>>of(
+                Map.of("Origin", "http://localhost:3000"),
+                Map.of("Origin", "http://localhost:3000", "Accept-Encoding", "gzip"),
+                Map.of("Origin", "http://localhost:3000", "If-None-Match", send(Map.of()).header("ETag")))) {
+            // the server adds them before the route, since nothing can be added once sent.
+            FakeExchange exchange = new FakeExchange(headers);
+            cors.handle(exchange.request(), exchange.response());
+            cached.send(exchange.request(), exchange.response());
+            assertTrue(exchange.isCommitted());
+            assertEquals("*", exchange.header("Access-Control-Allow-Origin"));
+            assertNotNull(exchange.header("Access-Control-Allow-Methods"));
+            assertNotNull(exchange.header("Access-Control-Allow-Headers"));
+        }
+    }
+
+    @Test
+    public void testHeadersAfterSendingAreDropped() throws IOException {
+        FakeExchange exchange = send(Map.of());
+        new CORSFilter().handle(exchange.request(), exchange.response());
+        assertNull(exchange.header("Access-Control-Allow-Origin"));
+    }
+}
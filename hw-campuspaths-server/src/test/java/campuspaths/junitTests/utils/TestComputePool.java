@@ -0,0 +1,114 @@
+package campuspaths.junitTests.utils;
+
+import campuspaths.utils.ComputePool;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class TestComputePool {
+
+    /**
+     * Lets the work holding up a full pool finish.
+     */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void releasePool() {
+        release.countDown();
+    }
+
+    /**
+     * Returns a pool with one thread and room for one waiting piece of work, with both taken.
+     */
+    private ComputePool fullPool() throws InterruptedException {
+        ComputePool pool = ComputePool.bounded(1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        pool.executor().execute(() -> {
+            running.countDown();
+            awaitRelease();
+        });
+        running.await();
+        pool.executor().execute(this::awaitRelease);
+        return pool;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testComputeReturnsResult() throws Exception {
+        ComputePool pool = ComputePool.bounded(2, 4);
+        assertEquals("compute-", pool.compute(() -> Thread.currentThread().getName()).substring(0, 8));
+        assertEquals(Integer.valueOf(42), pool.compute(() -> 6 * 7));
+    }
+
+    @Test
+    public void testComputeRethrowsWorkException() throws Exception {
+        ComputePool pool = ComputePool.bounded(1, 1);
+        try {
+            pool.compute(() -> {
+                throw new IllegalArgumentException("bad route");
+            });
+            fail("Expected the work's exception.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("bad route", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFullPoolRejectsCompute() throws Exception {
+        ComputePool pool = fullPool();
+        assertEquals(1, pool.queued());
+        try {
+            pool.compute(() -> "never run");
+            fail("Expected a full pool to reject work.");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testFullPoolRejectsExecutor() throws Exception {
+        fullPool().executor().execute(() -> { });
+    }
+
+    @Test
+    public void testPoolAcceptsWorkOnceDrained() throws Exception {
+        ComputePool pool = fullPool();
+        release.countDown();
+        while (pool.queued() > 0) {
+            Thread.sleep(1);
+        }
+        assertEquals("done", pool.compute(() -> "done"));
+    }
+
+    @Test
+    public void testInlineRunsOnCaller() throws Exception {
+        ComputePool pool = ComputePool.inline();
+        Thread caller = Thread.currentThread();
+        assertSame(caller, pool.compute(Thread::currentThread));
+        Thread[] ran = new Thread[1];
+        pool.executor().execute(() -> ran[0] = Thread.currentThread());
+        assertSame(caller, ran[0]);
+        assertEquals(0, pool.queued());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoThreads() {
+        ComputePool.bounded(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoQueue() {
+        ComputePool.bounded(1, 0);
+    }
+}
@@ -0,0 +1,126 @@
+package campuspaths.junitTests.utils;
+
+import campuspaths.utils.Histogram;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestHistogram {
+
+    @Test
+    public void testEmpty() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.sum());
+        assertEquals(0, histogram.countAtMost(0));
+        assertEquals(0, histogram.countAtMost(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testCountAndSum() {
+        Histogram histogram = new Histogram();
+        histogram.record(3);
+        histogram.record(1000);
+        histogram.record(1000);
+        assertEquals(3, histogram.count());
+        assertEquals(2003, histogram.sum());
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (long value = 0; value < 8; value++) {
+            histogram.record(value);
+        }
+        for (long bound = 0; bound < 8; bound++) {
+            assertEquals("at most " + bound, bound + 1, histogram.countAtMost(bound));
+        }
+    }
+
+    @Test
+    public void testPowersOfTwoAreExact() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 1 << 12; value++) {
+            histogram.record(value);
+        }
+        for (int exponent = 0; exponent <= 12; exponent++) {
+            long bound = 1L << exponent;
+            assertEquals("at most " + bound, bound, histogram.countAtMost(bound));
+        }
+    }
+
+    @Test
+    public void testBucketsAreWithinAnEighth() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 5000; value++) {
+            histogram.record(value);
+        }
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            long bound = 1 + random.nextInt(4000);
+            long count = histogram.countAtMost(bound);
+            assertTrue("at most " + bound + " counted " + count, count >= bound);
+            assertTrue("at most " + bound + " counted " + count, count <= bound + bound / 8);
+        }
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        Histogram histogram = new Histogram();
+        histogram.record(16);
+        histogram.record(17);
+        histogram.record(18);
+        histogram.record(19);
+        // 16 ends its bucket, and 17 and 18 share the next one.
+        assertEquals(1, histogram.countAtMost(16));
+        assertEquals(3, histogram.countAtMost(17));
+        assertEquals(3, histogram.countAtMost(18));
+        assertEquals(4, histogram.countAtMost(19));
+    }
+
+    @Test
+    public void testNegativeValuesCountAsZero() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(Long.MIN_VALUE);
+        assertEquals(2, histogram.count());
+        assertEquals(0, histogram.sum());
+        assertEquals(2, histogram.countAtMost(0));
+    }
+
+    @Test
+    public void testLargestValues() {
+        Histogram histogram = new Histogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(1L << 62);
+        assertEquals(0, histogram.countAtMost((1L << 61)));
+        assertEquals(1, histogram.countAtMost(1L << 62));
+        assertEquals(2, histogram.countAtMost(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        Histogram histogram = new Histogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int value = 1; value <= 10000; value++) {
+                    histogram.record(value);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, histogram.count());
+        assertEquals(4L * 10000 * 10001 / 2, histogram.sum());
+        assertEquals(4 * 8192, histogram.countAtMost(8192));
+    }
+}
@@ -0,0 +1,196 @@
+package campuspaths.junitTests.utils;
+
+import campuspaths.testUtils.FakeExchange;
+import campuspaths.utils.CORSFilter;
+import campuspaths.utils.JsonResponseWriter;
+import com.google.gson.Gson;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pathfinder.CampusMap;
+import pathfinder.Isochrone;
+import pathfinder.SearchMode;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestJsonResponseWriter {
+
+    private static CampusMap map;
+    private static List<String> names;
+
+    private final JsonResponseWriter writer = new JsonResponseWriter();
+    private final Gson gson = new Gson();
+
+    @BeforeClass
+    public static void loadMap() {
+        map = new CampusMap(SearchMode.BIDIRECTIONAL);
+        names = new ArrayList<>(map.buildingNames().keySet());
+    }
+
+    /**
+     * The bytes the server sent before it had a JsonResponseWriter: Gson's Json, in UTF-8.
+     */
+    private byte[] gson(Object value) {
+        return gson.toJson(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPathsMatchGson() throws IOException {
+        for (String start : names) {
+            for (String end : names) {
+                Path<Point> path = map.findShortestPath(start, end);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                writer.writePath(path, out);
+                assertArrayEquals(start + " to " + end, gson(path), out.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    public void testPathListMatchesGson() throws IOException {
+        List<Path<Point>> paths = Arrays.asList(map.findShortestPath("CSE", "MGH"), null,
+                                                map.findShortestPath("KNE", "KNE"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writePaths(paths, out);
+        assertArrayEquals(gson(paths), out.toByteArray());
+    }
+
+    @Test
+    public void testNullPath() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writePath(null, out);
+        assertEquals("null", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCompactPath() throws IOException {
+        Path<Point> path = new Path<>(new Point(1, 2)).extend(new Point(4, 6), 5).extend(new Point(4, 7.5), 1.5);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeCompactPath(path, out);
+        assertEquals("{\"cost\":6.5,\"coordinates\":[[1.0,2.0],[4.0,6.0],[4.0,7.5]]}",
+                     out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCampusBuildingsMatchGson() throws IOException {
+        List<CampusBuilding> buildings = new ArrayList<>();
+        for (Map.Entry<String, String> building : map.buildingNames().entrySet()) {
+            buildings.add(new CampusBuilding(building.getKey(), building.getValue(), 0, 0));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeBuildings(buildings, out);
+        assertArrayEquals(gson(buildings), out.toByteArray());
+    }
+
+    @Test
+    public void testEscapedNamesMatchGson() throws IOException {
+        List<CampusBuilding> buildings = List.of(
+                new CampusBuilding("HUB", "Husky Union Building", 1.5, -2),
+                new CampusBuilding("CS&E", "Gates Center <\"Allen\" 'School'> = \\ & more", 0, 0),
+                new CampusBuilding("TAB", "tab\tnewline\nreturn\rbell\u0007 feed\f back\b", 0, 0),
+                new CampusBuilding("CAF", "Caf\u00e9 \u00dcn\u00efcode \u00e9\u4e2d\u6587 \ud83d\ude80 \u2028\u2029", 0, 0));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeBuildings(buildings, out);
+        assertArrayEquals(gson(buildings), out.toByteArray());
+    }
+
+    @Test
+    public void testNonAsciiNamesAreUtf8() throws IOException {
+        List<CampusBuilding> buildings = List.of(new CampusBuilding("\u00e9", "\u4e2d \ud83d\ude80", 0, 0));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeBuildings(buildings, out);
+        assertEquals("[{\"shortName\":\"\u00e9\",\"longName\":\"\u4e2d \ud83d\ude80\",\"x\":0.0,\"y\":0.0}]",
+                     out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSegmentsMatchGson() throws IOException {
+        List<CampusPath> segments = map.segmentsIn(1000, 1000, 1500, 1500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeSegments(segments, out);
+        assertArrayEquals(gson(segments), out.toByteArray());
+    }
+
+    @Test
+    public void testIsochroneMatchesGson() throws IOException {
+        Isochrone<Point> isochrone = map.reachableWithin("CSE", 300);
+        List<CampusPath> boundary = map.boundarySegments(isochrone);
+        // the layout /isochrone sent before it had a JsonResponseWriter.
+        List<double[]> points = new ArrayList<>();
+        for (Point point : isochrone.nodes()) {
+            points.add(new double[] {point.getX(), point.getY(), isochrone.costTo(point)});
+        }
+        Map<String, Object> reachable = new LinkedHashMap<>();
+        reachable.put("points", points);
+        reachable.put("boundary", boundary);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeIsochrone(isochrone, boundary, out);
+        assertArrayEquals(gson(reachable), out.toByteArray());
+    }
+
+    @Test
+    public void testCostMatrixMatchesGson() throws IOException {
+        double[][] costs = {{0, 1.25}, {Double.POSITIVE_INFINITY, 3}};
+        // the layout /matrix sent before it had a JsonResponseWriter, with null for no path.
+        Map<String, Object> matrix = new LinkedHashMap<>();
+        matrix.put("costs", new Double[][] {{0.0, 1.25}, {null, 3.0}});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeMatrix(costs, null, out);
+        assertArrayEquals(gson(matrix), out.toByteArray());
+    }
+
+    @Test
+    public void testMatrixWithPaths() throws IOException {
+        Path<Point> path = new Path<>(new Point(0, 0)).extend(new Point(3, 4), 5);
+        double[][] costs = {{5, Double.POSITIVE_INFINITY}};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeMatrix(costs, List.of(Arrays.asList(path, null)), out);
+        assertEquals("{\"costs\":[[5.0,null]],\"paths\":[[{\"cost\":5.0,\"coordinates\":[[0.0,0.0],[3.0,4.0]]},null]]}",
+                     out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testStreamedResponseKeepsCorsHeaders() throws IOException {
+        // every segment on campus, as /segments?bbox=0,0,5000,5000 sends, is far past the buffer.
+        List<CampusPath> segments = map.segmentsIn(0, 0, 5000, 5000);
+        FakeExchange exchange = new FakeExchange(Map.of("Origin", "http://localhost:3000"));
+        new CORSFilter().handle(exchange.request(), exchange.response());
+        exchange.response().type("application/json");
+        writer.writeSegments(segments, exchange.response().raw().getOutputStream());
+        assertTrue(exchange.body().length > FakeExchange.BUFFER_SIZE);
+        assertTrue(exchange.isCommitted());
+        assertEquals("*", exchange.header("Access-Control-Allow-Origin"));
+        assertEquals("application/json", exchange.contentType());
+    }
+
+    @Test
+    public void testWriterIsReusable() throws IOException {
+        Path<Point> longest = null;
+        for (String end : names) {
+            Path<Point> path = map.findShortestPath("CSE", end);
+            if (longest == null || path.getCost() > longest.getCost()) {
+                longest = path;
+            }
+        }
+        writer.writePath(longest, new ByteArrayOutputStream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writePath(null, out);
+        assertEquals("null", out.toString(StandardCharsets.UTF_8));
+    }
+}
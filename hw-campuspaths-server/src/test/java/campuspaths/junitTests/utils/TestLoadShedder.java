@@ -0,0 +1,65 @@
+package campuspaths.junitTests.utils;
+
+import campuspaths.testUtils.FakeExchange;
+import campuspaths.utils.ComputePool;
+import campuspaths.utils.LoadShedder;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class TestLoadShedder {
+
+    @Test
+    public void testRejectedRequestGets503() throws Exception {
+        ComputePool pool = ComputePool.bounded(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        Runnable blocked = () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        pool.executor().execute(blocked);
+        running.await();
+        pool.executor().execute(blocked);
+
+        LoadShedder shedder = new LoadShedder(2);
+        FakeExchange exchange = new FakeExchange(Map.of());
+        try {
+            pool.compute(() -> "never run");
+            fail("Expected a full pool to reject work.");
+        } catch (RejectedExecutionException e) {
+            shedder.handle(e, exchange.request(), exchange.response());
+        } finally {
+            release.countDown();
+        }
+        assertEquals(503, exchange.status());
+        assertEquals("2", exchange.header("Retry-After"));
+        assertEquals("The server is busy", exchange.response().body());
+        assertEquals(1, shedder.rejected());
+    }
+
+    @Test
+    public void testCountsRejections() {
+        LoadShedder shedder = new LoadShedder(1);
+        for (int i = 0; i < 3; i++) {
+            FakeExchange exchange = new FakeExchange(Map.of());
+            shedder.handle(new RejectedExecutionException(), exchange.request(), exchange.response());
+            assertEquals(503, exchange.status());
+            assertEquals("1", exchange.header("Retry-After"));
+        }
+        assertEquals(3, shedder.rejected());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeRetryAfter() {
+        new LoadShedder(-1);
+    }
+}
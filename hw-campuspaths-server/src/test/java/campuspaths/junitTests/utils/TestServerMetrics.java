@@ -0,0 +1,206 @@
+package campuspaths.junitTests.utils;
+
+import campuspaths.utils.ServerMetrics;
+import org.junit.Test;
+import pathfinder.CampusMap;
+import pathfinder.SearchMode;
+import pathfinder.SearchStats;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class TestServerMetrics {
+
+    /**
+     * A sample line of the Prometheus text format: a name, optional labels, and a value.
+     */
+    private static final Pattern SAMPLE = Pattern.compile(
+            "([a-zA-Z_:][a-zA-Z0-9_:]*)(\\{[a-zA-Z_][a-zA-Z0-9_]*=\"[^\"]*\"(,[a-zA-Z_][a-zA-Z0-9_]*=\"[^\"]*\")*})? "
+            + "(-?[0-9.]+(E-?[0-9]+)?|\\+Inf)");
+
+    /**
+     * Returns the value of the sample in metrics whose name and labels are sample.
+     */
+    private static String value(String metrics, String sample) {
+        for (String line : metrics.split("\n")) {
+            if (line.startsWith(sample + " ")) {
+                return line.substring(sample.length() + 1);
+            }
+        }
+        fail("No sample " + sample + " in\n" + metrics);
+        return null;
+    }
+
+    /**
+     * Returns the values of the buckets of the histogram in metrics with the given name and
+     * labels, in order, ending with the +Inf bucket.
+     */
+    private static List<Long> buckets(String metrics, String name, String labels) {
+        List<Long> buckets = new ArrayList<>();
+        String prefix = name + "_bucket{" + labels + ",le=\"";
+        for (String line : metrics.split("\n")) {
+            if (line.startsWith(prefix)) {
+                buckets.add(Long.parseLong(line.substring(line.lastIndexOf(' ') + 1)));
+            }
+        }
+        assertFalse("No buckets " + prefix, buckets.isEmpty());
+        return buckets;
+    }
+
+    @Test
+    public void testFormat() {
+        ServerMetrics metrics = new ServerMetrics();
+        metrics.endpoint("/findPath", true);
+        metrics.endpoint("/getNames", false);
+        metrics.counter("campuspaths_hits_total", "Hits.", () -> 4);
+        metrics.gauge("campuspaths_queued", "Queued.", () -> 2);
+        metrics.start();
+        metrics.finish("/findPath", 200);
+
+        Set<String> typed = new HashSet<>();
+        String family = null;
+        for (String line : metrics.toPrometheus().split("\n")) {
+            if (line.startsWith("# HELP ")) {
+                family = line.split(" ")[2];
+                continue;
+            }
+            if (line.startsWith("# TYPE ")) {
+                String[] words = line.split(" ");
+                assertEquals(4, words.length);
+                assertEquals("TYPE follows its HELP", family, words[2]);
+                assertTrue("one TYPE per metric: " + line, typed.add(words[2]));
+                assertTrue(line, Set.of("counter", "gauge", "histogram").contains(words[3]));
+                continue;
+            }
+            Matcher sample = SAMPLE.matcher(line);
+            assertTrue("not a sample: " + line, sample.matches());
+            String name = sample.group(1);
+            assertTrue("sample outside its family: " + line,
+                       name.equals(family) || name.equals(family + "_bucket")
+                       || name.equals(family + "_sum") || name.equals(family + "_count"));
+        }
+        assertTrue(typed.contains("campuspaths_hits_total"));
+        assertTrue(typed.contains("campuspaths_queued"));
+    }
+
+    @Test
+    public void testRequestsAndErrors() {
+        ServerMetrics metrics = new ServerMetrics();
+        metrics.endpoint("/findPath", true);
+        metrics.endpoint("/getNames", false);
+        for (int status : new int[] {200, 304, 400, 404, 503}) {
+            metrics.start();
+            metrics.finish("/findPath", status);
+        }
+        metrics.start();
+        metrics.finish("/unknown", 200);
+
+        String text = metrics.toPrometheus();
+        assertEquals("5", value(text, "campuspaths_requests_total{endpoint=\"/findPath\"}"));
+        assertEquals("3", value(text, "campuspaths_request_errors_total{endpoint=\"/findPath\"}"));
+        assertEquals("0", value(text, "campuspaths_requests_total{endpoint=\"/getNames\"}"));
+        assertFalse(text.contains("/unknown"));
+        assertEquals("5", value(text, "campuspaths_request_duration_seconds_count"
+                                      + "{endpoint=\"/findPath\",phase=\"total\"}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateEndpoint() {
+        ServerMetrics metrics = new ServerMetrics();
+        metrics.endpoint("/findPath", true);
+        metrics.endpoint("/findPath", false);
+    }
+
+    @Test
+    public void testPhases() {
+        ServerMetrics metrics = new ServerMetrics();
+        ServerMetrics.Endpoint findPath = metrics.endpoint("/findPath", true);
+        metrics.endpoint("/getNames", false);
+        findPath.phases(1000, 1 << 20, 3000);
+
+        String text = metrics.toPrometheus();
+        String parse = "endpoint=\"/findPath\",phase=\"parse\"";
+        assertEquals("1", value(text, "campuspaths_request_duration_seconds_count{" + parse + "}"));
+        assertEquals("1.0E-6", value(text, "campuspaths_request_duration_seconds_sum{" + parse + "}"));
+        assertEquals("1", value(text, "campuspaths_request_duration_seconds_bucket{" + parse + ",le=\"1.024E-6\"}"));
+        assertFalse(text.contains("endpoint=\"/getNames\",phase=\"parse\""));
+        assertTrue(text.contains("endpoint=\"/getNames\",phase=\"total\""));
+
+        // the route phase took exactly 2^20 ns, so it is in that bucket and none below.
+        List<Long> route = buckets(text, "campuspaths_request_duration_seconds",
+                                   "endpoint=\"/findPath\",phase=\"route\"");
+        for (int i = 0; i < route.size(); i++) {
+            assertEquals("bucket " + i, i < 20 - 10 ? 0 : 1, (long) route.get(i));
+        }
+    }
+
+    @Test
+    public void testBucketsAreCumulative() {
+        ServerMetrics metrics = new ServerMetrics();
+        ServerMetrics.Endpoint findPath = metrics.endpoint("/findPath", true);
+        for (long nanos = 1; nanos < 1L << 37; nanos *= 3) {
+            findPath.phases(nanos, nanos, nanos);
+        }
+        String text = metrics.toPrometheus();
+        List<Long> buckets = buckets(text, "campuspaths_request_duration_seconds",
+                                     "endpoint=\"/findPath\",phase=\"serialize\"");
+        // 2^10 to 2^35, then +Inf.
+        assertEquals(35 - 10 + 2, buckets.size());
+        for (int i = 1; i < buckets.size(); i++) {
+            assertTrue(buckets.get(i - 1) <= buckets.get(i));
+        }
+        long count = Long.parseLong(value(text, "campuspaths_request_duration_seconds_count"
+                                                + "{endpoint=\"/findPath\",phase=\"serialize\"}"));
+        assertEquals(count, (long) buckets.get(buckets.size() - 1));
+        assertTrue(buckets.get(buckets.size() - 2) < count);
+    }
+
+    @Test
+    public void testSearches() {
+        ServerMetrics metrics = new ServerMetrics();
+        CampusMap map = new CampusMap(SearchMode.BIDIRECTIONAL);
+        AtomicLong settled = new AtomicLong();
+        map.setSearchListener((mode, stats) -> {
+            settled.addAndGet(stats.getNodesSettled());
+            metrics.searched(mode, stats);
+        });
+        map.findShortestPath("CSE", "MGH");
+        map.findShortestPath("KNE", "PAR");
+        assertTrue(settled.get() > 0);
+
+        String text = metrics.toPrometheus();
+        String bidirectional = "{mode=\"BIDIRECTIONAL\"}";
+        assertEquals("2", value(text, "campuspaths_search_nodes_settled_count" + bidirectional));
+        assertEquals(Long.toString(settled.get()), value(text, "campuspaths_search_nodes_settled_sum" + bidirectional));
+        assertEquals("0", value(text, "campuspaths_search_nodes_settled_count{mode=\"DIJKSTRA\"}"));
+        assertEquals("2", value(text, "campuspaths_search_nodes_settled_bucket{mode=\"BIDIRECTIONAL\",le=\"+Inf\"}"));
+        assertEquals("0", value(text, "campuspaths_search_nodes_settled_bucket{mode=\"BIDIRECTIONAL\",le=\"1\"}"));
+
+        metrics.searched(SearchMode.DIJKSTRA, new SearchStats());
+        text = metrics.toPrometheus();
+        assertEquals("1", value(text, "campuspaths_search_nodes_settled_bucket{mode=\"DIJKSTRA\",le=\"1\"}"));
+        assertEquals("0", value(text, "campuspaths_search_heap_pushes_total{mode=\"DIJKSTRA\"}"));
+    }
+
+    @Test
+    public void testCountersAreReadWhenWritten() {
+        ServerMetrics metrics = new ServerMetrics();
+        AtomicLong hits = new AtomicLong();
+        metrics.counter("campuspaths_route_cache_hits_total", "Routes found in the route cache.", hits::get);
+        metrics.gauge("campuspaths_compute_queued", "Routing tasks waiting.", () -> 7);
+        assertEquals("0", value(metrics.toPrometheus(), "campuspaths_route_cache_hits_total"));
+        hits.set(12);
+        String text = metrics.toPrometheus();
+        assertEquals("12", value(text, "campuspaths_route_cache_hits_total"));
+        assertEquals("7", value(text, "campuspaths_compute_queued"));
+        assertTrue(text.contains("# TYPE campuspaths_route_cache_hits_total counter\n"));
+        assertTrue(text.contains("# TYPE campuspaths_compute_queued gauge\n"));
+    }
+}
@@ -0,0 +1,184 @@
+package campuspaths.testUtils;
+
+import spark.Request;
+import spark.RequestResponseFactory;
+import spark.Response;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A FakeExchange is one request to the server and the response to it, backed by servlet
+ * objects that only keep what they are given, so that request handling code can be tested
+ * without starting a server. The request has the given headers and nothing else; the response
+ * records its status, headers, content type and the bytes written to it. As a servlet response
+ * does, it ignores changes to its status and headers once it is committed, and it commits itself
+ * once more is written to it than its buffer holds.
+ */
+public class FakeExchange {
+
+    /**
+     * The bytes a response holds before it commits itself, as Jetty's default output buffer does.
+     */
+    public static final int BUFFER_SIZE = 32 * 1024;
+
+    private final Map<String, String> requestHeaders;
+    private final Map<String, String> responseHeaders = new HashMap<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private int status = 200;
+    private String contentType;
+    private boolean committed;
+
+    private final Request request;
+    private final Response response;
+
+    /**
+     * Creates a request with the given headers, and an empty response to it.
+     *
+     * @param requestHeaders The request's headers, by name.
+     */
+    public FakeExchange(Map<String, String> requestHeaders) {
+        this.requestHeaders = new HashMap<>(requestHeaders);
+        this.request = RequestResponseFactory.create(fake(HttpServletRequest.class, (name, args) -> {
+            if (name.equals("getHeader")) {
+                return this.requestHeaders.get(args[0]);
+            }
+            return null;
+        }));
+        ServletOutputStream out = new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+
+            @Override
+            public void write(int b) {
+                body.write(b);
+                if (body.size() > BUFFER_SIZE) {
+                    committed = true;
+                }
+            }
+        };
+        this.response = RequestResponseFactory.create(fake(HttpServletResponse.class, (name, args) -> {
+            if (committed && (name.startsWith("set") || name.startsWith("add"))) {
+                return null;
+            }
+            switch (name) {
+                case "setStatus":
+                    status = (Integer) args[0];
+                    return null;
+                case "getStatus":
+                    return status;
+                case "setHeader":
+                case "addHeader":
+                    responseHeaders.put((String) args[0], (String) args[1]);
+                    return null;
+                case "getHeader":
+                    return responseHeaders.get(args[0]);
+                case "setContentType":
+                    contentType = (String) args[0];
+                    return null;
+                case "getContentType":
+                    return contentType;
+                case "getOutputStream":
+                    return out;
+                case "flushBuffer":
+                    committed = true;
+                    return null;
+                case "isCommitted":
+                    return committed;
+                default:
+                    return null;
+            }
+        }));
+    }
+
+    /**
+     * @return The request, as a route handler receives it.
+     */
+    public Request request() {
+        return request;
+    }
+
+    /**
+     * @return The response, as a route handler receives it.
+     */
+    public Response response() {
+        return response;
+    }
+
+    /**
+     * @return The status of the response.
+     */
+    public int status() {
+        return status;
+    }
+
+    /**
+     * @param name The name of a header.
+     * @return The value the response's header of that name was last set to, or null if it wasn't.
+     */
+    public String header(String name) {
+        return responseHeaders.get(name);
+    }
+
+    /**
+     * @return The content type of the response, or null if it wasn't set.
+     */
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * @return The bytes written to the response's body.
+     */
+    public byte[] body() {
+        return body.toByteArray();
+    }
+
+    /**
+     * @return Whether the response was flushed, so that nothing more can be sent in it.
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * What a fake servlet object does when one of its methods is called.
+     */
+    private interface Behavior {
+        Object call(String method, Object[] args);
+    }
+
+    /**
+     * Returns an implementation of a servlet interface whose methods do what behavior says.
+     * Methods behavior returns null for return false, zero or null, whichever fits.
+     */
+    private static <T> T fake(Class<T> type, Behavior behavior) {
+        Object fake = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Object result = behavior.call(method.getName(), args);
+            Class<?> returns = method.getReturnType();
+            if (result != null || !returns.isPrimitive() || returns == void.class) {
+                return result;
+            }
+            if (returns == boolean.class) {
+                return false;
+            }
+            if (returns == long.class) {
+                return 0L;
+            }
+            return 0;
+        });
+        return type.cast(fake);
+    }
+}
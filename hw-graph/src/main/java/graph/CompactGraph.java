@@ -0,0 +1,275 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A CompactGraph is an immutable snapshot of a directed graph with numeric edge weights,
+ * stored in compressed sparse row form. Nodes are numbered 0 to nodeCount() - 1, and the
+ * edges leaving node n are numbered firstEdge(n) to endEdge(n) - 1. The edges are also
+ * indexed by the node they point to: the edges entering node n are numbered firstInEdge(n)
+ * to endInEdge(n) - 1, and these numbers are separate from the outgoing edge numbers.
+ * A CompactGraph is made from a Graph with Graph#toCompact, or straight from its edge tables with of.
+ *
+ * @param <V> the type of nodes.
+ */
+public class CompactGraph<V> {
+    // RI:  nodes != null && ids != null && offsets != null && targets != null && weights != null
+    //      ids.get(nodes.get(i)) == i for every 0 <= i < nodes.size(), and ids has no other keys.
+    //      offsets.length == nodes.size() + 1 && offsets[0] == 0
+    //      && offsets[nodes.size()] == targets.length == weights.length
+    //      offsets is non-decreasing, and 0 <= targets[e] < nodes.size() for every edge e.
+    //      inOffsets, sources and inWeights hold the same edges as offsets, targets and weights,
+    //      grouped by the node they point to instead of the node they leave.
+    // AF(this) = a graph with node nodes.get(n) for each id n, and for each id n and each
+    //      offsets[n] <= e < offsets[n + 1], an edge from nodes.get(n) to nodes.get(targets[e])
+    //      with weight weights[e].
+
+    // The node with each id.
+    private final List<V> nodes;
+
+    // The id of each node.
+    private final Map<V, Integer> ids;
+
+    // The edges leaving node n are at offsets[n] up to (not including) offsets[n + 1].
+    private final int[] offsets;
+
+    // The id of the node each edge points to.
+    private final int[] targets;
+
+    // The weight of each edge.
+    private final double[] weights;
+
+    // The edges entering node n are at inOffsets[n] up to (not including) inOffsets[n + 1].
+    private final int[] inOffsets;
+
+    // The id of the node each entering edge leaves.
+    private final int[] sources;
+
+    // The weight of each entering edge.
+    private final double[] inWeights;
+
+    private void checkRep() {
+        assert nodes != null && ids != null : "the node tables cannot be null.";
+        assert offsets != null && targets != null && weights != null : "the edge tables cannot be null.";
+        assert offsets.length == nodes.size() + 1 : "Every node needs an offset";
+        assert offsets[nodes.size()] == targets.length && targets.length == weights.length
+                : "Every edge needs a target and a weight";
+        assert inOffsets != null && sources != null && inWeights != null : "the reverse tables cannot be null.";
+        assert inOffsets.length == offsets.length && sources.length == targets.length
+                && inWeights.length == weights.length : "The reverse tables must have every edge";
+    }
+
+    /**
+     * Construct a new CompactGraph from its tables, which it takes ownership of.
+     * @param nodes the node with each id
+     * @param ids the id of each node
+     * @param offsets the index of the first edge of each node, followed by the number of edges
+     * @param targets the id of the node each edge points to
+     * @param weights the weight of each edge
+     * @param inOffsets the index of the first entering edge of each node, followed by the number of edges
+     * @param sources the id of the node each entering edge leaves
+     * @param inWeights the weight of each entering edge
+     * @spec.requires the arguments satisfy the rep invariant and are not used by the caller afterwards
+     * @spec.effects makes a graph with the given nodes and edges.
+     */
+    CompactGraph(List<V> nodes, Map<V, Integer> ids, int[] offsets, int[] targets, double[] weights,
+                 int[] inOffsets, int[] sources, double[] inWeights) {
+        this.nodes = List.copyOf(nodes);
+        this.ids = Map.copyOf(ids);
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.inOffsets = inOffsets;
+        this.sources = sources;
+        this.inWeights = inWeights;
+        checkRep();
+    }
+
+    /**
+     * Make a new CompactGraph from the tables of its outgoing edges, indexing the edges by the
+     * node they point to as well. The tables are copied.
+     * @param nodes the node with each id
+     * @param offsets the index of the first edge of each node, followed by the number of edges
+     * @param targets the id of the node each edge points to
+     * @param weights the weight of each edge
+     * @param <V> the type of nodes
+     * @spec.requires no argument or node is null
+     * @throws IllegalArgumentException if nodes has duplicates, or the tables don't describe edges between them
+     * @return a graph with the given nodes and edges
+     */
+    public static <V> CompactGraph<V> of(List<V> nodes, int[] offsets, int[] targets, double[] weights) {
+        int nodeCount = nodes.size();
+        if (offsets.length != nodeCount + 1 || offsets[0] != 0 || offsets[nodeCount] != targets.length
+                || targets.length != weights.length) {
+            throw new IllegalArgumentException("The edge tables don't fit the nodes");
+        }
+        Map<V, Integer> ids = new HashMap<>();
+        for (int i = 0; i < nodeCount; i++) {
+            if (ids.put(nodes.get(i), i) != null) {
+                throw new IllegalArgumentException("Duplicate node " + nodes.get(i));
+            }
+            if (offsets[i] > offsets[i + 1]) {
+                throw new IllegalArgumentException("Offsets must not decrease");
+            }
+        }
+
+        // count the edges entering each node, then place them in order of the node they leave.
+        int[] inOffsets = new int[nodeCount + 1];
+        for (int target : targets) {
+            if (target < 0 || target >= nodeCount) {
+                throw new IllegalArgumentException("Edge target " + target + " is not a node");
+            }
+            inOffsets[target + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        int[] next = Arrays.copyOf(inOffsets, nodeCount);
+        int[] sources = new int[targets.length];
+        double[] inWeights = new double[targets.length];
+        for (int i = 0; i < nodeCount; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                int in = next[targets[e]]++;
+                sources[in] = i;
+                inWeights[in] = weights[e];
+            }
+        }
+        return new CompactGraph<>(nodes, ids, offsets.clone(), targets.clone(), weights.clone(),
+                                  inOffsets, sources, inWeights);
+    }
+
+    /**
+     * Return the number of nodes in this graph.
+     * @return the number of nodes in this graph
+     */
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Return the number of edges in this graph.
+     * @return the number of edges in this graph
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Return whether the given node is in this graph.
+     * @param node the node to look for
+     * @spec.requires node != null
+     * @return true iff node is in this graph
+     */
+    public boolean contains(V node) {
+        return ids.containsKey(node);
+    }
+
+    /**
+     * Return the id of the given node.
+     * @param node the node whose id is looked for
+     * @spec.requires node != null
+     * @throws java.util.NoSuchElementException if the node doesn't exist in this graph
+     * @return the id of the given node
+     */
+    public int id(V node) {
+        Integer id = ids.get(node);
+        if (id == null) {
+            throw new NoSuchElementException("The given node doesn't exist in the map");
+        }
+        return id;
+    }
+
+    /**
+     * Return the node with the given id.
+     * @param id the id of the node
+     * @spec.requires 0 &lt;= id &lt; nodeCount()
+     * @return the node with the given id
+     */
+    public V node(int id) {
+        return nodes.get(id);
+    }
+
+    /**
+     * Return the index of the first edge leaving the given node.
+     * @param id the id of the node
+     * @spec.requires 0 &lt;= id &lt; nodeCount()
+     * @return the index of the first edge leaving the node
+     */
+    public int firstEdge(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * Return the index after the last edge leaving the given node.
+     * @param id the id of the node
+     * @spec.requires 0 &lt;= id &lt; nodeCount()
+     * @return the index after the last edge leaving the node, which is firstEdge(id) if it has none
+     */
+    public int endEdge(int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * Return the id of the node the given edge points to.
+     * @param edge the index of the edge
+     * @spec.requires 0 &lt;= edge &lt; edgeCount()
+     * @return the id of the node the edge points to
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Return the weight of the given edge.
+     * @param edge the index of the edge
+     * @spec.requires 0 &lt;= edge &lt; edgeCount()
+     * @return the weight of the edge
+     */
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Return the index of the first edge entering the given node.
+     * @param id the id of the node
+     * @spec.requires 0 &lt;= id &lt; nodeCount()
+     * @return the index of the first edge entering the node
+     */
+    public int firstInEdge(int id) {
+        return inOffsets[id];
+    }
+
+    /**
+     * Return the index after the last edge entering the given node.
+     * @param id the id of the node
+     * @spec.requires 0 &lt;= id &lt; nodeCount()
+     * @return the index after the last edge entering the node, which is firstInEdge(id) if it has none
+     */
+    public int endInEdge(int id) {
+        return inOffsets[id + 1];
+    }
+
+    /**
+     * Return the id of the node the given entering edge leaves.
+     * @param inEdge the index of the entering edge
+     * @spec.requires 0 &lt;= inEdge &lt; edgeCount()
+     * @return the id of the node the edge leaves
+     */
+    public int source(int inEdge) {
+        return sources[inEdge];
+    }
+
+    /**
+     * Return the weight of the given entering edge.
+     * @param inEdge the index of the entering edge
+     * @spec.requires 0 &lt;= inEdge &lt; edgeCount()
+     * @return the weight of the edge
+     */
+    public double inWeight(int inEdge) {
+        return inWeights[inEdge];
+    }
+}
@@ -1,6 +1,7 @@
 package graph;
 
 import java.util.*;
+import java.util.function.ToDoubleFunction;
 
 /**
  * A Graph is a mutable directed, labeled graph. A typical Graph consists of
@@ -12,32 +13,67 @@ import java.util.*;
  * @param <E> the type of the label of edges.
  */
 public class Graph<V, E> {
-    // RI:  adjacencyList != null
-    //      no null values and no identical values in adjacencyList.
+    // RI:  adjacencyList != null && incomingList != null
+    //      no null values in adjacencyList.
+    //      incomingList has the same keys as adjacencyList, and an edge is in incomingList.get(n)
+    //      iff it is in adjacencyList.get(edge.parent) and edge.child equals n.
     // AF(this) = a graph with nodes of this.adjacencyList.keys and edges of this.adjacencyList.values.
-    private Map<V, List<Edge<V, E>>> adjacencyList;
+    // Edge sets are LinkedHashSets, so adding and removing an edge is O(1) while
+    // iteration still follows the order the edges were added in.
+    private Map<V, Set<Edge<V, E>>> adjacencyList;
 
-    public static final boolean DEBUG = true;
+    // An index of the edges pointing to each node, kept in sync with adjacencyList
+    // so that incoming queries don't have to scan the whole graph.
+    private Map<V, Set<Edge<V, E>>> incomingList;
+
+    // How much of the rep invariant checkRep verifies for this graph.
+    private final Validation validation;
 
     private void checkRep() {
+        if (validation == Validation.OFF) {
+            return;
+        }
         assert adjacencyList != null : "the adjacency list cannot be null.";
-        if (DEBUG) {
+        assert incomingList != null : "the incoming list cannot be null.";
+        assert adjacencyList.size() == incomingList.size() : "The incoming index must have every node";
+        if (validation == Validation.FULL) {
+            assert adjacencyList.keySet().equals(incomingList.keySet()) : "The incoming index must have every node";
+            int edgeCount = 0;
             for (V node: adjacencyList.keySet()) {
-                List<Edge<V, E>> edges = adjacencyList.get(node);
-                for (int i = 0; i < edges.size(); i++) {
-                    assert edges.get(i) != null : "Edges cannot be null";
-                    assert i == edges.lastIndexOf(edges.get(i)) : "There cannot be identical edges in the map";
+                Set<Edge<V, E>> edges = adjacencyList.get(node);
+                for (Edge<V, E> edge : edges) {
+                    assert edge != null : "Edges cannot be null";
+                    assert incomingList.get(edge.getChild()).contains(edge) : "Every edge must be in the incoming index";
                 }
+                edgeCount += edges.size();
+            }
+            for (Set<Edge<V, E>> edges : incomingList.values()) {
+                edgeCount -= edges.size();
             }
+            assert edgeCount == 0 : "The incoming index cannot have extra edges";
         }
     }
 
     /**
-     * Construct a new Graph instance.
+     * Construct a new Graph instance, checking its rep invariant at the level named by the
+     * {@value Validation#PROPERTY} system property, or {@link Validation#FULL} if it isn't set.
+     * @throws IllegalArgumentException if the system property doesn't name a Validation level
      * @spec.effects makes an empty graph.
      */
     public Graph() {
+        this(Validation.fromProperty(Validation.FULL));
+    }
+
+    /**
+     * Construct a new Graph instance that checks its rep invariant at the given level.
+     * @param validation how much of the rep invariant to check on entry and exit of each method
+     * @spec.requires validation != null
+     * @spec.effects makes an empty graph.
+     */
+    public Graph(Validation validation) {
+        this.validation = validation;
         adjacencyList = new HashMap<>();
+        incomingList = new HashMap<>();
         checkRep();
     }
 
@@ -51,7 +87,8 @@ public class Graph<V, E> {
     public void addNode(V node) {
         checkRep();
         if (!adjacencyList.containsKey(node)) {
-            adjacencyList.put(node, new LinkedList<>());
+            adjacencyList.put(node, new LinkedHashSet<>());
+            incomingList.put(node, new LinkedHashSet<>());
         }
         checkRep();
     }
@@ -67,8 +104,8 @@ public class Graph<V, E> {
         checkRep();
 
         V parent = edge.getParent();
-        if (!adjacencyList.get(parent).contains(edge)) {
-            adjacencyList.get(parent).add(edge);
+        if (adjacencyList.get(parent).add(edge)) {
+            incomingList.get(edge.getChild()).add(edge);
         }
 
         checkRep();
@@ -116,17 +153,16 @@ public class Graph<V, E> {
         if (!adjacencyList.containsKey(child)) {
             throw new NoSuchElementException("The given child node doesn't exist in the map");
         }
-        List<V> parents = new ArrayList<>();
+        // a LinkedHashSet removes duplicate parents in O(1) and keeps them in edge order.
+        Set<V> parents = new LinkedHashSet<>();
 
         List<Edge<V, E>> edgesTo = getEdgesTo(child);
         for (Edge<V, E> edge: edgesTo) {
-            if (!parents.contains(edge.getParent())) {
-                parents.add(edge.getParent());
-            }
+            parents.add(edge.getParent());
         }
 
         checkRep();
-        return parents;
+        return new ArrayList<>(parents);
     }
 
     /**
@@ -157,20 +193,22 @@ public class Graph<V, E> {
     }
 
     /**
-     * Return a list of edges starting from the given node.
+     * Return the edges starting from the given node, without copying them.
      * @param node the starting node
      * @spec.requires node != null
      * @throws java.util.NoSuchElementException if the node doesn't exist in this graph
-     * @return a list of edges starting from the given node
+     * @return an unmodifiable view of the edges starting from the given node, in the order they
+     *         were added. It follows later changes to this graph, and must not be iterated over
+     *         while the graph changes.
      */
-    public List<Edge<V, E>> getEdgesFrom(V node) {
+    public Set<Edge<V, E>> getEdgesFrom(V node) {
         checkRep();
         if (!adjacencyList.containsKey(node)) {
             throw new NoSuchElementException("The given node doesn't exist in the map");
         }
 
         checkRep();
-        return adjacencyList.get(node);
+        return Collections.unmodifiableSet(adjacencyList.get(node));
     }
 
     /**
@@ -186,13 +224,10 @@ public class Graph<V, E> {
             throw new NoSuchElementException("The given child node doesn't exist in the map");
         }
         List<Edge<V, E>> edges = new ArrayList<>();
-        for (V parent: adjacencyList.keySet()) {
-            if (!parent.equals(node)) {
-                for (Edge<V, E> edge : adjacencyList.get(parent)) {
-                    if (edge.getChild().equals(node)) {
-                        edges.add(edge);
-                    }
-                }
+        for (Edge<V, E> edge : incomingList.get(node)) {
+            // self-loops are not counted as edges pointing to the node.
+            if (!edge.getParent().equals(node)) {
+                edges.add(edge);
             }
         }
 
@@ -209,10 +244,97 @@ public class Graph<V, E> {
      */
     public void removeEdge(Edge<V, E> edge) {
         checkRep();
-        adjacencyList.get(edge.getParent()).remove(edge);
+        if (adjacencyList.get(edge.getParent()).remove(edge)) {
+            incomingList.get(edge.getChild()).remove(edge);
+        }
         checkRep();
     }
 
+    /**
+     * Return an immutable compressed sparse row snapshot of this graph, for read-only
+     * clients that walk edges much more often than they change them.
+     * @param weight turns an edge label into the weight of the edge
+     * @spec.requires weight != null
+     * @return a CompactGraph with the same nodes and edges as this graph, where each edge
+     *         has the weight of its label. Later changes to this graph don't affect it.
+     */
+    public CompactGraph<V> toCompact(ToDoubleFunction<? super E> weight) {
+        checkRep();
+        List<V> nodes = new ArrayList<>(adjacencyList.keySet());
+        Map<V, Integer> ids = new HashMap<>();
+        int edgeCount = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            ids.put(nodes.get(i), i);
+            edgeCount += adjacencyList.get(nodes.get(i)).size();
+        }
+
+        int[] offsets = new int[nodes.size() + 1];
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        int e = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            offsets[i] = e;
+            for (Edge<V, E> edge : adjacencyList.get(nodes.get(i))) {
+                targets[e] = ids.get(edge.getChild());
+                weights[e] = weight.applyAsDouble(edge.getLabel());
+                e++;
+            }
+        }
+        offsets[nodes.size()] = e;
+
+        // the same edges again, grouped by the node they point to.
+        int[] inOffsets = new int[nodes.size() + 1];
+        int[] sources = new int[edgeCount];
+        double[] inWeights = new double[edgeCount];
+        e = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            inOffsets[i] = e;
+            for (Edge<V, E> edge : incomingList.get(nodes.get(i))) {
+                sources[e] = ids.get(edge.getParent());
+                inWeights[e] = weight.applyAsDouble(edge.getLabel());
+                e++;
+            }
+        }
+        inOffsets[nodes.size()] = e;
+
+        checkRep();
+        return new CompactGraph<>(nodes, ids, offsets, targets, weights, inOffsets, sources, inWeights);
+    }
+
+    /**
+     * A Validation is how much of a Graph's rep invariant is checked on entry and exit
+     * of each of its public methods. Checks are assertions, so they also need assertions
+     * to be enabled.
+     */
+    public enum Validation {
+        /** Don't check anything. */
+        OFF,
+        /** Check only the parts of the rep invariant that take constant time. */
+        CHEAP,
+        /** Check every node and edge, which is linear in the size of the graph. */
+        FULL;
+
+        /**
+         * The system property that chooses the level of graphs built without an explicit one,
+         * e.g. {@code -Dgraph.validation=off}.
+         */
+        public static final String PROPERTY = "graph.validation";
+
+        /**
+         * Return the level named by the {@value #PROPERTY} system property, ignoring case.
+         * @param defaultLevel the level to return if the property isn't set
+         * @throws IllegalArgumentException if the property doesn't name a level
+         * @return the level named by the system property, or defaultLevel if it isn't set
+         */
+        public static Validation fromProperty(Validation defaultLevel) {
+            String level = System.getProperty(PROPERTY);
+            if (level == null) {
+                return defaultLevel;
+            }
+            return valueOf(level.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
     /**
      * An Edge is an immutable directed, labeled edge, pointing from a source to a destination.
      * A typical Edge is a pair of nodes (node1, node2) with a label, representing
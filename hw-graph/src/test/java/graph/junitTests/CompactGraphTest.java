@@ -0,0 +1,133 @@
+package graph.junitTests;
+
+import graph.CompactGraph;
+import graph.Graph;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+/**
+ * The class is for unit tests for CompactGraph and Graph#toCompact.
+ */
+public class CompactGraphTest {
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static final String N1 = "n1";
+    private static final String N2 = "n2";
+    private static final String N3 = "n3";
+
+    private Graph<String, Double> graph;
+
+    @Before
+    public void createGraph() {
+        graph = new Graph<>();
+        graph.addNode(N1);
+        graph.addNode(N2);
+        graph.addNode(N3);
+        graph.addEdge(new Graph.Edge<>(N1, N2, 1.0));
+        graph.addEdge(new Graph.Edge<>(N1, N3, 2.0));
+        graph.addEdge(new Graph.Edge<>(N3, N3, 3.0));
+    }
+
+    /**
+     * Tests that every node gets a distinct id that maps back to it.
+     */
+    @Test
+    public void testNodeIds() {
+        CompactGraph<String> compact = graph.toCompact(Double::doubleValue);
+        assertEquals(3, compact.nodeCount());
+        assertEquals(3, compact.edgeCount());
+        for (String node : graph.getNodes()) {
+            assertTrue(compact.contains(node));
+            assertEquals(node, compact.node(compact.id(node)));
+        }
+    }
+
+    /**
+     * Tests that the edges of each node are kept in order with their weights.
+     */
+    @Test
+    public void testEdges() {
+        CompactGraph<String> compact = graph.toCompact(Double::doubleValue);
+        int n1 = compact.id(N1);
+        assertEquals(2, compact.endEdge(n1) - compact.firstEdge(n1));
+        assertEquals(N2, compact.node(compact.target(compact.firstEdge(n1))));
+        assertEquals(1.0, compact.weight(compact.firstEdge(n1)), 0);
+        assertEquals(N3, compact.node(compact.target(compact.firstEdge(n1) + 1)));
+        assertEquals(2.0, compact.weight(compact.firstEdge(n1) + 1), 0);
+
+        int n2 = compact.id(N2);
+        assertEquals(compact.firstEdge(n2), compact.endEdge(n2));
+    }
+
+    /**
+     * Tests that the entering edges of each node are indexed with their sources and weights.
+     */
+    @Test
+    public void testInEdges() {
+        CompactGraph<String> compact = graph.toCompact(Double::doubleValue);
+        int n3 = compact.id(N3);
+        assertEquals(2, compact.endInEdge(n3) - compact.firstInEdge(n3));
+        assertEquals(N1, compact.node(compact.source(compact.firstInEdge(n3))));
+        assertEquals(2.0, compact.inWeight(compact.firstInEdge(n3)), 0);
+        assertEquals(N3, compact.node(compact.source(compact.firstInEdge(n3) + 1)));
+        assertEquals(3.0, compact.inWeight(compact.firstInEdge(n3) + 1), 0);
+
+        int n1 = compact.id(N1);
+        assertEquals(compact.firstInEdge(n1), compact.endInEdge(n1));
+    }
+
+    /**
+     * Tests that changing the graph afterwards doesn't change the snapshot.
+     */
+    @Test
+    public void testSnapshotIsImmutable() {
+        CompactGraph<String> compact = graph.toCompact(Double::doubleValue);
+        graph.addNode("n4");
+        graph.addEdge(new Graph.Edge<>(N2, N1, 4.0));
+        assertEquals(3, compact.nodeCount());
+        assertEquals(3, compact.edgeCount());
+        assertFalse(compact.contains("n4"));
+    }
+
+    /**
+     * Tests that a graph made from edge tables indexes the entering edges the same way.
+     */
+    @Test
+    public void testOfTables() {
+        CompactGraph<String> compact = CompactGraph.of(List.of(N1, N2, N3), new int[] {0, 2, 2, 3},
+                                                       new int[] {1, 2, 2}, new double[] {1.0, 2.0, 3.0});
+        assertEquals(3, compact.edgeCount());
+        assertEquals(N2, compact.node(compact.target(compact.firstEdge(compact.id(N1)))));
+        int n3 = compact.id(N3);
+        assertEquals(2, compact.endInEdge(n3) - compact.firstInEdge(n3));
+        assertEquals(N1, compact.node(compact.source(compact.firstInEdge(n3))));
+        assertEquals(2.0, compact.inWeight(compact.firstInEdge(n3)), 0);
+        assertEquals(N3, compact.node(compact.source(compact.firstInEdge(n3) + 1)));
+        assertEquals(3.0, compact.inWeight(compact.firstInEdge(n3) + 1), 0);
+    }
+
+    /**
+     * Tests that of throws an IllegalArgumentException when an edge points to no node.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfBadTarget() {
+        CompactGraph.of(List.of(N1, N2), new int[] {0, 1, 1}, new int[] {2}, new double[] {1.0});
+    }
+
+    /**
+     * Tests that id throws a NoSuchElementException when given a node
+     * that doesn't exist in the graph.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testIdNotExist() {
+        graph.toCompact(Double::doubleValue).id("not exist");
+    }
+}
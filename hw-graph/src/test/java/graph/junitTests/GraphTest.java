@@ -86,6 +86,64 @@ public class GraphTest {
         assertEquals(new ArrayList<>(), graph.getEdges(N1, N2));
     }
 
+    /**
+     * Tests that getEdgesTo and getParents follow added and removed edges,
+     * listing each parent once and skipping self-loops.
+     */
+    @Test
+    public void testIncomingEdges() {
+        graph.addNode(N1);
+        graph.addNode(N2);
+        graph.addNode(N3);
+
+        graph.addEdge(E12);
+        graph.addEdge(E12_new);
+        graph.addEdge(new Graph.Edge<>(N2, N2, "self"));
+        graph.addEdge(E31);
+        assertEquals(Arrays.asList(E12, E12_new), graph.getEdgesTo(N2));
+        assertEquals(Arrays.asList(N1), graph.getParents(N2));
+        assertEquals(Arrays.asList(N3), graph.getParents(N1));
+
+        graph.removeEdge(E12);
+        assertEquals(Arrays.asList(E12_new), graph.getEdgesTo(N2));
+        graph.removeEdge(E12_new);
+        assertEquals(new ArrayList<>(), graph.getParents(N2));
+    }
+
+    /**
+     * Tests that the validation level comes from the system property when it is set.
+     */
+    @Test
+    public void testValidationFromProperty() {
+        String old = System.getProperty(Graph.Validation.PROPERTY);
+        try {
+            System.clearProperty(Graph.Validation.PROPERTY);
+            assertEquals(Graph.Validation.CHEAP, Graph.Validation.fromProperty(Graph.Validation.CHEAP));
+            System.setProperty(Graph.Validation.PROPERTY, "Off");
+            assertEquals(Graph.Validation.OFF, Graph.Validation.fromProperty(Graph.Validation.FULL));
+        } finally {
+            if (old == null) {
+                System.clearProperty(Graph.Validation.PROPERTY);
+            } else {
+                System.setProperty(Graph.Validation.PROPERTY, old);
+            }
+        }
+    }
+
+    /**
+     * Tests that a graph without rep checks behaves the same as a fully checked one.
+     */
+    @Test
+    public void testValidationOff() {
+        Graph<String, String> unchecked = new Graph<>(Graph.Validation.OFF);
+        unchecked.addNode(N1);
+        unchecked.addNode(N2);
+        unchecked.addEdge(E12);
+        unchecked.addEdge(E12);
+        assertEquals(Arrays.asList(E12), unchecked.getEdges(N1, N2));
+        assertEquals(Arrays.asList(N1), unchecked.getParents(N2));
+    }
+
     /**
      * Tests that getChildren throws a NoSuchElementException when given a node
      * that doesn't exist in the graph.
@@ -123,6 +181,20 @@ public class GraphTest {
         graph.getEdgesFrom("not exist");
     }
 
+    /**
+     * Tests that getEdgesFrom returns the edges in the order they were added, and that
+     * they can't be changed through it.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetEdgesFromIsUnmodifiable() {
+        graph.addNode(N1);
+        graph.addNode(N2);
+        graph.addEdge(E12_new);
+        graph.addEdge(E12);
+        assertEquals(Arrays.asList(E12_new, E12), new ArrayList<>(graph.getEdgesFrom(N1)));
+        graph.getEdgesFrom(N1).remove(E12);
+    }
+
     /**
      * Tests that getEdgesTo throws a NoSuchElementException when given a node
      * that doesn't exist in the graph.
@@ -192,7 +192,7 @@ public class GraphTestDriver {
     private void listChildren(String graphName, String parentName) {
         String head = "the children of " + parentName + " in " + graphName + " are:";
         Graph<String, String> graph = graphs.get(graphName);
-        List<Graph.Edge<String, String>> edgesFrom = graph.getEdgesFrom(parentName);
+        List<Graph.Edge<String, String>> edgesFrom = new ArrayList<>(graph.getEdgesFrom(parentName));
         edgesFrom.sort((o1, o2) -> {
             int compareLabel = o1.getLabel().compareTo(o2.getLabel());
             int compareChild = o1.getChild().compareTo(o2.getChild());
@@ -0,0 +1,413 @@
+package pathfinder;
+
+import graph.CompactGraph;
+import pathfinder.datastructures.Point;
+import pathfinder.datastructures.PointDictionary;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPathsParser;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A CampusDataset is the immutable data a CampusMap is made from: the graph of campus paths
+ * between Points, and the buildings on it. It is either parsed from the campus CSV files,
+ * or loaded from a binary file that was compiled from them, which needs no parsing at all.
+ * <p>
+ * The binary format is big-endian, in this order:
+ * <ol>
+ *     <li>a header of 8 ints: a magic number, the format version, the number of nodes,
+ *     edges and buildings, the number of bytes of names, and two reserved zeros;</li>
+ *     <li>the node coordinate table: the x of every node, then the y of every node, as doubles;</li>
+ *     <li>the CSR edge table: each node's first edge index followed by the number of edges,
+ *     then each edge's target node, as ints, then each edge's distance, as doubles;</li>
+ *     <li>the building table: for each building, its node and the start and length of its
+ *     short and long names in the name table, as ints;</li>
+ *     <li>the name table: the buildings' names, in UTF-8.</li>
+ * </ol>
+ * Nodes are numbered in the order their coordinates first appear in the CSV files, whichever
+ * way the dataset was made, so hierarchies and other tables built for one work on the other.
+ * <p>
+ * Compiling a dataset also stores its graph's contraction hierarchy next to it, in the file
+ * {@link #hierarchyFile(java.nio.file.Path)} names, so that a CampusMap loading the compiled
+ * dataset doesn't have to build the hierarchy again.
+ */
+public class CampusDataset {
+
+    // AF(this) = the campus map with the paths in graph and the buildings in buildings, in file order.
+    //      hierarchyFile, if not null, names the stored contraction hierarchy of graph.
+    // RI: graph != null && buildings != null && every building's Point is a node of graph.
+
+    /**
+     * The system property naming a compiled dataset file for {@link #fromProperty()} to load,
+     * e.g. {@code -Dcampus.dataset=build/campus-data/campus.bin}.
+     */
+    public static final String PROPERTY = "campus.dataset";
+
+    private static final int MAGIC = 0x43414d50;
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 8;
+    private static final int BUILDING_INTS = 5;
+
+    private final CompactGraph<Point> graph;
+    private final List<CampusBuilding> buildings;
+    private final java.nio.file.Path hierarchyFile;
+
+    private CampusDataset(CompactGraph<Point> graph, List<CampusBuilding> buildings,
+                          java.nio.file.Path hierarchyFile) {
+        this.graph = graph;
+        this.buildings = List.copyOf(buildings);
+        this.hierarchyFile = hierarchyFile;
+        checkRep();
+    }
+
+    /**
+     * Ensures that the cheap parts of the representation invariant have not been violated.
+     */
+    private void checkRep() {
+        assert graph != null && buildings != null;
+    }
+
+    /**
+     * @return The graph of campus paths, weighted by distance.
+     */
+    public CompactGraph<Point> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return The campus buildings, in the order of the file they came from.
+     */
+    public List<CampusBuilding> getBuildings() {
+        return buildings;
+    }
+
+    /**
+     * Reads the contraction hierarchy stored with this dataset, if it was loaded from a compiled
+     * file that has one next to it.
+     *
+     * @return The stored hierarchy of this dataset's graph, or null if there isn't one.
+     * @throws IOException if the stored hierarchy cannot be read, is corrupt, or is for another graph.
+     */
+    public ContractionHierarchy<Point> loadHierarchy() throws IOException {
+        if (hierarchyFile == null) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(hierarchyFile)) {
+            return ContractionHierarchy.read(in, graph);
+        }
+    }
+
+    /**
+     * Names the file the contraction hierarchy of a compiled dataset is stored in: the dataset
+     * file's name with its extension replaced by ".ch", in the same directory.
+     *
+     * @param datasetFile The compiled dataset file.
+     * @return The file its hierarchy is stored in.
+     */
+    public static java.nio.file.Path hierarchyFile(java.nio.file.Path datasetFile) {
+        String name = datasetFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return datasetFile.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".ch");
+    }
+
+    /**
+     * Parses a dataset from campus CSV files in src/main/resources/data/.
+     *
+     * @param buildingsFile The simple filename of a campus buildings file.
+     * @param pathsFile     The simple filename of a campus paths file.
+     * @return The dataset in the files.
+     * @throws CampusPathsParser.ParserException if a file cannot be found or parsed as expected.
+     */
+    public static CampusDataset fromCsv(String buildingsFile, String pathsFile) {
+        // Each distinct coordinate becomes one shared Point with a dense id, numbered in file
+        // order, and the paths are collected as id pairs to build the edge table from directly.
+        PointDictionary points = new PointDictionary();
+        List<CampusBuilding> buildings = new ArrayList<>();
+        CampusPathsParser.parseCampusBuildings(buildingsFile, building -> {
+            points.intern(building.getX(), building.getY());
+            buildings.add(building);
+        });
+        EdgeBuffer edges = new EdgeBuffer();
+        CampusPathsParser.parseCampusPaths(pathsFile, path ->
+                edges.add(points.intern(path.getX1(), path.getY1()), points.intern(path.getX2(), path.getY2()),
+                          path.getDistance()));
+        return new CampusDataset(edges.toGraph(points.points()), buildings, null);
+    }
+
+    /**
+     * Loads the dataset named by the {@value #PROPERTY} system property, or parses
+     * campus_buildings.csv and campus_paths.csv if it isn't set.
+     *
+     * @return The campus dataset.
+     * @throws CampusPathsParser.ParserException if the dataset cannot be read.
+     */
+    public static CampusDataset fromProperty() {
+        String file = System.getProperty(PROPERTY);
+        if (file == null || file.isEmpty()) {
+            return fromCsv("campus_buildings.csv", "campus_paths.csv");
+        }
+        try {
+            return load(Paths.get(file));
+        } catch (IOException e) {
+            throw new CampusPathsParser.ParserException("Cannot load campus dataset " + file, e);
+        }
+    }
+
+    /**
+     * Loads a dataset written by {@link #write(java.nio.file.Path)}. The file is memory-mapped
+     * and its tables are copied out in bulk, with no parsing per node or edge. A contraction
+     * hierarchy stored next to it is only read by {@link #loadHierarchy()}.
+     *
+     * @param file The compiled dataset file.
+     * @return The dataset in the file.
+     * @throws IOException if the file cannot be read or isn't a valid dataset.
+     */
+    public static CampusDataset load(java.nio.file.Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_INTS * Integer.BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a campus dataset: " + file);
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (data.getInt(0) != MAGIC) {
+                throw new IOException("Not a campus dataset: " + file);
+            }
+            if (data.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException("Unsupported campus dataset version in " + file);
+            }
+            int nodeCount = data.getInt(2 * Integer.BYTES);
+            int edgeCount = data.getInt(3 * Integer.BYTES);
+            int buildingCount = data.getInt(4 * Integer.BYTES);
+            int nameBytes = data.getInt(5 * Integer.BYTES);
+            long expected = (long) HEADER_INTS * Integer.BYTES
+                            + 2L * nodeCount * Double.BYTES
+                            + (nodeCount + 1L + edgeCount) * Integer.BYTES + (long) edgeCount * Double.BYTES
+                            + (long) buildingCount * BUILDING_INTS * Integer.BYTES + nameBytes;
+            if (nodeCount < 0 || edgeCount < 0 || buildingCount < 0 || nameBytes < 0 || expected != channel.size()) {
+                throw new IOException("Corrupt campus dataset: " + file);
+            }
+
+            data.position(HEADER_INTS * Integer.BYTES);
+            double[] xs = new double[nodeCount];
+            double[] ys = new double[nodeCount];
+            int[] offsets = new int[nodeCount + 1];
+            int[] targets = new int[edgeCount];
+            double[] weights = new double[edgeCount];
+            int[] buildingTable = new int[buildingCount * BUILDING_INTS];
+            byte[] names = new byte[nameBytes];
+            readDoubles(data, xs);
+            readDoubles(data, ys);
+            readInts(data, offsets);
+            readInts(data, targets);
+            readDoubles(data, weights);
+            readInts(data, buildingTable);
+            data.get(names);
+
+            List<Point> nodes = new ArrayList<>(nodeCount);
+            for (int i = 0; i < nodeCount; i++) {
+                nodes.add(new Point(xs[i], ys[i]));
+            }
+            List<CampusBuilding> buildings = new ArrayList<>(buildingCount);
+            for (int b = 0; b < buildingTable.length; b += BUILDING_INTS) {
+                int node = buildingTable[b];
+                if (node < 0 || node >= nodeCount || !inNames(buildingTable[b + 1], buildingTable[b + 2], nameBytes)
+                        || !inNames(buildingTable[b + 3], buildingTable[b + 4], nameBytes)) {
+                    throw new IOException("Corrupt campus dataset: " + file);
+                }
+                buildings.add(new CampusBuilding(
+                        new String(names, buildingTable[b + 1], buildingTable[b + 2], StandardCharsets.UTF_8),
+                        new String(names, buildingTable[b + 3], buildingTable[b + 4], StandardCharsets.UTF_8),
+                        xs[node], ys[node]));
+            }
+            java.nio.file.Path hierarchy = hierarchyFile(file);
+            try {
+                return new CampusDataset(CompactGraph.of(nodes, offsets, targets, weights), buildings,
+                                         Files.exists(hierarchy) ? hierarchy : null);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt campus dataset: " + file, e);
+            }
+        }
+    }
+
+    private static boolean inNames(int start, int length, int nameBytes) {
+        return start >= 0 && length >= 0 && start <= nameBytes - length;
+    }
+
+    /**
+     * Fills values from data's position onwards, and moves the position past them.
+     */
+    private static void readInts(ByteBuffer data, int[] values) {
+        data.asIntBuffer().get(values);
+        data.position(data.position() + values.length * Integer.BYTES);
+    }
+
+    /**
+     * Fills values from data's position onwards, and moves the position past them.
+     */
+    private static void readDoubles(ByteBuffer data, double[] values) {
+        data.asDoubleBuffer().get(values);
+        data.position(data.position() + values.length * Double.BYTES);
+    }
+
+    /**
+     * Writes this dataset in the binary format that {@link #load(java.nio.file.Path)} reads.
+     *
+     * @param file The file to write, which is replaced if it exists.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(java.nio.file.Path file) throws IOException {
+        int nodeCount = graph.nodeCount();
+        ByteArrayOutputStream nameTable = new ByteArrayOutputStream();
+        int[] buildingTable = new int[buildings.size() * BUILDING_INTS];
+        for (int i = 0; i < buildings.size(); i++) {
+            CampusBuilding building = buildings.get(i);
+            byte[] shortName = building.getShortName().getBytes(StandardCharsets.UTF_8);
+            byte[] longName = building.getLongName().getBytes(StandardCharsets.UTF_8);
+            buildingTable[i * BUILDING_INTS] = graph.id(new Point(building.getX(), building.getY()));
+            buildingTable[i * BUILDING_INTS + 1] = nameTable.size();
+            buildingTable[i * BUILDING_INTS + 2] = shortName.length;
+            nameTable.write(shortName, 0, shortName.length);
+            buildingTable[i * BUILDING_INTS + 3] = nameTable.size();
+            buildingTable[i * BUILDING_INTS + 4] = longName.length;
+            nameTable.write(longName, 0, longName.length);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nodeCount);
+            out.writeInt(graph.edgeCount());
+            out.writeInt(buildings.size());
+            out.writeInt(nameTable.size());
+            out.writeInt(0);
+            out.writeInt(0);
+            for (int node = 0; node < nodeCount; node++) {
+                out.writeDouble(graph.node(node).getX());
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                out.writeDouble(graph.node(node).getY());
+            }
+            for (int node = 0; node <= nodeCount; node++) {
+                out.writeInt(node < nodeCount ? graph.firstEdge(node) : graph.edgeCount());
+            }
+            for (int edge = 0; edge < graph.edgeCount(); edge++) {
+                out.writeInt(graph.target(edge));
+            }
+            for (int edge = 0; edge < graph.edgeCount(); edge++) {
+                out.writeDouble(graph.weight(edge));
+            }
+            for (int value : buildingTable) {
+                out.writeInt(value);
+            }
+            nameTable.writeTo(out);
+        }
+    }
+
+    /**
+     * Compiles campus_buildings.csv and campus_paths.csv into a binary dataset file, and stores
+     * the contraction hierarchy of its graph next to it.
+     *
+     * @param args The dataset file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: CampusDataset <output file>");
+            System.exit(1);
+        }
+        java.nio.file.Path output = Paths.get(args[0]);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        CampusDataset dataset = fromCsv("campus_buildings.csv", "campus_paths.csv");
+        dataset.write(output);
+        System.out.println("Wrote " + dataset.graph.nodeCount() + " nodes, " + dataset.graph.edgeCount()
+                           + " edges and " + dataset.buildings.size() + " buildings to " + output);
+        ContractionHierarchy<Point> hierarchy = ContractionHierarchy.build(dataset.graph);
+        java.nio.file.Path hierarchyOutput = hierarchyFile(output);
+        try (OutputStream out = Files.newOutputStream(hierarchyOutput)) {
+            hierarchy.write(out);
+        }
+        System.out.println("Wrote a contraction hierarchy with " + hierarchy.shortcutCount() + " shortcuts to "
+                           + hierarchyOutput);
+    }
+
+    /**
+     * The edges read so far, in file order.
+     */
+    private static class EdgeBuffer {
+        private int[] sources = new int[1024];
+        private int[] targets = new int[1024];
+        private double[] weights = new double[1024];
+        private int size = 0;
+
+        private void add(int source, int target, double weight) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, 2 * size);
+                targets = Arrays.copyOf(targets, 2 * size);
+                weights = Arrays.copyOf(weights, 2 * size);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            weights[size] = weight;
+            size++;
+        }
+
+        /**
+         * Returns the graph of these edges between the given nodes. Each node's edges keep their
+         * file order, and repeats of an edge with the same target and distance are dropped, as
+         * Graph does.
+         */
+        private CompactGraph<Point> toGraph(List<Point> nodes) {
+            int[] offsets = new int[nodes.size() + 1];
+            for (int e = 0; e < size; e++) {
+                offsets[sources[e] + 1]++;
+            }
+            for (int node = 0; node < nodes.size(); node++) {
+                offsets[node + 1] += offsets[node];
+            }
+            int[] next = Arrays.copyOf(offsets, nodes.size());
+            int[] sortedTargets = new int[size];
+            double[] sortedWeights = new double[size];
+            for (int e = 0; e < size; e++) {
+                int sorted = next[sources[e]]++;
+                sortedTargets[sorted] = targets[e];
+                sortedWeights[sorted] = weights[e];
+            }
+
+            // compact each node's edges in place, skipping repeats. Double.equals compares like
+            // Double.compare, so the set holds each (target, weight) pair once.
+            int kept = 0;
+            int first = 0;
+            for (int node = 0; node < nodes.size(); node++) {
+                int end = offsets[node + 1];
+                offsets[node] = kept;
+                Set<Map.Entry<Integer, Double>> seen = new HashSet<>(2 * (end - first));
+                for (int e = first; e < end; e++) {
+                    if (seen.add(new AbstractMap.SimpleImmutableEntry<>(sortedTargets[e], sortedWeights[e]))) {
+                        sortedTargets[kept] = sortedTargets[e];
+                        sortedWeights[kept] = sortedWeights[e];
+                        kept++;
+                    }
+                }
+                first = end;
+            }
+            offsets[nodes.size()] = kept;
+            return CompactGraph.of(nodes, offsets, Arrays.copyOf(sortedTargets, kept),
+                                   Arrays.copyOf(sortedWeights, kept));
+        }
+    }
+}
@@ -11,40 +11,122 @@
 
 package pathfinder;
 
+import graph.CompactGraph;
 import graph.Graph;
+import pathfinder.datastructures.KdTree;
 import pathfinder.datastructures.Path;
 import pathfinder.datastructures.Point;
+import pathfinder.datastructures.SegmentGrid;
 import pathfinder.parser.CampusBuilding;
 import pathfinder.parser.CampusPath;
 import pathfinder.parser.CampusPathsParser;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class CampusMap implements ModelAPI {
-    private Graph<Point, Double> campusMap;
+    // Nothing changes the campus graph after it is loaded, so only a compact snapshot is kept.
+    private CompactGraph<Point> campusMap;
     private Map<String, CampusBuilding> shortNameToBuilding;
+    // A* heuristic from the Points' coordinates, checked against every edge of campusMap.
+    private EuclideanHeuristic heuristic;
+    // The algorithm findShortestPath(String, String) searches with.
+    private final SearchMode defaultMode;
+    // The shortest path tree from each building's short name, if defaultMode is ROUTE_TABLE,
+    // or null otherwise.
+    private Map<String, ShortestPathTree<Point>> routeTable;
+    // The contraction hierarchy of campusMap, if defaultMode is CONTRACTION_HIERARCHY, or null otherwise.
+    private ContractionHierarchy<Point> hierarchy;
+    // Spatial index over the nodes of campusMap, with the same ids.
+    private KdTree nodeIndex;
+    // The campus paths, one per pair of connected points, from the lower node id to the higher.
+    private CampusPath[] segments;
+    // Spatial index over segments, with the same ids.
+    private SegmentGrid segmentIndex;
+    // Told the mode and work of every search route does, or null to not count searches' work.
+    private volatile BiConsumer<SearchMode, SearchStats> searchListener;
+    // The work of each search that built routeTable, until a search listener is told about it,
+    // or null if there is no route table or a listener has been told.
+    private List<SearchStats> routeTableWork;
 
+    /**
+     * Loads the campus map from campus_buildings.csv and campus_paths.csv, or the compiled
+     * dataset named by the campus.dataset system property, finding shortest paths with
+     * dijkstra's algorithm.
+     */
     public CampusMap() {
-        List<CampusBuilding> buildings = CampusPathsParser.parseCampusBuildings("campus_buildings.csv");
-        List<CampusPath> paths = CampusPathsParser.parseCampusPaths("campus_paths.csv");
-        this.campusMap = new Graph<>();
+        this(SearchMode.DIJKSTRA);
+    }
+
+    /**
+     * Loads the campus map from campus_buildings.csv and campus_paths.csv, or the compiled
+     * dataset named by the campus.dataset system property.
+     *
+     * @param defaultMode The algorithm {@link #findShortestPath(String, String)} searches with.
+     * @see #CampusMap(CampusDataset, SearchMode)
+     */
+    public CampusMap(SearchMode defaultMode) {
+        this(CampusDataset.fromProperty(), defaultMode);
+    }
+
+    /**
+     * Creates a campus map of the given dataset. If defaultMode is
+     * {@link SearchMode#ROUTE_TABLE}, this also finds the shortest paths from every building,
+     * in parallel, so that each later search is only a table lookup. If defaultMode is
+     * {@link SearchMode#CONTRACTION_HIERARCHY}, this loads the contraction hierarchy stored with
+     * the dataset, or builds the map's hierarchy if there isn't one.
+     *
+     * @param dataset     The campus paths and buildings.
+     * @param defaultMode The algorithm {@link #findShortestPath(String, String)} searches with.
+     * @throws CampusPathsParser.ParserException if the dataset's stored hierarchy cannot be read.
+     */
+    public CampusMap(CampusDataset dataset, SearchMode defaultMode) {
+        this.defaultMode = defaultMode;
         this.shortNameToBuilding = new HashMap<>();
-        // Construct the graph of the campus.
-        for (CampusBuilding building : buildings) {
-            Point newNode = new Point(building.getX(), building.getY());
-            campusMap.addNode(newNode);
+        for (CampusBuilding building : dataset.getBuildings()) {
             // store short names to corresponding CampusBuilding information.
-            String shortName = building.getShortName();
-            shortNameToBuilding.put(shortName, building);
+            shortNameToBuilding.put(building.getShortName(), building);
+        }
+        this.campusMap = dataset.getGraph();
+        this.heuristic = EuclideanHeuristic.of(campusMap);
+        List<Point> nodes = new ArrayList<>(campusMap.nodeCount());
+        for (int id = 0; id < campusMap.nodeCount(); id++) {
+            nodes.add(campusMap.node(id));
+        }
+        this.nodeIndex = new KdTree(nodes);
+        indexSegments();
+        if (defaultMode == SearchMode.ROUTE_TABLE) {
+            // there can't be a search listener yet, so keep the work for the first one.
+            List<SearchStats> work = Collections.synchronizedList(new ArrayList<>());
+            this.routeTable = shortNameToBuilding.values().parallelStream()
+                    .collect(Collectors.toConcurrentMap(CampusBuilding::getShortName, building -> {
+                        SearchStats stats = new SearchStats();
+                        work.add(stats);
+                        return ShortestPath.shortestPathTree(campusMap,
+                                new Point(building.getX(), building.getY()), stats);
+                    }));
+            this.routeTableWork = new ArrayList<>(work);
         }
-        for (CampusPath path : paths) {
-            Point node1 = new Point(path.getX1(), path.getY1());
-            Point node2 = new Point(path.getX2(), path.getY2());
-            campusMap.addNode(node1);
-            campusMap.addNode(node2);
-            campusMap.addEdge(new Graph.Edge<>(node1, node2, path.getDistance()));
+        if (defaultMode == SearchMode.CONTRACTION_HIERARCHY) {
+            this.hierarchy = storedHierarchy(dataset);
+            if (hierarchy == null) {
+                this.hierarchy = ContractionHierarchy.build(campusMap);
+            }
         }
 
     }
@@ -74,6 +156,23 @@ public class CampusMap implements ModelAPI {
 
     @Override
     public Path<Point> findShortestPath(String startShortName, String endShortName) {
+        return findShortestPath(startShortName, endShortName, defaultMode);
+    }
+
+    /**
+     * Finds the shortest path, by distance, between the two provided buildings, using the
+     * given search algorithm. All modes find a path with the same, lowest cost.
+     *
+     * @param startShortName The short name of the building at the beginning of this path.
+     * @param endShortName   The short name of the building at the end of this path.
+     * @param mode           The algorithm to search with.
+     * @return A path between {@code startBuilding} and {@code endBuilding}, or {@literal null}
+     * if none exists.
+     * @throws IllegalArgumentException if {@code startBuilding} or {@code endBuilding} are
+     *                                  {@literal null}, or not valid short names of buildings in
+     *                                  this campus map.
+     */
+    public Path<Point> findShortestPath(String startShortName, String endShortName, SearchMode mode) {
         if (startShortName == null || endShortName == null) {
             throw new IllegalArgumentException("building names cannot be null");
         }
@@ -85,7 +184,507 @@ public class CampusMap implements ModelAPI {
                                 shortNameToBuilding.get(startShortName).getY());
         Point end = new Point(shortNameToBuilding.get(endShortName).getX(),
                                 shortNameToBuilding.get(endShortName).getY());
-        return ShortestPath.dijkstra(campusMap, start, end);
+        return route(start, end, routeTable == null ? null : routeTable.get(startShortName), mode);
+    }
+
+    @Override
+    public Path<Point> findShortestPath(double x, double y, String endShortName) {
+        return findShortestPath(x, y, endShortName, defaultMode);
+    }
+
+    /**
+     * Finds the shortest path, by distance, from the point of the map nearest to the given
+     * coordinates to the provided building, using the given search algorithm. The route table
+     * only has paths from buildings, so {@link SearchMode#ROUTE_TABLE} searches with dijkstra.
+     *
+     * @param x            The x coordinate to start from.
+     * @param y            The y coordinate to start from.
+     * @param endShortName The short name of the building at the end of this path.
+     * @param mode         The algorithm to search with.
+     * @return A path from the point of the map nearest (x, y) to {@code endBuilding}, or
+     * {@literal null} if none exists.
+     * @throws IllegalArgumentException if {@code endBuilding} is {@literal null} or not a valid
+     *                                  short name of a building in this campus map, or x or y
+     *                                  is NaN or infinite.
+     */
+    public Path<Point> findShortestPath(double x, double y, String endShortName, SearchMode mode) {
+        if (endShortName == null) {
+            throw new IllegalArgumentException("building names cannot be null");
+        }
+        if (!shortNameExists(endShortName)) {
+            throw new IllegalArgumentException("the short name provided does not exist.");
+        }
+        Point start = nearestNodes(x, y, 1).get(0);
+        Point end = new Point(shortNameToBuilding.get(endShortName).getX(),
+                              shortNameToBuilding.get(endShortName).getY());
+        return route(start, end, null, mode);
+    }
+
+    /**
+     * Finds the cost of the shortest path from each of the starting buildings to each of the
+     * ending buildings. Each distinct starting building takes one dijkstra search, which stops
+     * once every ending building is reached, and the searches run in parallel on the common
+     * fork-join pool, in at most one part per core.
+     *
+     * @param startShortNames The short names of the buildings the paths start at.
+     * @param endShortNames   The short names of the buildings the paths end at.
+     * @return A matrix whose entry [i][j] is the cost of the shortest path from
+     * startShortNames.get(i) to endShortNames.get(j), or Double.POSITIVE_INFINITY if there is none.
+     * @throws IllegalArgumentException if either list is {@literal null}, or has a name that is
+     *                                  {@literal null} or not a valid short name of a building
+     *                                  in this campus map.
+     */
+    public double[][] costMatrix(List<String> startShortNames, List<String> endShortNames) {
+        return costMatrix(startShortNames, endShortNames, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds the cost of the shortest path from each of the starting buildings to each of the
+     * ending buildings, as {@link #costMatrix(List, List)} does, but with the searches run on
+     * the given executor, in at most one part per core, and waited for on the caller's thread.
+     * If the executor refuses a part, the parts it was given that haven't started are
+     * cancelled.
+     *
+     * @param startShortNames The short names of the buildings the paths start at.
+     * @param endShortNames   The short names of the buildings the paths end at.
+     * @param executor        The executor to run the searches on.
+     * @return A matrix whose entry [i][j] is the cost of the shortest path from
+     * startShortNames.get(i) to endShortNames.get(j), or Double.POSITIVE_INFINITY if there is none.
+     * @throws IllegalArgumentException if either list is {@literal null}, or has a name that is
+     *                                  {@literal null} or not a valid short name of a building
+     *                                  in this campus map.
+     * @throws RejectedExecutionException if the executor refuses a part of the searches.
+     */
+    public double[][] costMatrix(List<String> startShortNames, List<String> endShortNames, Executor executor) {
+        List<Point> ends = buildingPoints(endShortNames);
+        List<double[]> rows = fromEachStart(buildingPoints(startShortNames), start -> counted(SearchMode.DIJKSTRA,
+                stats -> ShortestPath.costs(campusMap, start, ends, stats)), executor);
+        double[][] costs = new double[rows.size()][];
+        Set<double[]> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < costs.length; i++) {
+            // a repeated start shares its search, but not its row.
+            costs[i] = used.add(rows.get(i)) ? rows.get(i) : rows.get(i).clone();
+        }
+        return costs;
+    }
+
+    /**
+     * Finds the shortest path from each of the starting buildings to each of the ending
+     * buildings, searching as {@link #costMatrix(List, List)} does.
+     *
+     * @param startShortNames The short names of the buildings the paths start at.
+     * @param endShortNames   The short names of the buildings the paths end at.
+     * @return A matrix whose entry (i, j) is the shortest path from startShortNames.get(i) to
+     * endShortNames.get(j), or {@literal null} if there is none.
+     * @throws IllegalArgumentException if either list is {@literal null}, or has a name that is
+     *                                  {@literal null} or not a valid short name of a building
+     *                                  in this campus map.
+     */
+    public List<List<Path<Point>>> pathMatrix(List<String> startShortNames, List<String> endShortNames) {
+        return pathMatrix(startShortNames, endShortNames, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds the shortest path from each of the starting buildings to each of the ending
+     * buildings, searching as {@link #costMatrix(List, List, Executor)} does.
+     *
+     * @param startShortNames The short names of the buildings the paths start at.
+     * @param endShortNames   The short names of the buildings the paths end at.
+     * @param executor        The executor to run the searches on.
+     * @return A matrix whose entry (i, j) is the shortest path from startShortNames.get(i) to
+     * endShortNames.get(j), or {@literal null} if there is none.
+     * @throws IllegalArgumentException if either list is {@literal null}, or has a name that is
+     *                                  {@literal null} or not a valid short name of a building
+     *                                  in this campus map.
+     * @throws RejectedExecutionException if the executor refuses a part of the searches.
+     */
+    public List<List<Path<Point>>> pathMatrix(List<String> startShortNames, List<String> endShortNames,
+                                              Executor executor) {
+        List<Point> ends = buildingPoints(endShortNames);
+        List<List<Path<Point>>> rows = fromEachStart(buildingPoints(startShortNames),
+                start -> counted(SearchMode.DIJKSTRA, stats -> ShortestPath.paths(campusMap, start, ends, stats)),
+                executor);
+        List<List<Path<Point>>> paths = new ArrayList<>(rows.size());
+        Set<List<Path<Point>>> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<Path<Point>> row : rows) {
+            // a repeated start shares its search, but not its row.
+            paths.add(used.add(row) ? row : new ArrayList<>(row));
+        }
+        return paths;
+    }
+
+    /**
+     * Runs one search from each distinct start, as {@link #inParts} does.
+     *
+     * @return The result of the search from starts.get(i) at index i, where repeated starts
+     * have the same result.
+     * @throws RejectedExecutionException if executor refuses a part of the searches.
+     */
+    private static <T> List<T> fromEachStart(List<Point> starts, Function<Point, T> search, Executor executor) {
+        List<Point> distinct = new ArrayList<>(new LinkedHashSet<>(starts));
+        List<T> found = inParts(distinct, search, executor);
+        Map<Point, T> byStart = new HashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            byStart.put(distinct.get(i), found.get(i));
+        }
+        List<T> results = new ArrayList<>(starts.size());
+        for (Point start : starts) {
+            results.add(byStart.get(start));
+        }
+        return results;
+    }
+
+    /**
+     * Runs a search on each input on executor, and waits for them all. The inputs are split
+     * into at most one part per core, each searched in turn by one piece of work, so that a
+     * pool with a thread per core takes a whole batch without queueing more than it can run.
+     * If executor refuses a part, the parts it was given that haven't started are cancelled,
+     * so that they don't search for a result nobody waits for.
+     *
+     * @return The result of the search on inputs.get(i) at index i.
+     * @throws RejectedExecutionException if executor refuses a part.
+     */
+    private static <I, T> List<T> inParts(List<I> inputs, Function<I, T> search, Executor executor) {
+        int parts = Math.min(inputs.size(), Runtime.getRuntime().availableProcessors());
+        List<CompletableFuture<List<T>>> running = new ArrayList<>(parts);
+        try {
+            for (int part = 0; part < parts; part++) {
+                List<I> slice = inputs.subList(part * inputs.size() / parts, (part + 1) * inputs.size() / parts);
+                running.add(CompletableFuture.supplyAsync(() -> {
+                    List<T> results = new ArrayList<>(slice.size());
+                    for (I input : slice) {
+                        results.add(search.apply(input));
+                    }
+                    return results;
+                }, executor));
+            }
+        } catch (RejectedExecutionException e) {
+            for (CompletableFuture<List<T>> part : running) {
+                part.cancel(false);
+            }
+            throw e;
+        }
+        List<T> results = new ArrayList<>(inputs.size());
+        for (CompletableFuture<List<T>> part : running) {
+            results.addAll(part.join());
+        }
+        return results;
+    }
+
+    /**
+     * Finds the shortest paths between many pairs of buildings. Pairs with the same starting
+     * building share one dijkstra search, which stops once all of their ending buildings are
+     * reached, or one route table lookup if the default mode is {@link SearchMode#ROUTE_TABLE}.
+     * The searches for different starting buildings run on the given executor, split into parts
+     * as {@link #costMatrix(List, List, Executor)} splits them.
+     *
+     * @param startShortNames The short name of the building each path starts at.
+     * @param endShortNames   The short name of the building each path ends at.
+     * @param executor        The executor to run the searches on.
+     * @return The shortest path from startShortNames.get(i) to endShortNames.get(i) at index i,
+     * or {@literal null} if there is none.
+     * @throws IllegalArgumentException if either list is {@literal null}, they differ in
+     *                                  length, or have a name that is {@literal null} or not a
+     *                                  valid short name of a building in this campus map.
+     * @throws RejectedExecutionException if the executor refuses a part of the searches.
+     */
+    public List<Path<Point>> findShortestPaths(List<String> startShortNames, List<String> endShortNames,
+                                               Executor executor) {
+        List<Point> starts = buildingPoints(startShortNames);
+        List<Point> ends = buildingPoints(endShortNames);
+        if (starts.size() != ends.size()) {
+            throw new IllegalArgumentException("every path needs a start and an end.");
+        }
+        // the indexes of the pairs starting at each building, in the order first seen.
+        Map<String, List<Integer>> pairsByStart = new LinkedHashMap<>();
+        for (int i = 0; i < starts.size(); i++) {
+            pairsByStart.computeIfAbsent(startShortNames.get(i), start -> new ArrayList<>()).add(i);
+        }
+        List<Map.Entry<String, List<Integer>>> groups = new ArrayList<>(pairsByStart.entrySet());
+        List<List<Path<Point>>> found = inParts(groups, group -> {
+            List<Point> targets = new ArrayList<>(group.getValue().size());
+            for (int pair : group.getValue()) {
+                targets.add(ends.get(pair));
+            }
+            if (routeTable != null) {
+                ShortestPathTree<Point> tree = routeTable.get(group.getKey());
+                return counted(SearchMode.ROUTE_TABLE, stats -> {
+                    List<Path<Point>> lookedUp = new ArrayList<>(targets.size());
+                    for (Point target : targets) {
+                        lookedUp.add(tree.pathTo(target));
+                    }
+                    return lookedUp;
+                });
+            }
+            Point start = starts.get(group.getValue().get(0));
+            return counted(SearchMode.DIJKSTRA, stats -> ShortestPath.paths(campusMap, start, targets, stats));
+        }, executor);
+        List<Path<Point>> paths = new ArrayList<>(Collections.nCopies(starts.size(), null));
+        for (int g = 0; g < groups.size(); g++) {
+            List<Integer> pairs = groups.get(g).getValue();
+            for (int i = 0; i < pairs.size(); i++) {
+                paths.set(pairs.get(i), found.get(g).get(i));
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Finds every point of the map within a distance of the provided building.
+     *
+     * @param startShortName The short name of the building to start from.
+     * @param distance       The longest distance to go.
+     * @return The points that can be reached from the building's point by going at most
+     * distance, and the shortest distance to each.
+     * @throws IllegalArgumentException if {@code startShortName} is {@literal null} or not a
+     *                                  valid short name of a building in this campus map, or
+     *                                  distance is negative or NaN.
+     */
+    public Isochrone<Point> reachableWithin(String startShortName, double distance) {
+        if (startShortName == null) {
+            throw new IllegalArgumentException("building names cannot be null");
+        }
+        if (!shortNameExists(startShortName)) {
+            throw new IllegalArgumentException("the short name provided does not exist.");
+        }
+        if (!(distance >= 0)) {
+            throw new IllegalArgumentException("distance must be at least 0.");
+        }
+        Point start = new Point(shortNameToBuilding.get(startShortName).getX(),
+                                shortNameToBuilding.get(startShortName).getY());
+        return counted(SearchMode.DIJKSTRA, stats -> ShortestPath.isochrone(campusMap, start, distance, stats));
+    }
+
+    /**
+     * Finds the parts of the campus paths leaving an isochrone of this map that can still be
+     * followed within its limit, for drawing where its area ends.
+     *
+     * @param isochrone An isochrone of this campus map.
+     * @return A path for each edge of {@code isochrone.boundary()}, from its reached end to the
+     * point along it where the distance from the start reaches the limit.
+     * @spec.requires isochrone was returned by this map's {@link #reachableWithin(String, double)}.
+     */
+    public List<CampusPath> boundarySegments(Isochrone<Point> isochrone) {
+        List<CampusPath> segments = new ArrayList<>();
+        for (Graph.Edge<Point, Double> edge : isochrone.boundary()) {
+            Point from = edge.getParent();
+            Point to = edge.getChild();
+            double left = isochrone.getLimit() - isochrone.costTo(from);
+            double fraction = edge.getLabel() > 0 ? Math.min(1, left / edge.getLabel()) : 1;
+            segments.add(new CampusPath(from.getX(), from.getY(),
+                                        from.getX() + fraction * (to.getX() - from.getX()),
+                                        from.getY() + fraction * (to.getY() - from.getY()),
+                                        fraction * edge.getLabel()));
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the point of each building, in order.
+     *
+     * @throws IllegalArgumentException if shortNames is {@literal null}, or has a name that is
+     *                                  {@literal null} or not a valid short name.
+     */
+    private List<Point> buildingPoints(List<String> shortNames) {
+        if (shortNames == null) {
+            throw new IllegalArgumentException("building names cannot be null");
+        }
+        List<Point> points = new ArrayList<>(shortNames.size());
+        for (String shortName : shortNames) {
+            if (shortName == null) {
+                throw new IllegalArgumentException("building names cannot be null");
+            }
+            if (!shortNameExists(shortName)) {
+                throw new IllegalArgumentException("the short name provided does not exist.");
+            }
+            CampusBuilding building = shortNameToBuilding.get(shortName);
+            points.add(new Point(building.getX(), building.getY()));
+        }
+        return points;
+    }
+
+    /**
+     * Finds the points of the map nearest to the given coordinates.
+     *
+     * @param x The x coordinate to look around.
+     * @param y The y coordinate to look around.
+     * @param k The most points to return.
+     * @return The k points of the map nearest to (x, y), or all of them if there are fewer,
+     * nearest first.
+     * @throws IllegalArgumentException if k is negative, or x or y is NaN or infinite.
+     */
+    public List<Point> nearestNodes(double x, double y, int k) {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            throw new IllegalArgumentException("x and y cannot be NaN or infinite.");
+        }
+        List<Point> nearest = new ArrayList<>();
+        for (int id : nodeIndex.nearest(x, y, k)) {
+            nearest.add(campusMap.node(id));
+        }
+        return nearest;
+    }
+
+    /**
+     * Finds the campus paths that pass through a rectangle of the map. A path that goes both
+     * ways is only included once.
+     *
+     * @param minX The left edge of the rectangle.
+     * @param minY The top edge of the rectangle.
+     * @param maxX The right edge of the rectangle.
+     * @param maxY The bottom edge of the rectangle.
+     * @return The paths with a point in the rectangle, or an empty list if minX &gt; maxX or
+     * minY &gt; maxY.
+     * @throws IllegalArgumentException if any edge is NaN.
+     */
+    public List<CampusPath> segmentsIn(double minX, double minY, double maxX, double maxY) {
+        if (Double.isNaN(minX) || Double.isNaN(minY) || Double.isNaN(maxX) || Double.isNaN(maxY)) {
+            throw new IllegalArgumentException("the rectangle's edges cannot be NaN.");
+        }
+        List<CampusPath> found = new ArrayList<>();
+        for (int id : segmentIndex.query(minX, minY, maxX, maxY)) {
+            found.add(segments[id]);
+        }
+        return found;
+    }
+
+    /**
+     * Returns the contraction hierarchy stored with dataset, or null if there isn't one.
+     */
+    private static ContractionHierarchy<Point> storedHierarchy(CampusDataset dataset) {
+        try {
+            return dataset.loadHierarchy();
+        } catch (IOException e) {
+            throw new CampusPathsParser.ParserException("Cannot load the campus contraction hierarchy", e);
+        }
+    }
+
+    /**
+     * Collects one segment for each connected pair of points in campusMap and builds
+     * segmentIndex over them.
+     */
+    private void indexSegments() {
+        List<CampusPath> paths = new ArrayList<>();
+        for (int id = 0; id < campusMap.nodeCount(); id++) {
+            Point from = campusMap.node(id);
+            for (int edge = campusMap.firstEdge(id); edge < campusMap.endEdge(id); edge++) {
+                int target = campusMap.target(edge);
+                // the reverse of this edge, if there is one, is listed from the other node.
+                if (target > id || (target < id && !hasEdge(target, id))) {
+                    Point to = campusMap.node(target);
+                    paths.add(new CampusPath(from.getX(), from.getY(), to.getX(), to.getY(),
+                                             campusMap.weight(edge)));
+                }
+            }
+        }
+        this.segments = paths.toArray(new CampusPath[0]);
+        double[] x1 = new double[segments.length];
+        double[] y1 = new double[segments.length];
+        double[] x2 = new double[segments.length];
+        double[] y2 = new double[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            x1[i] = segments[i].getX1();
+            y1[i] = segments[i].getY1();
+            x2[i] = segments[i].getX2();
+            y2[i] = segments[i].getY2();
+        }
+        this.segmentIndex = new SegmentGrid(x1, y1, x2, y2);
+    }
+
+    /**
+     * Returns whether campusMap has an edge from the node with id source to the one with id target.
+     */
+    private boolean hasEdge(int source, int target) {
+        for (int edge = campusMap.firstEdge(source); edge < campusMap.endEdge(source); edge++) {
+            if (campusMap.target(edge) == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets what to tell about the work of each search this map does, such as how many nodes it
+     * settled, for monitoring: the searches of findShortestPath between two points, with their
+     * mode, and the dijkstra searches of costMatrix, pathMatrix, findShortestPaths and
+     * reachableWithin, as {@link SearchMode#DIJKSTRA}. Searches only count their work while
+     * there is a listener. Route table lookups aren't searches, so they settle no nodes; the
+     * searches that built the route table are told to the first listener set, as
+     * {@link SearchMode#ROUTE_TABLE}, before this returns.
+     *
+     * @param listener Called with the mode and work of each search, on the thread that did it,
+     *                 or null to stop counting searches' work.
+     */
+    public synchronized void setSearchListener(BiConsumer<SearchMode, SearchStats> listener) {
+        if (listener != null && routeTableWork != null) {
+            for (SearchStats stats : routeTableWork) {
+                listener.accept(SearchMode.ROUTE_TABLE, stats);
+            }
+            routeTableWork = null;
+        }
+        this.searchListener = listener;
+    }
+
+    /**
+     * Runs a search, telling the search listener about its work as a search with the given
+     * mode if there is a listener.
+     *
+     * @param search Does the search, counting its work in the stats it is given unless they're null.
+     */
+    private <T> T counted(SearchMode mode, Function<SearchStats, T> search) {
+        BiConsumer<SearchMode, SearchStats> listener = searchListener;
+        if (listener == null) {
+            return search.apply(null);
+        }
+        SearchStats stats = new SearchStats();
+        T result = search.apply(stats);
+        listener.accept(mode, stats);
+        return result;
+    }
+
+    /**
+     * Finds the shortest path between two points of the map with the given search algorithm,
+     * telling the search listener about the search's work if there is one.
+     *
+     * @param tree The shortest path tree from start in the route table, or null if there isn't one.
+     */
+    private Path<Point> route(Point start, Point end, ShortestPathTree<Point> tree, SearchMode mode) {
+        BiConsumer<SearchMode, SearchStats> listener = searchListener;
+        if (listener == null) {
+            return route(start, end, tree, mode, null);
+        }
+        SearchStats stats = new SearchStats();
+        Path<Point> path = route(start, end, tree, mode, stats);
+        listener.accept(mode, stats);
+        return path;
+    }
+
+    /**
+     * Finds the shortest path between two points of the map with the given search algorithm,
+     * counting its work in stats unless it is null.
+     */
+    private Path<Point> route(Point start, Point end, ShortestPathTree<Point> tree, SearchMode mode,
+                              SearchStats stats) {
+        switch (mode) {
+            case A_STAR:
+                if (heuristic.isUsable()) {
+                    return ShortestPath.aStar(campusMap, start, end, heuristic.towards(end), stats);
+                }
+                return ShortestPath.dijkstra(campusMap, start, end, stats);
+            case BIDIRECTIONAL:
+                return ShortestPath.bidirectionalDijkstra(campusMap, start, end, stats);
+            case ROUTE_TABLE:
+                if (tree != null) {
+                    return tree.pathTo(end);
+                }
+                return ShortestPath.dijkstra(campusMap, start, end, stats);
+            case CONTRACTION_HIERARCHY:
+                if (hierarchy != null) {
+                    return hierarchy.shortestPath(start, end, stats);
+                }
+                return ShortestPath.dijkstra(campusMap, start, end, stats);
+            default:
+                return ShortestPath.dijkstra(campusMap, start, end, stats);
+        }
     }
 
 }
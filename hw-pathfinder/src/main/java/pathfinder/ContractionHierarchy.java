@@ -0,0 +1,719 @@
+package pathfinder;
+
+import graph.CompactGraph;
+import pathfinder.datastructures.IndexedMinHeap;
+import pathfinder.datastructures.Path;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A ContractionHierarchy is an immutable index over a CompactGraph that answers shortest path
+ * queries by searching only a small part of the graph, which pays off on graphs far larger
+ * than the campus map.
+ * <p>
+ * It is built by contracting the nodes one at a time, least important first: a contracted
+ * node is removed from the graph, and a shortcut edge is added between each pair of its
+ * neighbors whose shortest path went through it. Each node's rank is the order it was
+ * contracted in. A query then searches upwards in rank from both ends at once, using only
+ * edges towards higher-ranked nodes, and the two searches meet at the highest-ranked node of
+ * the shortest path. Shortcuts on the found path are unpacked back into the graph's own edges,
+ * so the returned Path is one the graph itself has.
+ * <p>
+ * Building a hierarchy is slow, so it can be written out with {@link #write(OutputStream)}
+ * and read back for the same graph with {@link #read(InputStream, CompactGraph)}.
+ *
+ * @param <V> the type of nodes.
+ */
+public class ContractionHierarchy<V> {
+
+    // AF(this) = a hierarchy over graph, in which edge e goes from graph.node(edgeFrom[e]) to
+    //      graph.node(edgeTo[e]) with weight edgeWeight[e]. Edge e is one of the graph's edges if
+    //      edgeFirst[e] == -1, and otherwise a shortcut standing for edge edgeFirst[e] followed by
+    //      edge edgeSecond[e]. The edges a query follows upwards from node n are
+    //      upEdges[upOffsets[n]..upOffsets[n + 1] - 1], and the edges that lead upwards into node
+    //      n, followed backwards from n, are downEdges[downOffsets[n]..downOffsets[n + 1] - 1].
+    // RI: graph != null && all arrays != null &&
+    //     upOffsets.length == downOffsets.length == graph.nodeCount() + 1 &&
+    //     the edge arrays all have the same length, and every shortcut's halves have lower indices
+    //     than the shortcut itself and meet at a node ranked below both of its ends.
+
+    /**
+     * Identifies the serialized form of a hierarchy.
+     */
+    private static final int MAGIC = 0x43483331;
+
+    /**
+     * The version of the serialized form this class writes and reads.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * A witness search gives up after settling this many nodes, and adds a shortcut that may
+     * not be needed. This keeps preprocessing fast on large graphs at the cost of extra shortcuts.
+     */
+    private static final int WITNESS_SETTLE_LIMIT = 200;
+
+    private final CompactGraph<V> graph;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final double[] edgeWeight;
+    private final int[] edgeFirst;
+    private final int[] edgeSecond;
+    private final int[] upOffsets;
+    private final int[] upEdges;
+    private final int[] downOffsets;
+    private final int[] downEdges;
+
+    /**
+     * Reusable search state, so that a query doesn't allocate arrays as large as the graph.
+     */
+    private final ThreadLocal<Workspace> workspaces;
+
+    private ContractionHierarchy(CompactGraph<V> graph, int[] edgeFrom, int[] edgeTo, double[] edgeWeight,
+                                 int[] edgeFirst, int[] edgeSecond, int[] upOffsets, int[] upEdges,
+                                 int[] downOffsets, int[] downEdges) {
+        this.graph = graph;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeWeight = edgeWeight;
+        this.edgeFirst = edgeFirst;
+        this.edgeSecond = edgeSecond;
+        this.upOffsets = upOffsets;
+        this.upEdges = upEdges;
+        this.downOffsets = downOffsets;
+        this.downEdges = downEdges;
+        this.workspaces = ThreadLocal.withInitial(() -> new Workspace(graph.nodeCount()));
+        checkRep();
+    }
+
+    /**
+     * Ensures that the cheap parts of the representation invariant have not been violated.
+     */
+    private void checkRep() {
+        assert graph != null;
+        assert upOffsets.length == graph.nodeCount() + 1 && downOffsets.length == graph.nodeCount() + 1;
+        assert edgeTo.length == edgeFrom.length && edgeWeight.length == edgeFrom.length
+               && edgeFirst.length == edgeFrom.length && edgeSecond.length == edgeFrom.length;
+    }
+
+    /**
+     * Builds the hierarchy of a graph.
+     *
+     * @param graph The graph to build the hierarchy of. Its edge weights must not be negative.
+     * @param <V>   The type of nodes.
+     * @return A hierarchy answering shortest path queries on graph.
+     * @throws IllegalArgumentException if graph has an edge with a negative or NaN weight.
+     */
+    public static <V> ContractionHierarchy<V> build(CompactGraph<V> graph) {
+        Contractor contractor = new Contractor(graph);
+        contractor.contractAll();
+        return contractor.toHierarchy(graph);
+    }
+
+    /**
+     * @return The number of shortcut edges the hierarchy added to its graph.
+     */
+    public int shortcutCount() {
+        int shortcuts = 0;
+        for (int first : edgeFirst) {
+            if (first != -1) {
+                shortcuts++;
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Returns the shortest path between two nodes of the hierarchy's graph.
+     *
+     * @param start The start node of the path.
+     * @param end   The destination of the path.
+     * @return The Path with the lowest cost connecting the two nodes, made of the graph's own
+     * edges. If there is a tie in cost, any Path with the lowest cost. Null if there's no path
+     * from start to end.
+     * @throws NoSuchElementException if start or end isn't in the graph.
+     */
+    public Path<V> shortestPath(V start, V end) {
+        return shortestPath(start, end, null);
+    }
+
+    /**
+     * Returns the shortest path between two nodes of the hierarchy's graph, as
+     * {@link #shortestPath(Object, Object)} does, adding the search's work to stats.
+     *
+     * @param start The start node of the path.
+     * @param end   The destination of the path.
+     * @param stats Where to count the search's work, or null not to count it.
+     * @return The Path with the lowest cost connecting the two nodes, made of the graph's own
+     * edges. If there is a tie in cost, any Path with the lowest cost. Null if there's no path
+     * from start to end.
+     * @throws NoSuchElementException if start or end isn't in the graph.
+     */
+    public Path<V> shortestPath(V start, V end, SearchStats stats) {
+        int source = graph.id(start);
+        int target = graph.id(end);
+        if (source == target) {
+            return new Path<>(start);
+        }
+        long began = stats == null ? 0 : System.nanoTime();
+        Workspace ws = workspaces.get();
+        Search forward = ws.forward;
+        Search backward = ws.backward;
+        try {
+            forward.reach(source, 0, -1);
+            backward.reach(target, 0, -1);
+            if (stats != null) {
+                stats.heapPushes += 2;
+                stats.queued(2);
+            }
+
+            // the cheapest path found so far goes through meet and costs best.
+            double best = Double.POSITIVE_INFINITY;
+            int meet = -1;
+            while (true) {
+                boolean forwardLeft = !forward.heap.isEmpty() && forward.heap.minKey() < best;
+                boolean backwardLeft = !backward.heap.isEmpty() && backward.heap.minKey() < best;
+                if (!forwardLeft && !backwardLeft) {
+                    break;
+                }
+                int node;
+                if (forwardLeft && (!backwardLeft || forward.heap.minKey() <= backward.heap.minKey())) {
+                    node = forward.heap.removeMin();
+                    for (int i = upOffsets[node]; i < upOffsets[node + 1]; i++) {
+                        int e = upEdges[i];
+                        if (forward.reach(edgeTo[e], forward.dist[node] + edgeWeight[e], e) && stats != null) {
+                            stats.heapPushes++;
+                        }
+                    }
+                    if (stats != null) {
+                        stats.edgesRelaxed += upOffsets[node + 1] - upOffsets[node];
+                    }
+                } else {
+                    node = backward.heap.removeMin();
+                    for (int i = downOffsets[node]; i < downOffsets[node + 1]; i++) {
+                        int e = downEdges[i];
+                        if (backward.reach(edgeFrom[e], backward.dist[node] + edgeWeight[e], e) && stats != null) {
+                            stats.heapPushes++;
+                        }
+                    }
+                    if (stats != null) {
+                        stats.edgesRelaxed += downOffsets[node + 1] - downOffsets[node];
+                    }
+                }
+                if (stats != null) {
+                    stats.nodesSettled++;
+                    stats.heapPops++;
+                    stats.queued(forward.heap.size() + backward.heap.size());
+                }
+                if (forward.dist[node] + backward.dist[node] < best) {
+                    best = forward.dist[node] + backward.dist[node];
+                    meet = node;
+                }
+            }
+
+            if (meet == -1) {
+                return null;
+            }
+            // the hierarchy edges from start up to meet, then from meet down to end.
+            Deque<Integer> edges = new ArrayDeque<>();
+            for (int node = meet; node != source; node = edgeFrom[forward.pred[node]]) {
+                edges.addFirst(forward.pred[node]);
+            }
+            for (int node = meet; node != target; node = edgeTo[backward.pred[node]]) {
+                edges.addLast(backward.pred[node]);
+            }
+            return unpack(start, edges);
+        } finally {
+            forward.reset();
+            backward.reset();
+            if (stats != null) {
+                stats.nanos += System.nanoTime() - began;
+            }
+        }
+    }
+
+    /**
+     * Returns the Path from start along the given hierarchy edges, with every shortcut replaced
+     * by the graph edges it stands for.
+     */
+    private Path<V> unpack(V start, Deque<Integer> edges) {
+        List<V> nodes = new ArrayList<>();
+        nodes.add(start);
+        double[] costs = new double[edges.size()];
+        Deque<Integer> stack = new ArrayDeque<>();
+        for (int edge : edges) {
+            stack.push(edge);
+            while (!stack.isEmpty()) {
+                int e = stack.pop();
+                if (edgeFirst[e] == -1) {
+                    if (nodes.size() > costs.length) {
+                        costs = Arrays.copyOf(costs, 2 * nodes.size());
+                    }
+                    costs[nodes.size() - 1] = edgeWeight[e];
+                    nodes.add(graph.node(edgeTo[e]));
+                } else {
+                    stack.push(edgeSecond[e]);
+                    stack.push(edgeFirst[e]);
+                }
+            }
+        }
+        return Path.of(nodes, Arrays.copyOf(costs, nodes.size() - 1));
+    }
+
+    /**
+     * Writes this hierarchy out in a binary form that {@link #read(InputStream, CompactGraph)}
+     * can load. The graph itself is not written; only its size and a fingerprint of its edges,
+     * to check it on reading.
+     *
+     * @param out The stream to write to. It is not closed.
+     * @throws IOException if writing to out fails.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(graph.nodeCount());
+        data.writeInt(graph.edgeCount());
+        data.writeLong(fingerprint(graph));
+        writeInts(data, edgeFrom);
+        writeInts(data, edgeTo);
+        data.writeInt(edgeWeight.length);
+        for (double weight : edgeWeight) {
+            data.writeDouble(weight);
+        }
+        writeInts(data, edgeFirst);
+        writeInts(data, edgeSecond);
+        writeInts(data, upOffsets);
+        writeInts(data, upEdges);
+        writeInts(data, downOffsets);
+        writeInts(data, downEdges);
+        data.flush();
+    }
+
+    /**
+     * Reads a hierarchy written by {@link #write(OutputStream)}.
+     *
+     * @param in    The stream to read from. It is not closed.
+     * @param graph The graph the hierarchy was built for, with the same node ids and edges. This is
+     *              the case for the graphs CampusDataset compiles and loads from the same files.
+     * @param <V>   The type of nodes.
+     * @return The hierarchy that was written.
+     * @throws IOException if reading fails, or the data isn't a hierarchy of a graph with these
+     *                     edges, or has edges or indices out of range.
+     */
+    public static <V> ContractionHierarchy<V> read(InputStream in, CompactGraph<V> graph) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a contraction hierarchy.");
+        }
+        if (data.readInt() != VERSION) {
+            throw new IOException("Unsupported contraction hierarchy version.");
+        }
+        if (data.readInt() != graph.nodeCount() || data.readInt() != graph.edgeCount()
+                || data.readLong() != fingerprint(graph)) {
+            throw new IOException("The contraction hierarchy was built for a different graph.");
+        }
+        int[] edgeFrom = readInts(data);
+        int[] edgeTo = readInts(data);
+        double[] edgeWeight = new double[data.readInt()];
+        for (int i = 0; i < edgeWeight.length; i++) {
+            edgeWeight[i] = data.readDouble();
+        }
+        int[] edgeFirst = readInts(data);
+        int[] edgeSecond = readInts(data);
+        int[] upOffsets = readInts(data);
+        int[] upEdges = readInts(data);
+        int[] downOffsets = readInts(data);
+        int[] downEdges = readInts(data);
+        if (edgeTo.length != edgeFrom.length || edgeWeight.length != edgeFrom.length
+                || edgeFirst.length != edgeFrom.length || edgeSecond.length != edgeFrom.length
+                || upOffsets.length != graph.nodeCount() + 1 || downOffsets.length != graph.nodeCount() + 1
+                || !edgesValid(graph.nodeCount(), edgeFrom, edgeTo, edgeWeight, edgeFirst, edgeSecond)
+                || !adjacencyValid(upOffsets, upEdges, edgeFrom) || !adjacencyValid(downOffsets, downEdges, edgeTo)) {
+            throw new IOException("The contraction hierarchy is corrupt.");
+        }
+        return new ContractionHierarchy<>(graph, edgeFrom, edgeTo, edgeWeight, edgeFirst, edgeSecond,
+                                          upOffsets, upEdges, downOffsets, downEdges);
+    }
+
+    /**
+     * Returns a hash of the offsets, targets and weights of graph's edges, so that a hierarchy
+     * isn't read for a graph of the same size whose edges differ.
+     */
+    private static long fingerprint(CompactGraph<?> graph) {
+        long hash = 17;
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            hash = 31 * hash + graph.firstEdge(node);
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                hash = 31 * hash + graph.target(edge);
+                hash = 31 * hash + Double.doubleToLongBits(graph.weight(edge));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns whether every edge joins two of the nodeCount nodes with a weight that isn't
+     * negative or NaN, and every shortcut is made of two lower-numbered edges that join its
+     * ends, so that queries and unpacking stay in bounds and end.
+     */
+    private static boolean edgesValid(int nodeCount, int[] edgeFrom, int[] edgeTo, double[] edgeWeight,
+                                      int[] edgeFirst, int[] edgeSecond) {
+        for (int e = 0; e < edgeFrom.length; e++) {
+            if (edgeFrom[e] < 0 || edgeFrom[e] >= nodeCount || edgeTo[e] < 0 || edgeTo[e] >= nodeCount
+                    || !(edgeWeight[e] >= 0)) {
+                return false;
+            }
+            int first = edgeFirst[e];
+            int second = edgeSecond[e];
+            if (first != -1 && (first < 0 || first >= e || second < 0 || second >= e
+                                || edgeFrom[first] != edgeFrom[e] || edgeTo[first] != edgeFrom[second]
+                                || edgeTo[second] != edgeTo[e])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether offsets splits edges into one run per node, in order, and every edge in
+     * node n's run is one of the edges whose end is n, by ends.
+     */
+    private static boolean adjacencyValid(int[] offsets, int[] edges, int[] ends) {
+        if (offsets[0] != 0 || offsets[offsets.length - 1] != edges.length) {
+            return false;
+        }
+        for (int node = 0; node + 1 < offsets.length; node++) {
+            if (offsets[node + 1] < offsets[node] || offsets[node + 1] > edges.length) {
+                return false;
+            }
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                if (edges[i] < 0 || edges[i] >= ends.length || ends[edges[i]] != node) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void writeInts(DataOutputStream data, int[] values) throws IOException {
+        data.writeInt(values.length);
+        for (int value : values) {
+            data.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            throw new IOException("The contraction hierarchy is corrupt.");
+        }
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = data.readInt();
+        }
+        return values;
+    }
+
+    /**
+     * The per-thread state of a query: one search in each direction.
+     */
+    private static class Workspace {
+        private final Search forward;
+        private final Search backward;
+
+        private Workspace(int nodeCount) {
+            forward = new Search(nodeCount);
+            backward = new Search(nodeCount);
+        }
+    }
+
+    /**
+     * The state of one direction of a query: the cost of each node reached, the edge that
+     * reached it, and which nodes were reached, so that only those are reset afterwards.
+     */
+    private static class Search {
+        private final double[] dist;
+        private final int[] pred;
+        private final IndexedMinHeap heap;
+        private final int[] touched;
+        private int touchedCount = 0;
+
+        private Search(int nodeCount) {
+            dist = new double[nodeCount];
+            pred = new int[nodeCount];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            heap = new IndexedMinHeap(nodeCount);
+            touched = new int[nodeCount];
+        }
+
+        /**
+         * Lowers the cost of node to cost through edge, if that is cheaper, and returns whether it did.
+         */
+        private boolean reach(int node, double cost, int edge) {
+            if (cost < dist[node]) {
+                if (dist[node] == Double.POSITIVE_INFINITY) {
+                    touched[touchedCount++] = node;
+                }
+                dist[node] = cost;
+                pred[node] = edge;
+                heap.insertOrDecrease(node, cost);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Puts every reached node back to unreached and empties the heap.
+         */
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                dist[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            while (!heap.isEmpty()) {
+                heap.removeMin();
+            }
+        }
+    }
+
+    /**
+     * The mutable state of building a hierarchy: the graph of nodes not yet contracted, with
+     * the shortcuts added so far, and every edge the hierarchy will have.
+     */
+    private static class Contractor {
+        private final int nodeCount;
+
+        // every edge so far, graph edges first. Shortcuts have the two edges they stand for.
+        private int[] edgeFrom = new int[16];
+        private int[] edgeTo = new int[16];
+        private double[] edgeWeight = new double[16];
+        private int[] edgeFirst = new int[16];
+        private int[] edgeSecond = new int[16];
+        private int edgeCount = 0;
+
+        // the cheapest remaining edge from each node to each uncontracted neighbor, and into it.
+        private final List<Map<Integer, Integer>> out;
+        private final List<Map<Integer, Integer>> in;
+
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+
+        // the edges each node's query searches follow, recorded as the node is contracted.
+        private final int[][] up;
+        private final int[][] down;
+
+        // reusable witness search state.
+        private final double[] witnessDist;
+        private final int[] witnessTouched;
+        private int witnessTouchedCount = 0;
+        private final IndexedMinHeap witnessHeap;
+
+        private Contractor(CompactGraph<?> graph) {
+            nodeCount = graph.nodeCount();
+            out = new ArrayList<>(nodeCount);
+            in = new ArrayList<>(nodeCount);
+            for (int node = 0; node < nodeCount; node++) {
+                out.add(new HashMap<>());
+                in.add(new HashMap<>());
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+                    double weight = graph.weight(e);
+                    if (!(weight >= 0)) {
+                        throw new IllegalArgumentException("Edge weights cannot be negative or NaN.");
+                    }
+                    if (graph.target(e) != node) {
+                        addEdge(node, graph.target(e), weight, -1, -1);
+                    }
+                }
+            }
+            contracted = new boolean[nodeCount];
+            contractedNeighbors = new int[nodeCount];
+            up = new int[nodeCount][];
+            down = new int[nodeCount][];
+            witnessDist = new double[nodeCount];
+            Arrays.fill(witnessDist, Double.POSITIVE_INFINITY);
+            witnessTouched = new int[nodeCount];
+            witnessHeap = new IndexedMinHeap(nodeCount);
+        }
+
+        /**
+         * Adds an edge from one uncontracted node to another, unless there already is one at
+         * most as cheap.
+         */
+        private void addEdge(int from, int to, double weight, int first, int second) {
+            Integer existing = out.get(from).get(to);
+            if (existing != null && edgeWeight[existing] <= weight) {
+                return;
+            }
+            if (edgeCount == edgeFrom.length) {
+                int capacity = 2 * edgeCount;
+                edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+                edgeTo = Arrays.copyOf(edgeTo, capacity);
+                edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+                edgeFirst = Arrays.copyOf(edgeFirst, capacity);
+                edgeSecond = Arrays.copyOf(edgeSecond, capacity);
+            }
+            edgeFrom[edgeCount] = from;
+            edgeTo[edgeCount] = to;
+            edgeWeight[edgeCount] = weight;
+            edgeFirst[edgeCount] = first;
+            edgeSecond[edgeCount] = second;
+            out.get(from).put(to, edgeCount);
+            in.get(to).put(from, edgeCount);
+            edgeCount++;
+        }
+
+        /**
+         * Contracts every node, each time picking the one whose contraction changes the graph
+         * least. Priorities are only brought up to date when a node reaches the front.
+         */
+        private void contractAll() {
+            IndexedMinHeap queue = new IndexedMinHeap(nodeCount);
+            for (int node = 0; node < nodeCount; node++) {
+                queue.insertOrDecrease(node, priority(node));
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.removeMin();
+                double priority = priority(node);
+                if (!queue.isEmpty() && priority > queue.minKey()) {
+                    queue.insertOrDecrease(node, priority);
+                    continue;
+                }
+                contract(node);
+            }
+        }
+
+        /**
+         * Returns how much contracting node would grow the graph, plus how many of its neighbors
+         * are already contracted, which spreads contraction evenly over the graph.
+         */
+        private double priority(int node) {
+            int removed = out.get(node).size() + in.get(node).size();
+            return shortcuts(node, false) - removed + contractedNeighbors[node];
+        }
+
+        /**
+         * Removes node from the graph, adding the shortcuts its neighbors need, and records its
+         * remaining edges as the ones searches follow upwards from it.
+         */
+        private void contract(int node) {
+            shortcuts(node, true);
+            up[node] = toArray(out.get(node).values());
+            down[node] = toArray(in.get(node).values());
+            for (int neighbor : out.get(node).keySet()) {
+                in.get(neighbor).remove(node);
+                contractedNeighbors[neighbor]++;
+            }
+            for (int neighbor : in.get(node).keySet()) {
+                out.get(neighbor).remove(node);
+                contractedNeighbors[neighbor]++;
+            }
+            out.get(node).clear();
+            in.get(node).clear();
+            contracted[node] = true;
+        }
+
+        /**
+         * Returns how many shortcuts contracting node needs: one from u to v for each pair of
+         * neighbors whose cheapest path without node costs more than going through it.
+         * Adds them to the graph if apply is true.
+         */
+        private int shortcuts(int node, boolean apply) {
+            double maxOut = 0;
+            for (int e : out.get(node).values()) {
+                maxOut = Math.max(maxOut, edgeWeight[e]);
+            }
+            int count = 0;
+            // copied, since adding shortcuts changes the maps of node's neighbors.
+            List<Integer> inEdges = new ArrayList<>(in.get(node).values());
+            List<Integer> outEdges = new ArrayList<>(out.get(node).values());
+            for (int inEdge : inEdges) {
+                int u = edgeFrom[inEdge];
+                witnessSearch(u, node, edgeWeight[inEdge] + maxOut);
+                for (int outEdge : outEdges) {
+                    int v = edgeTo[outEdge];
+                    double weight = edgeWeight[inEdge] + edgeWeight[outEdge];
+                    if (v == u || witnessDist[v] <= weight) {
+                        continue;
+                    }
+                    count++;
+                    if (apply) {
+                        addEdge(u, v, weight, inEdge, outEdge);
+                    }
+                }
+                clearWitnessSearch();
+            }
+            return count;
+        }
+
+        /**
+         * Finds the costs of paths from source to the uncontracted nodes that don't go through
+         * avoid, up to maxCost or WITNESS_SETTLE_LIMIT settled nodes.
+         */
+        private void witnessSearch(int source, int avoid, double maxCost) {
+            witnessDist[source] = 0;
+            witnessTouched[witnessTouchedCount++] = source;
+            witnessHeap.insertOrDecrease(source, 0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && witnessHeap.minKey() <= maxCost && settled < WITNESS_SETTLE_LIMIT) {
+                int node = witnessHeap.removeMin();
+                settled++;
+                for (Map.Entry<Integer, Integer> edge : out.get(node).entrySet()) {
+                    int child = edge.getKey();
+                    double cost = witnessDist[node] + edgeWeight[edge.getValue()];
+                    if (child != avoid && cost < witnessDist[child]) {
+                        if (witnessDist[child] == Double.POSITIVE_INFINITY) {
+                            witnessTouched[witnessTouchedCount++] = child;
+                        }
+                        witnessDist[child] = cost;
+                        witnessHeap.insertOrDecrease(child, cost);
+                    }
+                }
+            }
+            while (!witnessHeap.isEmpty()) {
+                witnessHeap.removeMin();
+            }
+        }
+
+        private void clearWitnessSearch() {
+            for (int i = 0; i < witnessTouchedCount; i++) {
+                witnessDist[witnessTouched[i]] = Double.POSITIVE_INFINITY;
+            }
+            witnessTouchedCount = 0;
+        }
+
+        private static int[] toArray(Collection<Integer> values) {
+            int[] array = new int[values.size()];
+            int i = 0;
+            for (int value : values) {
+                array[i++] = value;
+            }
+            return array;
+        }
+
+        /**
+         * Returns the hierarchy of the fully contracted graph.
+         */
+        private <V> ContractionHierarchy<V> toHierarchy(CompactGraph<V> graph) {
+            int[] upOffsets = new int[nodeCount + 1];
+            int[] downOffsets = new int[nodeCount + 1];
+            for (int node = 0; node < nodeCount; node++) {
+                upOffsets[node + 1] = upOffsets[node] + up[node].length;
+                downOffsets[node + 1] = downOffsets[node] + down[node].length;
+            }
+            int[] upEdges = new int[upOffsets[nodeCount]];
+            int[] downEdges = new int[downOffsets[nodeCount]];
+            for (int node = 0; node < nodeCount; node++) {
+                System.arraycopy(up[node], 0, upEdges, upOffsets[node], up[node].length);
+                System.arraycopy(down[node], 0, downEdges, downOffsets[node], down[node].length);
+            }
+            return new ContractionHierarchy<>(graph, Arrays.copyOf(edgeFrom, edgeCount),
+                    Arrays.copyOf(edgeTo, edgeCount), Arrays.copyOf(edgeWeight, edgeCount),
+                    Arrays.copyOf(edgeFirst, edgeCount), Arrays.copyOf(edgeSecond, edgeCount),
+                    upOffsets, upEdges, downOffsets, downEdges);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package pathfinder;
+
+import graph.CompactGraph;
+import pathfinder.datastructures.Point;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * An EuclideanHeuristic estimates the cost between two Points of a graph as their
+ * straight-line distance times a fixed scale. The scale is the lowest ratio of edge weight
+ * to edge length in the graph, so no edge is cheaper than the estimate says, which makes
+ * the heuristic consistent and A* with it exact.
+ */
+public class EuclideanHeuristic {
+
+    // AF(this) = a heuristic estimating the cost from p to q as scale * |p - q|
+    // RI: scale >= 0 && Double.isFinite(scale), or scale is NaN if the graph has no
+    //     consistent Euclidean heuristic.
+
+    /**
+     * Rounding in the distance computations can push an estimate a few ulps above the true
+     * cost, so the scale is kept this much below the lowest ratio.
+     */
+    private static final double SAFETY_MARGIN = 1 - 1e-9;
+
+    /**
+     * The cost of one unit of straight-line distance.
+     */
+    private final double scale;
+
+    private EuclideanHeuristic(double scale) {
+        this.scale = scale;
+    }
+
+    /**
+     * Creates the heuristic for the given graph, checking every edge against the
+     * straight-line distance between its ends.
+     *
+     * @param graph The graph the heuristic is for.
+     * @return A heuristic for graph. It is only usable if every edge weight is non-negative and
+     * every edge between two different points has positive weight; see {@link #isUsable()}.
+     */
+    public static EuclideanHeuristic of(CompactGraph<Point> graph) {
+        double scale = Double.POSITIVE_INFINITY;
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            Point from = graph.node(node);
+            for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+                double weight = graph.weight(e);
+                if (!(weight >= 0)) {
+                    // negative or NaN weights break A* no matter the scale.
+                    return new EuclideanHeuristic(Double.NaN);
+                }
+                double length = distance(from, graph.node(graph.target(e)));
+                if (length > 0) {
+                    scale = Math.min(scale, weight / length);
+                }
+            }
+        }
+        if (scale == Double.POSITIVE_INFINITY) {
+            // no edge has a length, so there is nothing to estimate with.
+            return new EuclideanHeuristic(Double.NaN);
+        }
+        return new EuclideanHeuristic(scale * SAFETY_MARGIN);
+    }
+
+    /**
+     * @return {@literal true} iff this heuristic is consistent for its graph and can tell nodes
+     * apart, i.e. A* with it finds shortest paths and settles fewer nodes than dijkstra.
+     */
+    public boolean isUsable() {
+        return scale > 0;
+    }
+
+    /**
+     * @return The cost this heuristic assigns to one unit of straight-line distance.
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * @param end The node searches with the returned heuristic are heading to.
+     * @return A function estimating the cost from a node to end.
+     * @throws IllegalStateException if this heuristic is not usable.
+     */
+    public ToDoubleFunction<Point> towards(Point end) {
+        if (!isUsable()) {
+            throw new IllegalStateException("The graph has no consistent Euclidean heuristic.");
+        }
+        return node -> scale * distance(node, end);
+    }
+
+    /**
+     * @return The straight-line distance between p and q.
+     */
+    private static double distance(Point p, Point q) {
+        double dx = p.getX() - q.getX();
+        double dy = p.getY() - q.getY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
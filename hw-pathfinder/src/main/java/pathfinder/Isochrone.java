@@ -0,0 +1,130 @@
+package pathfinder;
+
+import graph.CompactGraph;
+import graph.Graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An Isochrone is an immutable record of the nodes of a CompactGraph that can be reached from
+ * one node within a cost limit, as made by
+ * {@link ShortestPath#isochrone(CompactGraph, Object, double)}, along with the lowest cost to
+ * each of them.
+ *
+ * @param <V> the type of nodes.
+ */
+public class Isochrone<V> {
+
+    // AF(this) = the nodes graph.node(order[0]), ..., graph.node(order[order.length - 1]) can be
+    //            reached from graph.node(root) within limit, in order of cost, and the lowest cost
+    //            to graph.node(n) is dist[n] for each of them. No other node can be reached
+    //            within limit.
+    // RI: graph != null && dist.length == graph.nodeCount() && order[0] == root &&
+    //     dist[order[i]] <= dist[order[i + 1]] <= limit && every n not in order has dist[n] > limit.
+
+    /**
+     * The graph this isochrone is over.
+     */
+    private final CompactGraph<V> graph;
+
+    /**
+     * The id of the node every cost is from.
+     */
+    private final int root;
+
+    /**
+     * The highest cost of a reached node.
+     */
+    private final double limit;
+
+    /**
+     * The lowest cost to each reached node, and more than limit for the others.
+     */
+    private final double[] dist;
+
+    /**
+     * The ids of the reached nodes, in order of cost.
+     */
+    private final int[] order;
+
+    /**
+     * Creates an isochrone from the costs found by a search, which it takes ownership of.
+     *
+     * @param graph The graph the search was over.
+     * @param limit The highest cost of a reached node.
+     * @param dist  The lowest cost to each reached node, and more than limit for the others.
+     * @param order The ids of the reached nodes, in order of cost, starting with the root.
+     */
+    Isochrone(CompactGraph<V> graph, double limit, double[] dist, int[] order) {
+        this.graph = graph;
+        this.root = order[0];
+        this.limit = limit;
+        this.dist = dist;
+        this.order = order;
+        // checkRep not called: it would look at every node, which is what the bounded search avoids.
+    }
+
+    /**
+     * @return The node every cost is from.
+     */
+    public V getStart() {
+        return graph.node(root);
+    }
+
+    /**
+     * @return The highest cost of a reached node.
+     */
+    public double getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param node The node to look for.
+     * @return {@literal true} iff the node can be reached from the start within the limit.
+     * @throws java.util.NoSuchElementException if node isn't in the graph.
+     */
+    public boolean reaches(V node) {
+        return dist[graph.id(node)] <= limit;
+    }
+
+    /**
+     * @param node The node to look for.
+     * @return The lowest cost from the start to node, or Double.POSITIVE_INFINITY if that's
+     * more than the limit.
+     * @throws java.util.NoSuchElementException if node isn't in the graph.
+     */
+    public double costTo(V node) {
+        double cost = dist[graph.id(node)];
+        return cost <= limit ? cost : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return The nodes that can be reached from the start within the limit, in order of cost,
+     * starting with the start.
+     */
+    public List<V> nodes() {
+        List<V> nodes = new ArrayList<>(order.length);
+        for (int node : order) {
+            nodes.add(graph.node(node));
+        }
+        return nodes;
+    }
+
+    /**
+     * @return The edges that leave the reached nodes for a node beyond the limit, labelled with
+     * their weights. Part of each can be followed within the limit.
+     */
+    public List<Graph.Edge<V, Double>> boundary() {
+        List<Graph.Edge<V, Double>> boundary = new ArrayList<>();
+        for (int node : order) {
+            for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+                int child = graph.target(e);
+                if (!(dist[child] <= limit)) {
+                    boundary.add(new Graph.Edge<>(graph.node(node), graph.node(child), graph.weight(e)));
+                }
+            }
+        }
+        return boundary;
+    }
+}
@@ -71,4 +71,19 @@ public interface ModelAPI {
     // You'll need to change this return type to use the generic Path once you've
     // updated the Path ADT to be generic.
 
+    /**
+     * Finds the shortest path, by distance, from the point of the campus map nearest to the
+     * given coordinates to the provided building, such as from a position reported by a phone.
+     *
+     * @param x            The x coordinate to start from, in the map's coordinates.
+     * @param y            The y coordinate to start from, in the map's coordinates.
+     * @param endShortName The short name of the building at the end of this path.
+     * @return A path from the point of the map nearest (x, y) to {@code endBuilding}, or
+     * {@literal null} if none exists.
+     * @throws IllegalArgumentException if {@code endBuilding} is {@literal null} or not a valid
+     *                                  short name of a building in this campus map, or x or y
+     *                                  is NaN or infinite.
+     */
+    public Path<Point> findShortestPath(double x, double y, String endShortName);
+
 }
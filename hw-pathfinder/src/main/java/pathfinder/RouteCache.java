@@ -0,0 +1,209 @@
+package pathfinder;
+
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A RouteCache is a ModelAPI that remembers the most recently used shortest paths of another
+ * ModelAPI, so that popular routes are only searched for once. It holds at most a fixed
+ * number of routes, evicting the least recently used one when it is full, and is safe to
+ * use from many threads at once. Paths are immutable, so cached ones are shared between
+ * callers as they are.
+ */
+public class RouteCache implements ModelAPI {
+
+    // AF(this) = a view of model in which the shortest path between the pair of buildings
+    //            [start, end] is routes.get(List.of(start, end)) if that key exists.
+    // RI: model != null && routes != null && routes.size() <= capacity && capacity > 0 &&
+    //     no keys or values in routes are null.
+
+    /**
+     * The model routes are found with on a miss.
+     */
+    private final ModelAPI model;
+
+    /**
+     * The most routes this cache holds.
+     */
+    private final int capacity;
+
+    /**
+     * Whether a cached route from end to start may be reversed to answer a query from start to end.
+     */
+    private final boolean reuseReverse;
+
+    /**
+     * The cached routes, keyed by [start, end] short names, in least to most recently used order.
+     * Guarded by its own lock.
+     */
+    private final LinkedHashMap<List<String>, Path<Point>> routes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a new, empty cache in front of the given model.
+     *
+     * @param model        The model to find routes with when they aren't cached.
+     * @param capacity     The most routes to hold at once.
+     * @param reuseReverse Whether a cached route from B to A may be reversed to answer a query
+     *                     from A to B. This is only correct if every edge in the model's map has
+     *                     a reverse edge with the same cost, as in campus_paths.csv.
+     * @throws IllegalArgumentException if capacity is not positive.
+     */
+    public RouteCache(ModelAPI model, int capacity, boolean reuseReverse) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive.");
+        }
+        this.model = model;
+        this.capacity = capacity;
+        this.reuseReverse = reuseReverse;
+        this.routes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, Path<Point>> eldest) {
+                if (size() > RouteCache.this.capacity) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public boolean shortNameExists(String shortName) {
+        return model.shortNameExists(shortName);
+    }
+
+    @Override
+    public String longNameForShort(String shortName) {
+        return model.longNameForShort(shortName);
+    }
+
+    @Override
+    public Map<String, String> buildingNames() {
+        return model.buildingNames();
+    }
+
+    /**
+     * Unknown short names aren't cached, so a query naming one is passed on to the model, which
+     * throws for it.
+     *
+     * @throws IllegalArgumentException if startShortName or endShortName is null, or the
+     *                                  model throws it.
+     */
+    @Override
+    public Path<Point> findShortestPath(String startShortName, String endShortName) {
+        Path<Point> path = cached(startShortName, endShortName);
+        if (path != null) {
+            return path;
+        }
+        misses.incrementAndGet();
+        // Search without holding the lock, so that a slow search doesn't block hits.
+        // Two threads missing on the same route at once will both search for it.
+        path = model.findShortestPath(startShortName, endShortName);
+        if (path != null) {
+            synchronized (routes) {
+                routes.put(List.of(startShortName, endShortName), path);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Returns the shortest path between two buildings if it is cached, without searching for
+     * it if it isn't, so that callers can answer cached routes at once and only hand misses to
+     * slower machinery. A route found this way counts as a hit; one that isn't counts as nothing,
+     * since the caller is expected to go on to {@link #findShortestPath(String, String)}.
+     *
+     * @param startShortName The short name of the building at the beginning of the path.
+     * @param endShortName   The short name of the building at the end of the path.
+     * @return The cached shortest path from start to end, or {@literal null} if it isn't cached.
+     * @throws IllegalArgumentException if startShortName or endShortName is null.
+     */
+    public Path<Point> cached(String startShortName, String endShortName) {
+        if (startShortName == null || endShortName == null) {
+            throw new IllegalArgumentException("Building short names must not be null.");
+        }
+        List<String> key = List.of(startShortName, endShortName);
+        Path<Point> path;
+        synchronized (routes) {
+            path = routes.get(key);
+            if (path == null && reuseReverse) {
+                Path<Point> reverse = routes.get(List.of(endShortName, startShortName));
+                if (reverse != null) {
+                    path = reverse(reverse);
+                    routes.put(key, path);
+                }
+            }
+        }
+        if (path != null) {
+            hits.incrementAndGet();
+        }
+        return path;
+    }
+
+    /**
+     * Starting coordinates rarely repeat exactly, so these paths are not cached.
+     */
+    @Override
+    public Path<Point> findShortestPath(double x, double y, String endShortName) {
+        return model.findShortestPath(x, y, endShortName);
+    }
+
+    /**
+     * @return The number of queries answered from the cache, including reversed routes.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of queries that had to be searched for.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of routes dropped to make room for newer ones.
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return The number of routes currently cached.
+     */
+    public int size() {
+        synchronized (routes) {
+            return routes.size();
+        }
+    }
+
+    /**
+     * @return The path that follows the segments of the given path backwards.
+     */
+    private static Path<Point> reverse(Path<Point> path) {
+        List<Path<Point>.Segment> segments = new ArrayList<>();
+        for (Path<Point>.Segment segment : path) {
+            segments.add(segment);
+        }
+        List<Point> nodes = new ArrayList<>(segments.size() + 1);
+        nodes.add(path.getEnd());
+        double[] costs = new double[segments.size()];
+        for (int i = 0; i < costs.length; i++) {
+            Path<Point>.Segment segment = segments.get(costs.length - 1 - i);
+            nodes.add(segment.getStart());
+            costs[i] = segment.getCost();
+        }
+        return Path.of(nodes, costs);
+    }
+}
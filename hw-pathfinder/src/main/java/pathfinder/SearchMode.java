@@ -0,0 +1,29 @@
+package pathfinder;
+
+/**
+ * The algorithms CampusMap can find shortest paths with. They all find a path with
+ * the lowest cost, but do different amounts of work to get there.
+ */
+public enum SearchMode {
+    /** Dijkstra's algorithm, exploring outwards from the start in all directions. */
+    DIJKSTRA,
+    /**
+     * A* search with a straight-line distance heuristic, exploring towards the end.
+     * Falls back to dijkstra if the map's data doesn't allow a consistent heuristic.
+     */
+    A_STAR,
+    /** Dijkstra's algorithm from the start and backwards from the end at once, meeting in the middle. */
+    BIDIRECTIONAL,
+    /**
+     * Looks the path up in a table of shortest path trees from every building. The table is
+     * built when a CampusMap is created with this as its default mode; otherwise this mode
+     * falls back to dijkstra.
+     */
+    ROUTE_TABLE,
+    /**
+     * Searches upwards from both ends in a contraction hierarchy of the map. The hierarchy is
+     * built when a CampusMap is created with this as its default mode; otherwise this mode
+     * falls back to dijkstra.
+     */
+    CONTRACTION_HIERARCHY
+}
@@ -0,0 +1,142 @@
+package pathfinder;
+
+/**
+ * A SearchStats counts the work a shortest path search does, for comparing search algorithms
+ * on real queries. Searches take one as an optional argument, and add to its counts as they go;
+ * passing {@literal null} instead skips the counting. A SearchStats is not thread safe: give
+ * each search its own, or reset one between searches on the same thread.
+ */
+public class SearchStats {
+
+    // AF(this) = the work done by the searches given this since it was created or last reset:
+    //            nodesSettled nodes had their lowest cost found, edgesRelaxed edges were looked
+    //            at from them, heapPushes entries were added to or lowered in the searches'
+    //            queues and heapPops taken off them, staleSkipped of which were for nodes
+    //            already settled, the queues together held at most peakQueueSize entries at
+    //            once, and the searches took nanos nanoseconds in all.
+    // RI: every field >= 0
+
+    /**
+     * The number of nodes whose lowest cost was found.
+     */
+    long nodesSettled;
+
+    /**
+     * The number of edges looked at from settled nodes, whether or not they led somewhere cheaper.
+     */
+    long edgesRelaxed;
+
+    /**
+     * The number of entries added to a queue, or whose key was lowered in it.
+     */
+    long heapPushes;
+
+    /**
+     * The number of entries taken off a queue.
+     */
+    long heapPops;
+
+    /**
+     * The number of entries taken off a queue whose node was already settled.
+     */
+    long staleSkipped;
+
+    /**
+     * The most entries a search's queues held at once.
+     */
+    long peakQueueSize;
+
+    /**
+     * The time the searches took, in nanoseconds.
+     */
+    long nanos;
+
+    /**
+     * Creates stats with every count zero.
+     */
+    public SearchStats() {
+        reset();
+    }
+
+    /**
+     * @return The number of nodes whose lowest cost the searches found. A bidirectional search
+     * counts the nodes settled in either direction.
+     */
+    public long getNodesSettled() {
+        return nodesSettled;
+    }
+
+    /**
+     * @return The number of edges the searches looked at from the nodes they settled, whether
+     * or not the edges led anywhere cheaper.
+     */
+    public long getEdgesRelaxed() {
+        return edgesRelaxed;
+    }
+
+    /**
+     * @return The number of entries the searches added to their priority queues, counting a
+     * lowered key in a queue that allows that as one.
+     */
+    public long getHeapPushes() {
+        return heapPushes;
+    }
+
+    /**
+     * @return The number of entries the searches took off their priority queues.
+     */
+    public long getHeapPops() {
+        return heapPops;
+    }
+
+    /**
+     * @return The number of entries the searches took off their priority queues only to skip
+     * them, since their node was already settled. Queues that lower keys in place never have any.
+     */
+    public long getStaleSkipped() {
+        return staleSkipped;
+    }
+
+    /**
+     * @return The most entries any one search held in its priority queues at once.
+     */
+    public long getPeakQueueSize() {
+        return peakQueueSize;
+    }
+
+    /**
+     * @return The time the searches took, in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Sets every count back to zero.
+     */
+    public void reset() {
+        nodesSettled = 0;
+        edgesRelaxed = 0;
+        heapPushes = 0;
+        heapPops = 0;
+        staleSkipped = 0;
+        peakQueueSize = 0;
+        nanos = 0;
+    }
+
+    /**
+     * Notes how many entries a search's queues hold now.
+     */
+    void queued(int size) {
+        if (size > peakQueueSize) {
+            peakQueueSize = size;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "settled " + nodesSettled + " nodes, relaxed " + edgesRelaxed + " edges, "
+               + heapPushes + " pushes, " + heapPops + " pops (" + staleSkipped + " stale), "
+               + "peak queue " + peakQueueSize + ", " + String.format("%.3f ms", nanos / 1e6);
+    }
+}
@@ -1,9 +1,12 @@
 package pathfinder;
 
+import graph.CompactGraph;
 import graph.Graph;
+import pathfinder.datastructures.IndexedMinHeap;
 import pathfinder.datastructures.Path;
 
 import java.util.*;
+import java.util.function.ToDoubleFunction;
 
 public class ShortestPath {
 
@@ -20,6 +23,39 @@ public class ShortestPath {
      *          Return null if there's no path from start to end.
      */
     public static <V> Path<V> dijkstra(Graph<V, Double> graph, V start, V end) {
+        return dijkstra(graph, start, end, null);
+    }
+
+    /**
+     * Return the shortest Path between two nodes where edge labels are floating point numbers,
+     * as {@link #dijkstra(Graph, Object, Object)} does, counting the search's work.
+     * @param graph the graph where the path is looking for
+     * @param start the start node of the path
+     * @param end   the destination of the path
+     * @param stats where to count the search's work, or null not to count it
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; end != null
+     *                start and end nodes are in the graph.
+     * @spec.modifies stats
+     * @spec.effects adds the search's work to stats.
+     * @return  the Path with the lowest cost connecting the two nodes.
+     *          If there is a tie in cost, return any Path with the lowest cost.
+     *          Return null if there's no path from start to end.
+     */
+    public static <V> Path<V> dijkstra(Graph<V, Double> graph, V start, V end, SearchStats stats) {
+        if (stats == null) {
+            return search(graph, start, end, null);
+        }
+        long began = System.nanoTime();
+        Path<V> path = search(graph, start, end, stats);
+        stats.nanos += System.nanoTime() - began;
+        return path;
+    }
+
+    /**
+     * Run dijkstra from start to end on a Graph, counting its work in stats unless it is null.
+     */
+    private static <V> Path<V> search(Graph<V, Double> graph, V start, V end, SearchStats stats) {
         // The priority is the cost of the path.
         PriorityQueue<Path<V>> active = new PriorityQueue<>(new Comparator<Path<V>>() {
             @Override
@@ -29,32 +65,737 @@ public class ShortestPath {
         });
         // Add a path from the start to itself with cost of 0 initially.
         active.add(new Path<>(start));
+        if (stats != null) {
+            stats.heapPushes++;
+            stats.queued(active.size());
+        }
         // set of nodes to which the shortest path is known
         Set<V> finished = new HashSet<>();
 
         while (!active.isEmpty()) {
             Path<V> minPath = active.remove();
             V minDest = minPath.getEnd();
+            if (stats != null) {
+                stats.heapPops++;
+            }
 
             if (minDest.equals(end)) {
+                if (stats != null) {
+                    stats.nodesSettled++;
+                }
                 return minPath;
             }
             if (finished.contains(minDest)) {
+                if (stats != null) {
+                    stats.staleSkipped++;
+                }
                 continue;
             }
 
-            List<Graph.Edge<V, Double>> edgesFrom = graph.getEdgesFrom(minDest);
+            Set<Graph.Edge<V, Double>> edgesFrom = graph.getEdgesFrom(minDest);
             for (Graph.Edge<V, Double> edge : edgesFrom) {
                 V child = edge.getChild();
                 if (!finished.contains(child)) {
                     Path<V> newPath = minPath.extend(child, edge.getLabel());
                     active.add(newPath);
+                    if (stats != null) {
+                        stats.heapPushes++;
+                    }
                 }
             }
+            if (stats != null) {
+                stats.nodesSettled++;
+                stats.edgesRelaxed += edgesFrom.size();
+                stats.queued(active.size());
+            }
 
             finished.add(minDest);
         }
 
         return null;
     }
+
+    /**
+     * Return the shortest Path between two nodes of a CompactGraph. Unlike
+     * {@link #dijkstra(Graph, Object, Object)}, this works on int node ids with a primitive
+     * decrease-key heap, and only builds a Path once the end node is reached, so nothing is
+     * allocated per edge relaxation. The cost is the same as the other dijkstra's.
+     * @param graph the graph where the path is looking for
+     * @param start the start node of the path
+     * @param end   the destination of the path
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; end != null
+     *                start and end nodes are in the graph.
+     * @return  the Path with the lowest cost connecting the two nodes.
+     *          If there is a tie in cost, return any Path with the lowest cost.
+     *          Return null if there's no path from start to end.
+     */
+    public static <V> Path<V> dijkstra(CompactGraph<V> graph, V start, V end) {
+        return dijkstra(graph, start, end, null);
+    }
+
+    /**
+     * Return the shortest Path between two nodes of a CompactGraph, as
+     * {@link #dijkstra(CompactGraph, Object, Object)} does, counting the search's work.
+     * @param graph the graph where the path is looking for
+     * @param start the start node of the path
+     * @param end   the destination of the path
+     * @param stats where to count the search's work, or null not to count it
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; end != null
+     *                start and end nodes are in the graph.
+     * @spec.modifies stats
+     * @spec.effects adds the search's work to stats.
+     * @return  the Path with the lowest cost connecting the two nodes.
+     *          If there is a tie in cost, return any Path with the lowest cost.
+     *          Return null if there's no path from start to end.
+     */
+    public static <V> Path<V> dijkstra(CompactGraph<V> graph, V start, V end, SearchStats stats) {
+        return timedSearch(graph, start, end, null, stats);
+    }
+
+    /**
+     * Return the shortest Path between two nodes of a CompactGraph with A* search, which
+     * settles nodes in order of their cost plus the heuristic's estimate of the rest of the
+     * way, so it explores towards the end node instead of in all directions.
+     * @param graph     the graph where the path is looking for
+     * @param start     the start node of the path
+     * @param end       the destination of the path
+     * @param heuristic a lower bound on the cost from each node to end
+     * @param <V>       the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; end != null &amp;&amp; heuristic != null
+     *                start and end nodes are in the graph. heuristic is consistent: for every edge
+     *                (u, v), heuristic(u) &lt;= weight(u, v) + heuristic(v), and heuristic(end) == 0.
+     * @return  the Path with the lowest cost connecting the two nodes.
+     *          If there is a tie in cost, return any Path with the lowest cost.
+     *          Return null if there's no path from start to end.
+     */
+    public static <V> Path<V> aStar(CompactGraph<V> graph, V start, V end,
+                                    ToDoubleFunction<? super V> heuristic) {
+        return aStar(graph, start, end, heuristic, null);
+    }
+
+    /**
+     * Return the shortest Path between two nodes of a CompactGraph with A* search, as
+     * {@link #aStar(CompactGraph, Object, Object, ToDoubleFunction)} does, counting the
+     * search's work.
+     * @param graph     the graph where the path is looking for
+     * @param start     the start node of the path
+     * @param end       the destination of the path
+     * @param heuristic a lower bound on the cost from each node to end
+     * @param stats     where to count the search's work, or null not to count it
+     * @param <V>       the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; end != null &amp;&amp; heuristic != null
+     *                start and end nodes are in the graph. heuristic is consistent.
+     * @spec.modifies stats
+     * @spec.effects adds the search's work to stats.
+     * @return  the Path with the lowest cost connecting the two nodes.
+     *          If there is a tie in cost, return any Path with the lowest cost.
+     *          Return null if there's no path from start to end.
+     */
+    public static <V> Path<V> aStar(CompactGraph<V> graph, V start, V end,
+                                    ToDoubleFunction<? super V> heuristic, SearchStats stats) {
+        return timedSearch(graph, start, end, heuristic, stats);
+    }
+
+    /**
+     * Return the shortest Path between two nodes of a CompactGraph with bidirectional
+     * dijkstra, which searches forwards from start and backwards from end at the same time
+     * and stops once the two searches can no longer find a cheaper meeting point. For a single
+     * pair of nodes this settles about half as many nodes as dijkstra.
+     * @param graph the graph where the path is looking for
+     * @param start the start node of the path
+     * @param end   the destination of the path
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; end != null
+     *                start and end nodes are in the graph.
+     * @return  the Path with the lowest cost connecting the two nodes.
+     *          If there is a tie in cost, return any Path with the lowest cost.
+     *          Return null if there's no path from start to end.
+     */
+    public static <V> Path<V> bidirectionalDijkstra(CompactGraph<V> graph, V start, V end) {
+        return bidirectionalDijkstra(graph, start, end, null);
+    }
+
+    /**
+     * Return the shortest Path between two nodes of a CompactGraph with bidirectional
+     * dijkstra, as {@link #bidirectionalDijkstra(CompactGraph, Object, Object)} does, counting
+     * the search's work.
+     * @param graph the graph where the path is looking for
+     * @param start the start node of the path
+     * @param end   the destination of the path
+     * @param stats where to count the search's work, or null not to count it
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; end != null
+     *                start and end nodes are in the graph.
+     * @spec.modifies stats
+     * @spec.effects adds the search's work to stats.
+     * @return  the Path with the lowest cost connecting the two nodes.
+     *          If there is a tie in cost, return any Path with the lowest cost.
+     *          Return null if there's no path from start to end.
+     */
+    public static <V> Path<V> bidirectionalDijkstra(CompactGraph<V> graph, V start, V end,
+                                                    SearchStats stats) {
+        if (stats == null) {
+            return bidirectionalSearch(graph, start, end, null);
+        }
+        long began = System.nanoTime();
+        Path<V> path = bidirectionalSearch(graph, start, end, stats);
+        stats.nanos += System.nanoTime() - began;
+        return path;
+    }
+
+    /**
+     * Run bidirectional dijkstra from start to end, counting its work in stats unless it is null.
+     */
+    private static <V> Path<V> bidirectionalSearch(CompactGraph<V> graph, V start, V end,
+                                                   SearchStats stats) {
+        int source = graph.id(start);
+        int target = graph.id(end);
+        if (source == target) {
+            return new Path<>(start);
+        }
+        // the forward search's costs from start and the edge that reaches each node,
+        double[] distForward = new double[graph.nodeCount()];
+        int[] predNode = new int[graph.nodeCount()];
+        int[] predEdge = new int[graph.nodeCount()];
+        // and the backward search's costs to end and the entering edge that leaves each node.
+        double[] distBackward = new double[graph.nodeCount()];
+        int[] succNode = new int[graph.nodeCount()];
+        int[] succEdge = new int[graph.nodeCount()];
+        Arrays.fill(distForward, Double.POSITIVE_INFINITY);
+        Arrays.fill(distBackward, Double.POSITIVE_INFINITY);
+        boolean[] finishedForward = new boolean[graph.nodeCount()];
+        boolean[] finishedBackward = new boolean[graph.nodeCount()];
+
+        IndexedMinHeap forward = new IndexedMinHeap(graph.nodeCount());
+        IndexedMinHeap backward = new IndexedMinHeap(graph.nodeCount());
+        distForward[source] = 0;
+        predNode[source] = -1;
+        forward.insertOrDecrease(source, 0);
+        distBackward[target] = 0;
+        succNode[target] = -1;
+        backward.insertOrDecrease(target, 0);
+        if (stats != null) {
+            stats.heapPushes += 2;
+            stats.queued(2);
+        }
+
+        // the cheapest path found so far goes through meet and costs best.
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+
+        // Any path cheaper than best would have to leave both frontiers, so it costs
+        // at least the sum of their lowest keys.
+        while (!forward.isEmpty() && !backward.isEmpty()
+                && forward.minKey() + backward.minKey() < best) {
+            if (forward.minKey() <= backward.minKey()) {
+                int minDest = forward.removeMin();
+                finishedForward[minDest] = true;
+                for (int e = graph.firstEdge(minDest); e < graph.endEdge(minDest); e++) {
+                    int child = graph.target(e);
+                    double cost = distForward[minDest] + graph.weight(e);
+                    if (!finishedForward[child] && cost < distForward[child]) {
+                        distForward[child] = cost;
+                        predNode[child] = minDest;
+                        predEdge[child] = e;
+                        forward.insertOrDecrease(child, cost);
+                        if (stats != null) {
+                            stats.heapPushes++;
+                        }
+                    }
+                    if (cost + distBackward[child] < best) {
+                        best = cost + distBackward[child];
+                        meet = child;
+                    }
+                }
+                if (stats != null) {
+                    stats.nodesSettled++;
+                    stats.heapPops++;
+                    stats.edgesRelaxed += graph.endEdge(minDest) - graph.firstEdge(minDest);
+                    stats.queued(forward.size() + backward.size());
+                }
+            } else {
+                int minSource = backward.removeMin();
+                finishedBackward[minSource] = true;
+                for (int e = graph.firstInEdge(minSource); e < graph.endInEdge(minSource); e++) {
+                    int parent = graph.source(e);
+                    double cost = distBackward[minSource] + graph.inWeight(e);
+                    if (!finishedBackward[parent] && cost < distBackward[parent]) {
+                        distBackward[parent] = cost;
+                        succNode[parent] = minSource;
+                        succEdge[parent] = e;
+                        backward.insertOrDecrease(parent, cost);
+                        if (stats != null) {
+                            stats.heapPushes++;
+                        }
+                    }
+                    if (cost + distForward[parent] < best) {
+                        best = cost + distForward[parent];
+                        meet = parent;
+                    }
+                }
+                if (stats != null) {
+                    stats.nodesSettled++;
+                    stats.heapPops++;
+                    stats.edgesRelaxed += graph.endInEdge(minSource) - graph.firstInEdge(minSource);
+                    stats.queued(forward.size() + backward.size());
+                }
+            }
+        }
+
+        if (meet == -1) {
+            return null;
+        }
+        return buildPath(graph, start, meet, predNode, predEdge, succNode, succEdge);
+    }
+
+    /**
+     * Return the shortest paths from a node of a CompactGraph to every node it can reach,
+     * found with a single run of dijkstra.
+     * @param graph the graph where the paths are looking for
+     * @param start the start node of the paths
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; start is in the graph.
+     * @return  a tree of the Paths with the lowest cost from start. If there is a tie in cost,
+     *          the tree holds any Path with the lowest cost.
+     */
+    public static <V> ShortestPathTree<V> shortestPathTree(CompactGraph<V> graph, V start) {
+        return shortestPathTree(graph, start, null);
+    }
+
+    /**
+     * Return the shortest paths from a node of a CompactGraph to every node it can reach, as
+     * {@link #shortestPathTree(CompactGraph, Object)} does, counting the search's work.
+     * @param graph the graph where the paths are looking for
+     * @param start the start node of the paths
+     * @param stats where to count the search's work, or null not to count it
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; start is in the graph.
+     * @spec.modifies stats
+     * @spec.effects adds the search's work to stats.
+     * @return  a tree of the Paths with the lowest cost from start. If there is a tie in cost,
+     *          the tree holds any Path with the lowest cost.
+     */
+    public static <V> ShortestPathTree<V> shortestPathTree(CompactGraph<V> graph, V start, SearchStats stats) {
+        long began = began(stats);
+        int source = graph.id(start);
+        double[] dist = new double[graph.nodeCount()];
+        int[] pred = new int[graph.nodeCount()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(pred, ShortestPathTree.UNREACHED);
+        boolean[] finished = new boolean[graph.nodeCount()];
+
+        IndexedMinHeap active = new IndexedMinHeap(graph.nodeCount());
+        dist[source] = 0;
+        pred[source] = ShortestPathTree.ROOT;
+        active.insertOrDecrease(source, 0);
+        pushed(stats, active);
+
+        while (!active.isEmpty()) {
+            int minDest = active.removeMin();
+            for (int e = graph.firstEdge(minDest); e < graph.endEdge(minDest); e++) {
+                int child = graph.target(e);
+                double cost = dist[minDest] + graph.weight(e);
+                if (!finished[child] && cost < dist[child]) {
+                    dist[child] = cost;
+                    pred[child] = minDest;
+                    active.insertOrDecrease(child, cost);
+                    if (stats != null) {
+                        stats.heapPushes++;
+                    }
+                }
+            }
+            settled(stats, graph, minDest, active);
+            finished[minDest] = true;
+        }
+
+        finished(stats, began);
+        return new ShortestPathTree<>(graph, source, pred);
+    }
+
+    /**
+     * Return the costs of the shortest paths from a node of a CompactGraph to each of several
+     * others, found with a single run of dijkstra that stops once every end node is settled.
+     * @param graph the graph where the paths are looking for
+     * @param start the start node of the paths
+     * @param ends  the destinations of the paths, which may repeat
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; ends != null
+     *                start and every end node are in the graph.
+     * @return  the lowest cost from start to ends.get(i) at index i, or
+     *          Double.POSITIVE_INFINITY if there's no path to it.
+     */
+    public static <V> double[] costs(CompactGraph<V> graph, V start, List<V> ends) {
+        return costs(graph, start, ends, null);
+    }
+
+    /**
+     * Return the costs of the shortest paths from a node of a CompactGraph to each of several
+     * others, as {@link #costs(CompactGraph, Object, List)} does, counting the search's work.
+     * @param graph the graph where the paths are looking for
+     * @param start the start node of the paths
+     * @param ends  the destinations of the paths, which may repeat
+     * @param stats where to count the search's work, or null not to count it
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; ends != null
+     *                start and every end node are in the graph.
+     * @spec.modifies stats
+     * @spec.effects adds the search's work to stats.
+     * @return  the lowest cost from start to ends.get(i) at index i, or
+     *          Double.POSITIVE_INFINITY if there's no path to it.
+     */
+    public static <V> double[] costs(CompactGraph<V> graph, V start, List<V> ends, SearchStats stats) {
+        long began = began(stats);
+        int[] targets = ids(graph, ends);
+        double[] dist = new double[graph.nodeCount()];
+        settle(graph, graph.id(start), targets, dist, null, null, stats);
+        double[] costs = new double[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            costs[i] = dist[targets[i]];
+        }
+        finished(stats, began);
+        return costs;
+    }
+
+    /**
+     * Return the shortest Paths from a node of a CompactGraph to each of several others,
+     * found with a single run of dijkstra that stops once every end node is settled.
+     * @param graph the graph where the paths are looking for
+     * @param start the start node of the paths
+     * @param ends  the destinations of the paths, which may repeat
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; ends != null
+     *                start and every end node are in the graph.
+     * @return  the Path with the lowest cost from start to ends.get(i) at index i, or null if
+     *          there's no path to it. If there is a tie in cost, any Path with the lowest cost.
+     */
+    public static <V> List<Path<V>> paths(CompactGraph<V> graph, V start, List<V> ends) {
+        return paths(graph, start, ends, null);
+    }
+
+    /**
+     * Return the shortest Paths from a node of a CompactGraph to each of several others, as
+     * {@link #paths(CompactGraph, Object, List)} does, counting the search's work.
+     * @param graph the graph where the paths are looking for
+     * @param start the start node of the paths
+     * @param ends  the destinations of the paths, which may repeat
+     * @param stats where to count the search's work, or null not to count it
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; ends != null
+     *                start and every end node are in the graph.
+     * @spec.modifies stats
+     * @spec.effects adds the search's work to stats.
+     * @return  the Path with the lowest cost from start to ends.get(i) at index i, or null if
+     *          there's no path to it. If there is a tie in cost, any Path with the lowest cost.
+     */
+    public static <V> List<Path<V>> paths(CompactGraph<V> graph, V start, List<V> ends, SearchStats stats) {
+        long began = began(stats);
+        int[] targets = ids(graph, ends);
+        double[] dist = new double[graph.nodeCount()];
+        int[] predNode = new int[graph.nodeCount()];
+        int[] predEdge = new int[graph.nodeCount()];
+        settle(graph, graph.id(start), targets, dist, predNode, predEdge, stats);
+        List<Path<V>> paths = new ArrayList<>(targets.length);
+        for (int target : targets) {
+            paths.add(dist[target] == Double.POSITIVE_INFINITY
+                      ? null : buildPath(graph, start, target, predNode, predEdge));
+        }
+        finished(stats, began);
+        return paths;
+    }
+
+    /**
+     * Return every node of a CompactGraph that can be reached from a node within a cost limit,
+     * found with a single run of dijkstra that stops at the limit, so it only settles the nodes
+     * it returns.
+     * @param graph the graph where the paths are looking for
+     * @param start the start node of the paths
+     * @param limit the highest cost of a node to reach
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; start is in the graph.
+     *                limit &gt;= 0.
+     * @return  the nodes within limit of start and the lowest cost to each.
+     */
+    public static <V> Isochrone<V> isochrone(CompactGraph<V> graph, V start, double limit) {
+        return isochrone(graph, start, limit, null);
+    }
+
+    /**
+     * Return every node of a CompactGraph that can be reached from a node within a cost limit,
+     * as {@link #isochrone(CompactGraph, Object, double)} does, counting the search's work.
+     * @param graph the graph where the paths are looking for
+     * @param start the start node of the paths
+     * @param limit the highest cost of a node to reach
+     * @param stats where to count the search's work, or null not to count it
+     * @param <V>   the type of nodes
+     * @spec.requires graph != null &amp;&amp; start != null &amp;&amp; start is in the graph.
+     *                limit &gt;= 0.
+     * @spec.modifies stats
+     * @spec.effects adds the search's work to stats.
+     * @return  the nodes within limit of start and the lowest cost to each.
+     */
+    public static <V> Isochrone<V> isochrone(CompactGraph<V> graph, V start, double limit, SearchStats stats) {
+        long began = began(stats);
+        int source = graph.id(start);
+        double[] dist = new double[graph.nodeCount()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        int[] order = new int[graph.nodeCount()];
+        int settled = 0;
+
+        // Nodes are only put in the heap within the limit, so everything in it gets settled.
+        IndexedMinHeap active = new IndexedMinHeap(graph.nodeCount());
+        dist[source] = 0;
+        active.insertOrDecrease(source, 0);
+        pushed(stats, active);
+
+        while (!active.isEmpty()) {
+            int minDest = active.removeMin();
+            order[settled++] = minDest;
+            for (int e = graph.firstEdge(minDest); e < graph.endEdge(minDest); e++) {
+                int child = graph.target(e);
+                double cost = dist[minDest] + graph.weight(e);
+                // settled nodes already have a cost no higher than this.
+                if (cost <= limit && cost < dist[child]) {
+                    dist[child] = cost;
+                    active.insertOrDecrease(child, cost);
+                    if (stats != null) {
+                        stats.heapPushes++;
+                    }
+                }
+            }
+            settled(stats, graph, minDest, active);
+        }
+
+        finished(stats, began);
+        return new Isochrone<>(graph, limit, dist, Arrays.copyOf(order, settled));
+    }
+
+    /**
+     * Return the id of each node in the list.
+     */
+    private static <V> int[] ids(CompactGraph<V> graph, List<V> nodes) {
+        int[] ids = new int[nodes.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = graph.id(nodes.get(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Run dijkstra from source until every target is settled, leaving the lowest cost to each
+     * settled node in dist, and Double.POSITIVE_INFINITY for the targets it can't reach. If
+     * predNode and predEdge aren't null, they get the edge that reaches each settled node.
+     * Counts its work in stats unless it is null.
+     */
+    private static <V> void settle(CompactGraph<V> graph, int source, int[] targets,
+                                   double[] dist, int[] predNode, int[] predEdge, SearchStats stats) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        boolean[] finished = new boolean[graph.nodeCount()];
+        // the targets not settled yet, counting repeats once.
+        boolean[] wanted = new boolean[graph.nodeCount()];
+        int remaining = 0;
+        for (int target : targets) {
+            if (!wanted[target]) {
+                wanted[target] = true;
+                remaining++;
+            }
+        }
+
+        IndexedMinHeap active = new IndexedMinHeap(graph.nodeCount());
+        dist[source] = 0;
+        if (predNode != null) {
+            predNode[source] = -1;
+        }
+        active.insertOrDecrease(source, 0);
+        pushed(stats, active);
+
+        while (remaining > 0 && !active.isEmpty()) {
+            int minDest = active.removeMin();
+            finished[minDest] = true;
+            if (wanted[minDest] && --remaining == 0) {
+                if (stats != null) {
+                    stats.nodesSettled++;
+                    stats.heapPops++;
+                }
+                return;
+            }
+            for (int e = graph.firstEdge(minDest); e < graph.endEdge(minDest); e++) {
+                int child = graph.target(e);
+                double cost = dist[minDest] + graph.weight(e);
+                if (!finished[child] && cost < dist[child]) {
+                    dist[child] = cost;
+                    if (predNode != null) {
+                        predNode[child] = minDest;
+                        predEdge[child] = e;
+                    }
+                    active.insertOrDecrease(child, cost);
+                    if (stats != null) {
+                        stats.heapPushes++;
+                    }
+                }
+            }
+            settled(stats, graph, minDest, active);
+        }
+    }
+
+    /**
+     * Return System.nanoTime(), to time a search with, unless stats is null.
+     */
+    private static long began(SearchStats stats) {
+        return stats == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Add the time since a search began to stats, unless it is null.
+     */
+    private static void finished(SearchStats stats, long began) {
+        if (stats != null) {
+            stats.nanos += System.nanoTime() - began;
+        }
+    }
+
+    /**
+     * Count a search's first entry, unless stats is null.
+     */
+    private static void pushed(SearchStats stats, IndexedMinHeap active) {
+        if (stats != null) {
+            stats.heapPushes++;
+            stats.queued(active.size());
+        }
+    }
+
+    /**
+     * Count node's being taken off the queue and settled, and its edges looked at, unless
+     * stats is null.
+     */
+    private static <V> void settled(SearchStats stats, CompactGraph<V> graph, int node, IndexedMinHeap active) {
+        if (stats != null) {
+            stats.nodesSettled++;
+            stats.heapPops++;
+            stats.edgesRelaxed += graph.endEdge(node) - graph.firstEdge(node);
+            stats.queued(active.size());
+        }
+    }
+
+    /**
+     * Run A* from start to end, or dijkstra if heuristic is null, counting its work and the
+     * time it takes in stats unless it is null.
+     */
+    private static <V> Path<V> timedSearch(CompactGraph<V> graph, V start, V end,
+                                           ToDoubleFunction<? super V> heuristic, SearchStats stats) {
+        if (stats == null) {
+            return search(graph, start, end, heuristic, null);
+        }
+        long began = System.nanoTime();
+        Path<V> path = search(graph, start, end, heuristic, stats);
+        stats.nanos += System.nanoTime() - began;
+        return path;
+    }
+
+    /**
+     * Run A* from start to end, or dijkstra if heuristic is null, counting its work in stats
+     * unless it is null.
+     */
+    private static <V> Path<V> search(CompactGraph<V> graph, V start, V end,
+                                      ToDoubleFunction<? super V> heuristic, SearchStats stats) {
+        int source = graph.id(start);
+        int target = graph.id(end);
+        // the lowest known cost to each node, and the edge that reaches it with that cost.
+        double[] dist = new double[graph.nodeCount()];
+        int[] predNode = new int[graph.nodeCount()];
+        int[] predEdge = new int[graph.nodeCount()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        boolean[] finished = new boolean[graph.nodeCount()];
+        // the heuristic of each node, computed the first time the node is reached.
+        double[] estimate = heuristic == null ? null : new double[graph.nodeCount()];
+
+        // The priority is the cost of the path plus the estimate, and each node is in the heap at most once.
+        IndexedMinHeap active = new IndexedMinHeap(graph.nodeCount());
+        dist[source] = 0;
+        predNode[source] = -1;
+        active.insertOrDecrease(source, 0);
+        if (stats != null) {
+            stats.heapPushes++;
+            stats.queued(1);
+        }
+
+        while (!active.isEmpty()) {
+            int minDest = active.removeMin();
+            if (stats != null) {
+                stats.nodesSettled++;
+                stats.heapPops++;
+            }
+
+            if (minDest == target) {
+                return buildPath(graph, start, target, predNode, predEdge);
+            }
+
+            for (int e = graph.firstEdge(minDest); e < graph.endEdge(minDest); e++) {
+                int child = graph.target(e);
+                double cost = dist[minDest] + graph.weight(e);
+                if (!finished[child] && cost < dist[child]) {
+                    if (estimate != null && dist[child] == Double.POSITIVE_INFINITY) {
+                        estimate[child] = heuristic.applyAsDouble(graph.node(child));
+                    }
+                    dist[child] = cost;
+                    predNode[child] = minDest;
+                    predEdge[child] = e;
+                    active.insertOrDecrease(child, estimate == null ? cost : cost + estimate[child]);
+                    if (stats != null) {
+                        stats.heapPushes++;
+                    }
+                }
+            }
+            if (stats != null) {
+                stats.edgesRelaxed += graph.endEdge(minDest) - graph.firstEdge(minDest);
+                stats.queued(active.size());
+            }
+
+            finished[minDest] = true;
+        }
+
+        return null;
+    }
+
+    /**
+     * Return the Path from start to target that follows the predecessor edges back from target.
+     */
+    private static <V> Path<V> buildPath(CompactGraph<V> graph, V start, int target,
+                                         int[] predNode, int[] predEdge) {
+        return buildPath(graph, start, target, predNode, predEdge, null, null);
+    }
+
+    /**
+     * Return the Path from start to meet that follows the predecessor edges back from meet, then
+     * goes on along the successor edges from meet to the end of them if succNode isn't null.
+     * Successor edges are incoming edges of the graph, so their weights are inWeights.
+     */
+    private static <V> Path<V> buildPath(CompactGraph<V> graph, V start, int meet,
+                                         int[] predNode, int[] predEdge, int[] succNode, int[] succEdge) {
+        int before = 0;
+        for (int node = meet; predNode[node] != -1; node = predNode[node]) {
+            before++;
+        }
+        int after = 0;
+        for (int node = meet; succNode != null && succNode[node] != -1; node = succNode[node]) {
+            after++;
+        }
+
+        List<V> nodes = new ArrayList<>(Collections.nCopies(before + after + 1, start));
+        double[] costs = new double[before + after];
+        int i = before;
+        for (int node = meet; predNode[node] != -1; node = predNode[node]) {
+            nodes.set(i, graph.node(node));
+            i--;
+            costs[i] = graph.weight(predEdge[node]);
+        }
+        i = before;
+        for (int node = meet; succNode != null && succNode[node] != -1; node = succNode[node]) {
+            costs[i] = graph.inWeight(succEdge[node]);
+            i++;
+            nodes.set(i, graph.node(succNode[node]));
+        }
+        return Path.of(nodes, costs);
+    }
 }
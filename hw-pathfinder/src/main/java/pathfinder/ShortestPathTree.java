@@ -0,0 +1,121 @@
+package pathfinder;
+
+import graph.CompactGraph;
+import pathfinder.datastructures.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A ShortestPathTree is an immutable record of the shortest paths from one node of a
+ * CompactGraph to every node it can reach, as made by
+ * {@link ShortestPath#shortestPathTree(CompactGraph, Object)}.
+ * It stores one int per node, and builds each Path on request.
+ *
+ * @param <V> the type of nodes.
+ */
+public class ShortestPathTree<V> {
+
+    // AF(this) = the shortest path from graph.node(root) to graph.node(n) is the shortest path
+    //            to graph.node(pred[n]) followed by the cheapest edge from pred[n] to n,
+    //            for every n with pred[n] >= 0. The path from the root to itself is empty,
+    //            and nodes with pred[n] == UNREACHED cannot be reached from the root.
+    // RI: graph != null && pred != null && pred.length == graph.nodeCount() &&
+    //     pred[root] == ROOT && following pred from any reached node ends at root.
+
+    /**
+     * The pred of the root.
+     */
+    static final int ROOT = -1;
+
+    /**
+     * The pred of a node the root cannot reach.
+     */
+    static final int UNREACHED = -2;
+
+    /**
+     * The graph this tree spans.
+     */
+    private final CompactGraph<V> graph;
+
+    /**
+     * The id of the node every path starts at.
+     */
+    private final int root;
+
+    /**
+     * The id of the node before each node on its shortest path.
+     */
+    private final int[] pred;
+
+    /**
+     * Creates a tree from the predecessor of each node, which it takes ownership of.
+     *
+     * @param graph The graph this tree spans.
+     * @param root  The id of the node every path starts at.
+     * @param pred  The id of the node before each node on its shortest path, ROOT for the
+     *              root, and UNREACHED for nodes the root cannot reach.
+     */
+    ShortestPathTree(CompactGraph<V> graph, int root, int[] pred) {
+        this.graph = graph;
+        this.root = root;
+        this.pred = pred;
+        // checkRep not called: following every node back to the root would make this quadratic.
+    }
+
+    /**
+     * @return The node every path in this tree starts at.
+     */
+    public V getStart() {
+        return graph.node(root);
+    }
+
+    /**
+     * @param end The node to look for.
+     * @return {@literal true} iff there is a path from the start to end.
+     * @throws java.util.NoSuchElementException if end isn't in the graph.
+     */
+    public boolean reaches(V end) {
+        return pred[graph.id(end)] != UNREACHED;
+    }
+
+    /**
+     * @param end The destination of the path.
+     * @return The Path with the lowest cost from the start to end, or {@literal null} if there
+     * is none. Its cost is the same as {@link ShortestPath#dijkstra(CompactGraph, Object, Object)}'s.
+     * @throws java.util.NoSuchElementException if end isn't in the graph.
+     */
+    public Path<V> pathTo(V end) {
+        int target = graph.id(end);
+        if (pred[target] == UNREACHED) {
+            return null;
+        }
+        int length = 0;
+        for (int node = target; node != root; node = pred[node]) {
+            length++;
+        }
+        List<V> nodes = new ArrayList<>(Collections.nCopies(length + 1, graph.node(root)));
+        double[] costs = new double[length];
+        for (int node = target; node != root; node = pred[node]) {
+            nodes.set(length, graph.node(node));
+            length--;
+            costs[length] = cheapestWeight(pred[node], node);
+        }
+        return Path.of(nodes, costs);
+    }
+
+    /**
+     * @return The lowest weight of the edges from one node to another, which is the one
+     * a shortest path uses.
+     */
+    private double cheapestWeight(int from, int to) {
+        double cheapest = Double.POSITIVE_INFINITY;
+        for (int e = graph.firstEdge(from); e < graph.endEdge(from); e++) {
+            if (graph.target(e) == to) {
+                cheapest = Math.min(cheapest, graph.weight(e));
+            }
+        }
+        return cheapest;
+    }
+}
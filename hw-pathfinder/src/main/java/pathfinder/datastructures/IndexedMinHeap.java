@@ -0,0 +1,182 @@
+package pathfinder.datastructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents a mutable binary min-heap of int ids 0 to capacity - 1, each with a double key.
+ * The key of an id in the heap can be lowered in place, so an id is never in the heap twice,
+ * and no objects are allocated after construction.
+ */
+public class IndexedMinHeap {
+
+    // AF(this) =
+    //      the ids in the heap => heap[0..size - 1]
+    //      the key of an id i in the heap => keys[i]
+    //      the id with the lowest key => heap[0]
+
+    // Rep Invariant:
+    //      0 <= size <= heap.length &&
+    //      heap.length == positions.length == keys.length &&
+    //      positions[heap[i]] == i for all 0 <= i < size, and positions[id] == -1 for any other id &&
+    //      keys[heap[(i - 1) / 2]] <= keys[heap[i]] for all 0 < i < size
+
+    /**
+     * The ids in the heap, in heap order.
+     */
+    private final int[] heap;
+
+    /**
+     * The index of each id in heap, or -1 if it isn't in the heap.
+     */
+    private final int[] positions;
+
+    /**
+     * The key of each id in the heap.
+     */
+    private final double[] keys;
+
+    /**
+     * The number of ids in the heap.
+     */
+    private int size;
+
+    /**
+     * Creates a new, empty heap that can hold the ids 0 to capacity - 1.
+     *
+     * @param capacity The number of ids the heap can hold.
+     * @throws IllegalArgumentException if capacity is negative.
+     */
+    public IndexedMinHeap(int capacity) {
+        if(capacity < 0) {
+            throw new IllegalArgumentException("capacity cannot be negative.");
+        }
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(positions, -1);
+        this.size = 0;
+        // checkRep not called: walking the whole heap would make every operation linear.
+    }
+
+    /**
+     * @return {@literal true} iff there are no ids in the heap.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of ids in the heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param id The id to look for.
+     * @return {@literal true} iff the id is in the heap.
+     */
+    public boolean contains(int id) {
+        return positions[id] != -1;
+    }
+
+    /**
+     * Adds the id to the heap with the given key, or lowers its key if it is already in the heap
+     * with a higher one.
+     *
+     * @param id  The id to add, between 0 and capacity - 1.
+     * @param key The key of the id.
+     * @return {@literal true} iff the heap changed.
+     */
+    public boolean insertOrDecrease(int id, double key) {
+        int position = positions[id];
+        if(position == -1) {
+            position = size;
+            size++;
+            heap[position] = id;
+            positions[id] = position;
+        } else if(Double.compare(key, keys[id]) >= 0) {
+            return false;
+        }
+        keys[id] = key;
+        siftUp(position);
+        return true;
+    }
+
+    /**
+     * @return The lowest key of any id in the heap.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public double minKey() {
+        if(size == 0) {
+            throw new NoSuchElementException("The heap is empty.");
+        }
+        return keys[heap[0]];
+    }
+
+    /**
+     * Removes the id with the lowest key from the heap. Ties are broken arbitrarily.
+     *
+     * @return The id with the lowest key.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public int removeMin() {
+        if(size == 0) {
+            throw new NoSuchElementException("The heap is empty.");
+        }
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if(size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Moves the id at the given position up until its parent's key is no higher.
+     */
+    private void siftUp(int position) {
+        int id = heap[position];
+        double key = keys[id];
+        while(position > 0) {
+            int parent = (position - 1) >>> 1;
+            if(keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    /**
+     * Moves the id at the given position down until neither child has a lower key.
+     */
+    private void siftDown(int position) {
+        int id = heap[position];
+        double key = keys[id];
+        while(true) {
+            int child = 2 * position + 1;
+            if(child >= size) {
+                break;
+            }
+            if(child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if(key <= keys[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+}
@@ -0,0 +1,283 @@
+package pathfinder.datastructures;
+
+import java.util.List;
+
+/**
+ * Represents an immutable 2-d tree over a list of points, answering which of them are nearest
+ * to any location by straight-line distance. Points are identified by their index in the list
+ * the tree was built from. Queries take O(log n) time on typical data, and the tree takes
+ * O(n log n) time to build, with no objects per point.
+ */
+public class KdTree {
+
+    // AF(this) =
+    //      the point with id i => (xs[i], ys[i])
+    //      the tree over order[lo..hi - 1] at depth d => the node order[mid], where
+    //          mid = (lo + hi) / 2, splitting on x if d is even and y otherwise, with the
+    //          subtrees order[lo..mid - 1] and order[mid + 1..hi - 1]; the whole tree is
+    //          order[0..order.length - 1] at depth 0.
+
+    // Rep Invariant:
+    //      xs.length == ys.length == order.length && order is a permutation of 0..order.length - 1 &&
+    //      in the tree over order[lo..hi - 1] at depth d, every id in the left subtree has a
+    //      split coordinate <= the node's, and every id in the right subtree has one >= the node's
+
+    /**
+     * The x coordinate of each point.
+     */
+    private final double[] xs;
+
+    /**
+     * The y coordinate of each point.
+     */
+    private final double[] ys;
+
+    /**
+     * The point ids in tree order.
+     */
+    private final int[] order;
+
+    /**
+     * Builds a tree over the given points.
+     *
+     * @param points The points to index. Point i of the list has id i.
+     */
+    public KdTree(List<Point> points) {
+        int n = points.size();
+        this.xs = new double[n];
+        this.ys = new double[n];
+        this.order = new int[n];
+        for(int i = 0; i < n; i++) {
+            xs[i] = points.get(i).getX();
+            ys[i] = points.get(i).getY();
+            order[i] = i;
+        }
+        build(0, n, 0);
+        // checkRep not called: checking every subtree would take quadratic time.
+    }
+
+    /**
+     * @return The number of points in the tree.
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Finds the point nearest to a location.
+     *
+     * @param x The x coordinate of the location.
+     * @param y The y coordinate of the location.
+     * @return The id of the point nearest to (x, y), or -1 if the tree is empty. If there is a
+     * tie, any of the nearest points.
+     */
+    public int nearest(double x, double y) {
+        int[] nearest = nearest(x, y, 1);
+        return nearest.length == 0 ? -1 : nearest[0];
+    }
+
+    /**
+     * Finds the k points nearest to a location.
+     *
+     * @param x The x coordinate of the location.
+     * @param y The y coordinate of the location.
+     * @param k The number of points to find.
+     * @return The ids of the min(k, size()) points nearest to (x, y), nearest first.
+     * @throws IllegalArgumentException if k is negative.
+     */
+    public int[] nearest(double x, double y, int k) {
+        if(k < 0) {
+            throw new IllegalArgumentException("k cannot be negative.");
+        }
+        Neighbors neighbors = new Neighbors(Math.min(k, order.length));
+        if(neighbors.capacity > 0) {
+            search(0, order.length, 0, x, y, neighbors);
+        }
+        return neighbors.sorted();
+    }
+
+    /**
+     * Arranges order[lo..hi - 1] into a tree at the given depth.
+     */
+    private void build(int lo, int hi, int depth) {
+        while(hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi, mid, depth % 2 == 0 ? xs : ys);
+            build(mid + 1, hi, depth + 1);
+            // the left half is arranged by looping, to keep the recursion shallow on one side.
+            hi = mid;
+            depth++;
+        }
+    }
+
+    /**
+     * Reorders order[lo..hi - 1] so that order[k] has the coordinate it would have if sorted
+     * by coordinate, with no larger coordinates before it and no smaller ones after it.
+     */
+    private void select(int lo, int hi, int k, double[] coordinate) {
+        hi--;
+        while(hi > lo) {
+            // median of three pivot, so sorted input doesn't make the selection quadratic.
+            int middle = (lo + hi) >>> 1;
+            if(coordinate[order[middle]] < coordinate[order[lo]]) {
+                swap(middle, lo);
+            }
+            if(coordinate[order[hi]] < coordinate[order[lo]]) {
+                swap(hi, lo);
+            }
+            if(coordinate[order[hi]] < coordinate[order[middle]]) {
+                swap(hi, middle);
+            }
+            double pivot = coordinate[order[middle]];
+            int i = lo;
+            int j = hi;
+            while(i <= j) {
+                while(coordinate[order[i]] < pivot) {
+                    i++;
+                }
+                while(coordinate[order[j]] > pivot) {
+                    j--;
+                }
+                if(i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if(k <= j) {
+                hi = j;
+            } else if(k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int id = order[i];
+        order[i] = order[j];
+        order[j] = id;
+    }
+
+    /**
+     * Offers every point of the tree over order[lo..hi - 1] at the given depth that could be
+     * nearer to (x, y) than the neighbors found so far.
+     */
+    private void search(int lo, int hi, int depth, double x, double y, Neighbors neighbors) {
+        if(lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int id = order[mid];
+        double dx = x - xs[id];
+        double dy = y - ys[id];
+        neighbors.offer(id, dx * dx + dy * dy);
+        double diff = depth % 2 == 0 ? dx : dy;
+        // the side of the split the location is on first, then the other side if it is close enough.
+        if(diff < 0) {
+            search(lo, mid, depth + 1, x, y, neighbors);
+            if(diff * diff < neighbors.bound()) {
+                search(mid + 1, hi, depth + 1, x, y, neighbors);
+            }
+        } else {
+            search(mid + 1, hi, depth + 1, x, y, neighbors);
+            if(diff * diff < neighbors.bound()) {
+                search(lo, mid, depth + 1, x, y, neighbors);
+            }
+        }
+    }
+
+    /**
+     * The nearest points found so far in a query, at most capacity of them, kept in a binary
+     * max-heap on squared distance so the farthest one can be replaced.
+     */
+    private static class Neighbors {
+        private final int capacity;
+        private final int[] ids;
+        private final double[] distances;
+        private int size = 0;
+
+        private Neighbors(int capacity) {
+            this.capacity = capacity;
+            this.ids = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        /**
+         * @return The squared distance a point must be under to be kept.
+         */
+        private double bound() {
+            return size < capacity ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        /**
+         * Keeps the point if it is among the capacity nearest so far.
+         */
+        private void offer(int id, double distance) {
+            if(size < capacity) {
+                int i = size++;
+                while(i > 0 && distances[(i - 1) >>> 1] < distance) {
+                    ids[i] = ids[(i - 1) >>> 1];
+                    distances[i] = distances[(i - 1) >>> 1];
+                    i = (i - 1) >>> 1;
+                }
+                ids[i] = id;
+                distances[i] = distance;
+            } else if(distance < distances[0]) {
+                int i = 0;
+                while(true) {
+                    int child = 2 * i + 1;
+                    if(child >= size) {
+                        break;
+                    }
+                    if(child + 1 < size && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if(distances[child] <= distance) {
+                        break;
+                    }
+                    ids[i] = ids[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                ids[i] = id;
+                distances[i] = distance;
+            }
+        }
+
+        /**
+         * Empties the heap, farthest first.
+         *
+         * @return The ids kept, nearest first.
+         */
+        private int[] sorted() {
+            int[] sorted = new int[size];
+            while(size > 0) {
+                sorted[size - 1] = ids[0];
+                size--;
+                int lastId = ids[size];
+                double lastDistance = distances[size];
+                int i = 0;
+                while(true) {
+                    int child = 2 * i + 1;
+                    if(child >= size) {
+                        break;
+                    }
+                    if(child + 1 < size && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if(distances[child] <= lastDistance) {
+                        break;
+                    }
+                    ids[i] = ids[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                ids[i] = lastId;
+                distances[i] = lastDistance;
+            }
+            return sorted;
+        }
+    }
+}
@@ -66,6 +66,33 @@ public class Path<V> implements Iterable<Path<V>.Segment> {
         checkRep();
     }
 
+    /**
+     * Creates the path that starts at {@code nodes.get(0)} and visits the rest of the nodes in
+     * order, where the segment ending at {@code nodes.get(i + 1)} costs {@code costs[i]}. It is
+     * the same path as extending {@code new Path<>(nodes.get(0))} by each node and cost in turn,
+     * but takes time linear in its length instead of quadratic.
+     *
+     * @param nodes The nodes along the path, from its start to its end.
+     * @param costs The cost of each segment of the path, in order.
+     * @param <V>   The type of nodes in the path.
+     * @return The path through the given nodes with the given segment costs.
+     * @throws IllegalArgumentException if nodes is empty or {@code costs.length != nodes.size() - 1},
+     *                                  or a cost is infinite or NaN.
+     * @throws NullPointerException     if a segment would start or end at a null node.
+     */
+    public static <V> Path<V> of(List<V> nodes, double[] costs) {
+        if (nodes.isEmpty() || costs.length != nodes.size() - 1) {
+            throw new IllegalArgumentException("A path needs one more node than it has costs.");
+        }
+        Path<V> built = new Path<>(nodes.get(0));
+        for (int i = 0; i < costs.length; i++) {
+            built.path.add(built.new Segment(nodes.get(i), nodes.get(i + 1), costs[i]));
+            built.cost += costs[i];
+        }
+        built.checkRep();
+        return built;
+    }
+
     /**
      * Appends a new single segment to the end of this path, originating at the current last node
      * in this path and terminating at {@code newEnd}. The cost of adding this additional segment
@@ -0,0 +1,221 @@
+package pathfinder.datastructures;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents a mutable dictionary of distinct points, numbered 0 to size() - 1 in the order
+ * they were added. Points are looked up by their coordinates, so no Point is created for a
+ * lookup, and each distinct point is created once and shared. Two coordinates are the same
+ * point exactly when {@link Point#equals(Object)} says so.
+ */
+public class PointDictionary {
+
+    // AF(this) =
+    //      the point with id i => points[i], at (xs[i], ys[i]), for 0 <= i < size
+
+    // Rep Invariant:
+    //      0 <= size <= points.length == xs.length == ys.length &&
+    //      table.length is a power of two && size <= table.length * 3 / 4 &&
+    //      every id 0 <= i < size is in exactly one slot of table, reached by probing from
+    //      slot(xs[i], ys[i]), and every other slot is -1 &&
+    //      no two ids have the same coordinates
+
+    /**
+     * The slots of the open addressing hash table, each an id or -1 if empty.
+     */
+    private int[] table;
+
+    /**
+     * The x coordinate of each id.
+     */
+    private double[] xs;
+
+    /**
+     * The y coordinate of each id.
+     */
+    private double[] ys;
+
+    /**
+     * The point with each id.
+     */
+    private Point[] points;
+
+    /**
+     * The number of points in the dictionary.
+     */
+    private int size;
+
+    /**
+     * Creates a new, empty dictionary.
+     */
+    public PointDictionary() {
+        this(16);
+    }
+
+    /**
+     * Creates a new, empty dictionary with room for the given number of points before it grows.
+     *
+     * @param expectedSize The number of points expected.
+     * @throws IllegalArgumentException if expectedSize is negative.
+     */
+    public PointDictionary(int expectedSize) {
+        if(expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize cannot be negative.");
+        }
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, expectedSize * 4 / 3)) << 1);
+        this.table = new int[capacity];
+        Arrays.fill(table, -1);
+        this.xs = new double[Math.max(16, expectedSize)];
+        this.ys = new double[xs.length];
+        this.points = new Point[xs.length];
+        this.size = 0;
+        // checkRep not called: walking the whole table would make every operation linear.
+    }
+
+    /**
+     * @return The number of points in the dictionary.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id of the point at the given coordinates, adding it to the dictionary if
+     * it isn't there yet.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The id of the point at (x, y).
+     * @throws IllegalArgumentException if x or y are NaN or infinite.
+     */
+    public int intern(double x, double y) {
+        int slot = find(x, y);
+        if(table[slot] != -1) {
+            return table[slot];
+        }
+        Point point = new Point(x, y);
+        if(size == points.length) {
+            int capacity = 2 * size;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            points = Arrays.copyOf(points, capacity);
+        }
+        int id = size;
+        xs[id] = x;
+        ys[id] = y;
+        points[id] = point;
+        table[slot] = id;
+        size++;
+        if(size > table.length / 4 * 3) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The id of the point at (x, y), or -1 if it isn't in the dictionary.
+     */
+    public int id(double x, double y) {
+        return table[find(x, y)];
+    }
+
+    /**
+     * @param point The point to look for.
+     * @return The id of the point, or -1 if it isn't in the dictionary.
+     */
+    public int id(Point point) {
+        return id(point.getX(), point.getY());
+    }
+
+    /**
+     * @param id The id of a point, between 0 and size() - 1.
+     * @return The point with the given id, the same object every time.
+     * @throws IndexOutOfBoundsException if there's no point with the given id.
+     */
+    public Point point(int id) {
+        checkId(id);
+        return points[id];
+    }
+
+    /**
+     * @param id The id of a point, between 0 and size() - 1.
+     * @return The x coordinate of the point with the given id.
+     * @throws IndexOutOfBoundsException if there's no point with the given id.
+     */
+    public double getX(int id) {
+        checkId(id);
+        return xs[id];
+    }
+
+    /**
+     * @param id The id of a point, between 0 and size() - 1.
+     * @return The y coordinate of the point with the given id.
+     * @throws IndexOutOfBoundsException if there's no point with the given id.
+     */
+    public double getY(int id) {
+        checkId(id);
+        return ys[id];
+    }
+
+    /**
+     * @return An unmodifiable list of the points in the dictionary, in id order.
+     */
+    public List<Point> points() {
+        return List.of(Arrays.copyOf(points, size));
+    }
+
+    private void checkId(int id) {
+        if(id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No point with id " + id);
+        }
+    }
+
+    /**
+     * Returns the slot holding the point at (x, y), or the empty slot it would go in.
+     */
+    private int find(double x, double y) {
+        long xBits = Double.doubleToLongBits(x);
+        long yBits = Double.doubleToLongBits(y);
+        int mask = table.length - 1;
+        int slot = slot(xBits, yBits) & mask;
+        while(table[slot] != -1) {
+            int id = table[slot];
+            if(Double.doubleToLongBits(xs[id]) == xBits && Double.doubleToLongBits(ys[id]) == yBits) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns a well mixed hash of the coordinates' bits, so that nearby points spread out
+     * over the table.
+     */
+    private static int slot(long xBits, long yBits) {
+        long hash = xBits * 31 + yBits;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    /**
+     * Doubles the table and puts every id back in it.
+     */
+    private void rehash() {
+        table = new int[2 * table.length];
+        Arrays.fill(table, -1);
+        int mask = table.length - 1;
+        for(int id = 0; id < size; id++) {
+            int slot = slot(Double.doubleToLongBits(xs[id]), Double.doubleToLongBits(ys[id])) & mask;
+            while(table[slot] != -1) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+    }
+}
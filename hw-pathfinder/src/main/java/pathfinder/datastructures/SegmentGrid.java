@@ -0,0 +1,221 @@
+package pathfinder.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Represents an immutable uniform grid over a set of line segments, answering which of them
+ * cross a rectangle. Segments are identified by their index in the arrays the grid was built
+ * from. Each segment is listed in every cell its bounding box overlaps, so a query only looks
+ * at the cells the rectangle overlaps, and takes time proportional to the segments near it
+ * rather than to the whole set.
+ */
+public class SegmentGrid {
+
+    // AF(this) =
+    //      segment i => the line from (x1[i], y1[i]) to (x2[i], y2[i])
+    //      cell (cx, cy), covering x in [minX + cx * cellSize, minX + (cx + 1) * cellSize) and the
+    //          same for y => the segments cellSegments[cellOffsets[c]..cellOffsets[c + 1] - 1],
+    //          where c = cy * columns + cx
+
+    // Rep Invariant:
+    //      x1, y1, x2 and y2 have the same length && cellSize > 0 && columns > 0 && rows > 0 &&
+    //      cellOffsets.length == columns * rows + 1 && cellOffsets is non-decreasing &&
+    //      each cell lists exactly the segments whose bounding box overlaps it
+
+    private final double[] x1;
+    private final double[] y1;
+    private final double[] x2;
+    private final double[] y2;
+
+    /**
+     * The lowest x and y of any segment, where cell (0, 0) starts.
+     */
+    private final double minX;
+    private final double minY;
+
+    /**
+     * The width and height of each cell.
+     */
+    private final double cellSize;
+
+    private final int columns;
+    private final int rows;
+
+    /**
+     * The segments in cell c are cellSegments[cellOffsets[c]..cellOffsets[c + 1] - 1].
+     */
+    private final int[] cellOffsets;
+    private final int[] cellSegments;
+
+    /**
+     * Builds a grid over the segments from (x1[i], y1[i]) to (x2[i], y2[i]), sized so that
+     * cells hold a few segments each on evenly spread data.
+     *
+     * @param x1 The x coordinate of each segment's first end.
+     * @param y1 The y coordinate of each segment's first end.
+     * @param x2 The x coordinate of each segment's second end.
+     * @param y2 The y coordinate of each segment's second end.
+     * @throws IllegalArgumentException if the arrays differ in length, or any coordinate is
+     *                                  NaN or infinite.
+     */
+    public SegmentGrid(double[] x1, double[] y1, double[] x2, double[] y2) {
+        int n = x1.length;
+        if(y1.length != n || x2.length != n || y2.length != n) {
+            throw new IllegalArgumentException("Every segment needs both ends.");
+        }
+        this.x1 = x1.clone();
+        this.y1 = y1.clone();
+        this.x2 = x2.clone();
+        this.y2 = y2.clone();
+
+        double lowX = Double.POSITIVE_INFINITY, lowY = Double.POSITIVE_INFINITY;
+        double highX = Double.NEGATIVE_INFINITY, highY = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < n; i++) {
+            if(!Double.isFinite(x1[i]) || !Double.isFinite(y1[i]) || !Double.isFinite(x2[i])
+               || !Double.isFinite(y2[i])) {
+                throw new IllegalArgumentException("Coordinates cannot be NaN or infinite.");
+            }
+            lowX = Math.min(lowX, Math.min(x1[i], x2[i]));
+            lowY = Math.min(lowY, Math.min(y1[i], y2[i]));
+            highX = Math.max(highX, Math.max(x1[i], x2[i]));
+            highY = Math.max(highY, Math.max(y1[i], y2[i]));
+        }
+        if(n == 0) {
+            lowX = lowY = highX = highY = 0;
+        }
+        this.minX = lowX;
+        this.minY = lowY;
+        // about one cell per segment over the bounding box of all of them.
+        double width = Math.max(highX - lowX, 1e-9);
+        double height = Math.max(highY - lowY, 1e-9);
+        double size = Math.sqrt(width * height / Math.max(n, 1));
+        size = Math.max(size, Math.max(width, height) / 4096);
+        this.cellSize = size;
+        this.columns = (int) (width / size) + 1;
+        this.rows = (int) (height / size) + 1;
+
+        // count the segments in each cell, then list them.
+        this.cellOffsets = new int[columns * rows + 1];
+        for(int i = 0; i < n; i++) {
+            for(int cy = row(Math.min(y1[i], y2[i])); cy <= row(Math.max(y1[i], y2[i])); cy++) {
+                for(int cx = column(Math.min(x1[i], x2[i])); cx <= column(Math.max(x1[i], x2[i])); cx++) {
+                    cellOffsets[cy * columns + cx + 1]++;
+                }
+            }
+        }
+        for(int c = 0; c < columns * rows; c++) {
+            cellOffsets[c + 1] += cellOffsets[c];
+        }
+        this.cellSegments = new int[cellOffsets[columns * rows]];
+        int[] next = Arrays.copyOf(cellOffsets, columns * rows);
+        for(int i = 0; i < n; i++) {
+            for(int cy = row(Math.min(y1[i], y2[i])); cy <= row(Math.max(y1[i], y2[i])); cy++) {
+                for(int cx = column(Math.min(x1[i], x2[i])); cx <= column(Math.max(x1[i], x2[i])); cx++) {
+                    cellSegments[next[cy * columns + cx]++] = i;
+                }
+            }
+        }
+        // checkRep not called: checking every cell would take as long as building the grid.
+    }
+
+    /**
+     * @return The number of segments in the grid.
+     */
+    public int size() {
+        return x1.length;
+    }
+
+    /**
+     * Finds the segments that cross or touch a rectangle.
+     *
+     * @param minX The lowest x of the rectangle.
+     * @param minY The lowest y of the rectangle.
+     * @param maxX The highest x of the rectangle.
+     * @param maxY The highest y of the rectangle.
+     * @return The ids of the segments with a point in the rectangle, each once, in no
+     * particular order. Empty if minX &gt; maxX or minY &gt; maxY.
+     */
+    public int[] query(double minX, double minY, double maxX, double maxY) {
+        if(!(minX <= maxX) || !(minY <= maxY)) {
+            return new int[0];
+        }
+        int firstColumn = column(minX);
+        int lastColumn = column(maxX);
+        int firstRow = row(minY);
+        int lastRow = row(maxY);
+        int[] found = new int[16];
+        int count = 0;
+        for(int cy = firstRow; cy <= lastRow; cy++) {
+            for(int cx = firstColumn; cx <= lastColumn; cx++) {
+                int cell = cy * columns + cx;
+                for(int k = cellOffsets[cell]; k < cellOffsets[cell + 1]; k++) {
+                    int i = cellSegments[k];
+                    // a segment is in every cell its box overlaps, so only report it from the
+                    // first of those cells that the query looks at.
+                    if(cx != Math.max(firstColumn, column(Math.min(x1[i], x2[i])))
+                       || cy != Math.max(firstRow, row(Math.min(y1[i], y2[i])))) {
+                        continue;
+                    }
+                    if(crosses(i, minX, minY, maxX, maxY)) {
+                        if(count == found.length) {
+                            found = Arrays.copyOf(found, 2 * count);
+                        }
+                        found[count++] = i;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * @return The column of cells x is in, clamped to the grid.
+     */
+    private int column(double x) {
+        return clamp((x - minX) / cellSize, columns);
+    }
+
+    /**
+     * @return The row of cells y is in, clamped to the grid.
+     */
+    private int row(double y) {
+        return clamp((y - minY) / cellSize, rows);
+    }
+
+    private static int clamp(double cell, int cells) {
+        if(!(cell >= 0)) {
+            return 0;
+        }
+        return cell >= cells - 1 ? cells - 1 : (int) cell;
+    }
+
+    /**
+     * Returns whether segment i has a point in the rectangle, by clipping the segment's
+     * parameter range to each of the rectangle's four edges in turn.
+     */
+    private boolean crosses(int i, double minX, double minY, double maxX, double maxY) {
+        double dx = x2[i] - x1[i];
+        double dy = y2[i] - y1[i];
+        double[] range = {0, 1};
+        return clip(-dx, x1[i] - minX, range) && clip(dx, maxX - x1[i], range)
+               && clip(-dy, y1[i] - minY, range) && clip(dy, maxY - y1[i], range);
+    }
+
+    /**
+     * Narrows range to the parameters t where p * t <= q.
+     *
+     * @return {@literal false} iff no parameters are left.
+     */
+    private static boolean clip(double p, double q, double[] range) {
+        if(p == 0) {
+            return q >= 0;
+        }
+        double t = q / p;
+        if(p < 0) {
+            range[0] = Math.max(range[0], t);
+        } else {
+            range[1] = Math.min(range[1], t);
+        }
+        return range[0] <= range[1];
+    }
+}
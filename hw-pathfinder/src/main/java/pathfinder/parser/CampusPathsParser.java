@@ -12,10 +12,17 @@
 package pathfinder.parser;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +31,11 @@ import java.util.stream.Collectors;
  */
 public class CampusPathsParser {
 
+    /**
+     * The size each thread's share of a file is rounded up from when parsing in parallel.
+     */
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+
     /**
      * Parses the campus buildings file (in src/main/resources/data/) and
      * returns a list of objects containing all the data in that file.
@@ -68,8 +80,21 @@ public class CampusPathsParser {
      * @throws ParserException if the file cannot be found or parsed as expected
      */
     public static List<CampusPath> parseCampusPaths(String file) {
+        return parseCampusPaths(openData(file));
+    }
+
+    /**
+     * Parses campus paths from a stream, in the format of the campus paths file, and
+     * returns a list of objects containing all the data in it.
+     *
+     * @param stream The stream to parse. It is read to the end but not closed.
+     * @return A {@link List} of {@link CampusPath} objects, one for each
+     * line in the parsed stream, containing the data contained within that line.
+     * @throws ParserException if the stream cannot be parsed as expected
+     */
+    public static List<CampusPath> parseCampusPaths(InputStream stream) {
         List<CampusPath> paths = new ArrayList<>();
-        List<String> lines = readLines(file);
+        List<String> lines = readLines(stream);
         //
         for (String line : lines) {
             String[] fields = line.split(",");
@@ -93,6 +118,237 @@ public class CampusPathsParser {
         return paths;
     }
 
+    /**
+     * Parses the campus buildings file (in src/main/resources/data/) line by line,
+     * passing each building to the consumer as soon as its line is read, without
+     * holding the file's lines in memory.
+     *
+     * @param file     The simple filename of a campus buildings file to parse.
+     * @param consumer Receives a {@link CampusBuilding} for each line, in file order.
+     * @throws ParserException if the file cannot be found or parsed as expected
+     */
+    public static void parseCampusBuildings(String file, Consumer<? super CampusBuilding> consumer) {
+        try (InputStream stream = openData(file)) {
+            parseCampusBuildings(stream, consumer);
+        } catch (IOException e) {
+            throw new ParserException("Cannot read " + file, e);
+        }
+    }
+
+    /**
+     * Parses campus buildings from a stream, in the format of the campus buildings file,
+     * passing each building to the consumer as soon as its line is read.
+     *
+     * @param stream   The stream to parse. It is read to the end but not closed.
+     * @param consumer Receives a {@link CampusBuilding} for each line, in stream order.
+     * @throws ParserException if the stream cannot be read or parsed as expected
+     */
+    public static void parseCampusBuildings(InputStream stream, Consumer<? super CampusBuilding> consumer) {
+        CsvReader reader = new CsvReader(stream);
+        try {
+            while (reader.nextLine()) {
+                if (reader.fieldCount() != 4) {
+                    throw new ParserException("Wrong number of fields in line " + reader.lineNumber());
+                }
+                double x, y;
+                try {
+                    x = reader.number(2);
+                    y = reader.number(3);
+                } catch (NumberFormatException e) {
+                    throw new ParserException("Cannot parse x/y coordinates as numbers in line "
+                                              + reader.lineNumber(), e);
+                }
+                consumer.accept(new CampusBuilding(reader.text(0), reader.text(1), x, y));
+            }
+        } catch (IOException e) {
+            throw new ParserException("Cannot read campus buildings", e);
+        }
+    }
+
+    /**
+     * Parses the campus paths file (in src/main/resources/data/) line by line,
+     * passing each path to the consumer as soon as its line is read, without
+     * holding the file's lines in memory.
+     *
+     * @param file     The simple filename of a campus paths file to parse.
+     * @param consumer Receives a {@link CampusPath} for each line, in file order.
+     * @throws ParserException if the file cannot be found or parsed as expected
+     */
+    public static void parseCampusPaths(String file, Consumer<? super CampusPath> consumer) {
+        try (InputStream stream = openData(file)) {
+            parseCampusPaths(stream, consumer);
+        } catch (IOException e) {
+            throw new ParserException("Cannot read " + file, e);
+        }
+    }
+
+    /**
+     * Parses campus paths from a stream, in the format of the campus paths file,
+     * passing each path to the consumer as soon as its line is read.
+     *
+     * @param stream   The stream to parse. It is read to the end but not closed.
+     * @param consumer Receives a {@link CampusPath} for each line, in stream order.
+     * @throws ParserException if the stream cannot be read or parsed as expected
+     */
+    public static void parseCampusPaths(InputStream stream, Consumer<? super CampusPath> consumer) {
+        parsePaths(new CsvReader(stream), consumer);
+    }
+
+    /**
+     * Parses the campus paths file (in src/main/resources/data/) on all cores, and
+     * returns a list of objects containing all the data in that file.
+     *
+     * @param file The simple filename of a campus paths file to parse.
+     * @return A {@link List} of {@link CampusPath} objects, one for each
+     * line in the parsed file, in file order.
+     * @throws ParserException if the file cannot be found or parsed as expected
+     * @see #parseCampusPathsParallel(InputStream, int)
+     */
+    public static List<CampusPath> parseCampusPathsParallel(String file) {
+        try (InputStream stream = openData(file)) {
+            return parseCampusPathsParallel(stream, DEFAULT_CHUNK_BYTES);
+        } catch (IOException e) {
+            throw new ParserException("Cannot read " + file, e);
+        }
+    }
+
+    /**
+     * Parses campus paths from a stream, in the format of the campus paths file, on all cores.
+     * The stream is read into memory and split into chunks of about chunkBytes that end at line
+     * breaks, which are parsed with fork/join. The result is the same as
+     * {@link #parseCampusPaths(InputStream)}: paths in stream order, and if there are malformed
+     * lines, the error for the first of them.
+     *
+     * @param stream     The stream to parse. It is read to the end but not closed.
+     * @param chunkBytes The size each thread's share of the stream is rounded up from.
+     * @return A {@link List} of {@link CampusPath} objects, one for each
+     * line in the parsed stream, in stream order.
+     * @throws ParserException if the stream cannot be read or parsed as expected
+     * @throws IllegalArgumentException if chunkBytes is not positive
+     */
+    public static List<CampusPath> parseCampusPathsParallel(InputStream stream, int chunkBytes) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("chunkBytes must be positive.");
+        }
+        byte[] data;
+        try {
+            data = stream.readAllBytes();
+        } catch (IOException e) {
+            throw new ParserException("Cannot read campus paths", e);
+        }
+
+        // chunk c is data[bounds[c]..bounds[c + 1] - 1], which ends with a line break unless it is last.
+        List<Integer> starts = new ArrayList<>();
+        for (int start = 0; start < data.length; ) {
+            starts.add(start);
+            int end = (int) Math.min((long) start + chunkBytes, data.length);
+            while (end < data.length && data[end - 1] != '\n') {
+                end++;
+            }
+            start = end;
+        }
+        int chunks = starts.size();
+        int[] bounds = new int[chunks + 1];
+        for (int c = 0; c < chunks; c++) {
+            bounds[c] = starts.get(c);
+        }
+        bounds[chunks] = data.length;
+
+        // firstLines[c] is the number of the first line of chunk c, found by counting line breaks.
+        int[] firstLines = new int[chunks + 1];
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, c -> {
+            int lines = 0;
+            for (int i = bounds[c]; i < bounds[c + 1]; i++) {
+                if (data[i] == '\n') {
+                    lines++;
+                }
+            }
+            if (c == chunks - 1 && data[data.length - 1] != '\n') {
+                lines++;
+            }
+            firstLines[c + 1] = lines;
+        }));
+        firstLines[0] = 1;
+        for (int c = 0; c < chunks; c++) {
+            firstLines[c + 1] += firstLines[c];
+        }
+
+        // every chunk fills its own slice of the result, so no merging is needed.
+        CampusPath[] paths = new CampusPath[firstLines[chunks] - 1];
+        ParserException[] errors = new ParserException[chunks];
+        ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunks, c -> {
+            int[] next = {firstLines[c] - 1};
+            try {
+                parsePaths(new CsvReader(new ByteArrayInputStream(data, bounds[c], bounds[c + 1] - bounds[c]),
+                                         firstLines[c]),
+                           path -> paths[next[0]++] = path);
+            } catch (ParserException e) {
+                errors[c] = e;
+            }
+        }));
+        for (ParserException error : errors) {
+            if (error != null) {
+                throw error;
+            }
+        }
+        return new ArrayList<>(Arrays.asList(paths));
+    }
+
+    /**
+     * Parses the lines of a campus paths file from reader, passing each path to the consumer.
+     *
+     * @throws ParserException if the lines cannot be read or parsed as expected
+     */
+    private static void parsePaths(CsvReader reader, Consumer<? super CampusPath> consumer) {
+        try {
+            while (reader.nextLine()) {
+                if (reader.fieldCount() != 5) {
+                    throw new ParserException("Wrong number of fields in line " + reader.lineNumber());
+                }
+                double x1, x2, y1, y2, distance;
+                try {
+                    x1 = reader.number(0);
+                    y1 = reader.number(1);
+                    x2 = reader.number(2);
+                    y2 = reader.number(3);
+                    distance = reader.number(4);
+                } catch (NumberFormatException e) {
+                    throw new ParserException("Cannot parse x/y coordinates as numbers in line "
+                                              + reader.lineNumber(), e);
+                }
+                consumer.accept(new CampusPath(x1, y1, x2, y2, distance));
+            }
+        } catch (IOException e) {
+            throw new ParserException("Cannot read campus paths", e);
+        }
+    }
+
+    /**
+     * Runs work on each chunk number from to to - 1, splitting the range in halves across the
+     * fork/join pool.
+     */
+    private static class ChunkTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer work;
+
+        ChunkTask(int from, int to, IntConsumer work) {
+            this.from = from;
+            this.to = to;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                work.accept(from);
+            } else if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(from, middle, work), new ChunkTask(middle, to, work));
+            }
+        }
+    }
+
     /**
      * Reads all lines contained within the provided data file, which is located
      * relative to the data/ folder in this parser's classpath.
@@ -102,12 +358,34 @@ public class CampusPathsParser {
      * @return A new {@link List<String>} containing all lines in the file.
      */
     private static List<String> readLines(String filename) {
+        return readLines(openData(filename));
+    }
+
+    /**
+     * Reads all lines from the provided stream.
+     *
+     * @param stream The stream to read.
+     * @return A new {@link List<String>} containing all lines in the stream.
+     */
+    private static List<String> readLines(InputStream stream) {
+        return new BufferedReader(new InputStreamReader(stream)).lines().collect(Collectors.toList());
+    }
+
+    /**
+     * Opens the provided data file, which is located relative to the data/ folder in this
+     * parser's classpath.
+     *
+     * @param filename The file to open.
+     * @throws ParserException if the file doesn't exist or has an invalid name
+     * @return A stream of the file's contents.
+     */
+    private static InputStream openData(String filename) {
         // See MarvelParser.java (from hw-marvel) for an explanation of this code
         InputStream stream = CampusPathsParser.class.getResourceAsStream("/data/" + filename);
         if (stream == null) {
             throw new ParserException("No such file: " + filename);
         }
-        return new BufferedReader(new InputStreamReader(stream)).lines().collect(Collectors.toList());
+        return stream;
     }
 
     /**
@@ -0,0 +1,248 @@
+package pathfinder.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads comma separated lines from a byte stream one at a time, without making a String for
+ * each line or field. Each line is copied into a reused buffer and split at its commas; text
+ * fields are decoded on request, and number fields are parsed straight from the bytes.
+ * Lines end at '\n', with an optional '\r' before it. Fields cannot be quoted.
+ */
+class CsvReader {
+
+    // AF(this) = the current line is line[0..lineLength - 1], numbered lineNumber, and its
+    //      field i is line[fieldStarts[i]..fieldStarts[i + 1] - 2], the last one ending at lineLength.
+    //      The rest of the stream is buffer[position..limit - 1] followed by the unread part of in.
+    // RI: 0 <= position <= limit <= buffer.length && 0 <= lineLength <= line.length &&
+    //     1 <= fieldCount < fieldStarts.length
+
+    /**
+     * The powers of ten that are exact doubles.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The largest integer below which all integers are exact doubles.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private int position = 0;
+    private int limit = 0;
+
+    private byte[] line = new byte[256];
+    private int lineLength = 0;
+    private int lineNumber = 0;
+
+    private int[] fieldStarts = new int[8];
+    private int fieldCount = 0;
+
+    /**
+     * Creates a reader of the lines of the given stream, which it doesn't close.
+     *
+     * @param in The stream to read.
+     */
+    CsvReader(InputStream in) {
+        this(in, 1);
+    }
+
+    /**
+     * Creates a reader of the lines of the given stream, which it doesn't close, for a stream
+     * that starts partway through a file.
+     *
+     * @param in              The stream to read.
+     * @param firstLineNumber The line number of the first line of the stream.
+     */
+    CsvReader(InputStream in, int firstLineNumber) {
+        this.in = in;
+        this.lineNumber = firstLineNumber - 1;
+    }
+
+    /**
+     * Moves to the next line of the stream.
+     *
+     * @return {@literal true} iff there was another line. An empty last line, after the final
+     * '\n', doesn't count.
+     * @throws IOException if reading from the stream fails.
+     */
+    boolean nextLine() throws IOException {
+        lineLength = 0;
+        boolean read = false;
+        while (true) {
+            if (position == limit) {
+                limit = in.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    if (!read) {
+                        return false;
+                    }
+                    break;
+                }
+            }
+            read = true;
+            int end = position;
+            while (end < limit && buffer[end] != '\n') {
+                end++;
+            }
+            append(position, end);
+            if (end < limit) {
+                position = end + 1;
+                break;
+            }
+            position = limit;
+        }
+        if (lineLength > 0 && line[lineLength - 1] == '\r') {
+            lineLength--;
+        }
+        lineNumber++;
+        split();
+        return true;
+    }
+
+    /**
+     * Copies buffer[from..to - 1] onto the end of the current line.
+     */
+    private void append(int from, int to) {
+        int length = to - from;
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(2 * line.length, lineLength + length));
+        }
+        System.arraycopy(buffer, from, line, lineLength, length);
+        lineLength += length;
+    }
+
+    /**
+     * Finds where each field of the current line starts.
+     */
+    private void split() {
+        fieldCount = 1;
+        fieldStarts[0] = 0;
+        for (int i = 0; i < lineLength; i++) {
+            if (line[i] == ',') {
+                if (fieldCount + 1 == fieldStarts.length) {
+                    fieldStarts = Arrays.copyOf(fieldStarts, 2 * fieldStarts.length);
+                }
+                fieldStarts[fieldCount++] = i + 1;
+            }
+        }
+        fieldStarts[fieldCount] = lineLength + 1;
+    }
+
+    /**
+     * @return The number of the current line, counting from the first line number.
+     */
+    int lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return The number of comma separated fields in the current line.
+     */
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @param field The index of a field in the current line.
+     * @return The text of the field, decoded as UTF-8.
+     */
+    String text(int field) {
+        int start = fieldStarts[field];
+        return new String(line, start, fieldStarts[field + 1] - 1 - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a field of the current line as a double, giving the same result as
+     * {@link Double#parseDouble(String)}. Plain decimals of up to 15 or 16 significant digits
+     * are parsed from the bytes directly, which is exact; anything else, such as longer
+     * decimals, is handed to Double.parseDouble.
+     *
+     * @param field The index of a field in the current line.
+     * @return The value of the field.
+     * @throws NumberFormatException if the field isn't a number.
+     */
+    double number(int field) {
+        int start = fieldStarts[field];
+        int end = fieldStarts[field + 1] - 1;
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line[i] == '-' || line[i] == '+')) {
+            negative = line[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        boolean digits = false;
+        boolean exact = true;
+        while (i < end && line[i] >= '0' && line[i] <= '9') {
+            exact &= addDigit(mantissa);
+            mantissa = mantissa * 10 + (line[i] - '0');
+            digits = true;
+            i++;
+        }
+        if (i < end && line[i] == '.') {
+            i++;
+            while (i < end && line[i] >= '0' && line[i] <= '9') {
+                exact &= addDigit(mantissa);
+                mantissa = mantissa * 10 + (line[i] - '0');
+                exponent--;
+                digits = true;
+                i++;
+            }
+        }
+        if (i < end && (line[i] == 'e' || line[i] == 'E') && digits) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (line[i] == '-' || line[i] == '+')) {
+                negativeExponent = line[i] == '-';
+                i++;
+            }
+            int explicit = 0;
+            boolean exponentDigits = false;
+            while (i < end && line[i] >= '0' && line[i] <= '9' && explicit < 10000) {
+                explicit = explicit * 10 + (line[i] - '0');
+                exponentDigits = true;
+                i++;
+            }
+            exact &= exponentDigits;
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (digits && exact && i == end && mantissa <= MAX_EXACT_MANTISSA) {
+            // both the mantissa and the power of ten are exact, so one rounding gives the right answer.
+            double value;
+            if (mantissa == 0) {
+                value = 0;
+            } else if (exponent < 0 && exponent >= -22) {
+                value = mantissa / POWERS_OF_TEN[-exponent];
+            } else if (exponent >= 0 && exponent <= 22) {
+                value = mantissa * POWERS_OF_TEN[exponent];
+            } else {
+                return slowNumber(start, end);
+            }
+            return negative ? -value : value;
+        }
+        return slowNumber(start, end);
+    }
+
+    /**
+     * @return {@literal true} iff another digit can be added to mantissa without overflowing.
+     */
+    private static boolean addDigit(long mantissa) {
+        return mantissa < Long.MAX_VALUE / 10 - 1;
+    }
+
+    /**
+     * Parses line[start..end - 1] with Double.parseDouble.
+     */
+    private double slowNumber(int start, int end) {
+        return Double.parseDouble(new String(line, start, end - start, StandardCharsets.ISO_8859_1));
+    }
+}
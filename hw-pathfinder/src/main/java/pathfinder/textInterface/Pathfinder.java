@@ -30,6 +30,10 @@ public class Pathfinder {
         CampusMap map = new CampusMap();
         TextInterfaceView view = new TextInterfaceView();
         TextInterfaceController controller = new TextInterfaceController(map, view);
+        // Run with -Dpathfinder.searchStats=true to see how much work each route took.
+        if(Boolean.getBoolean("pathfinder.searchStats")) {
+            map.setSearchListener(controller::searched);
+        }
         //
         view.setInputHandler(controller);
         controller.launchApplication();
@@ -12,6 +12,8 @@
 package pathfinder.textInterface;
 
 import pathfinder.ModelAPI;
+import pathfinder.SearchMode;
+import pathfinder.SearchStats;
 import pathfinder.datastructures.Path;
 import pathfinder.datastructures.Point;
 
@@ -37,6 +39,12 @@ public class TextInterfaceController implements InputHandler {
      */
     private TextInterfaceView view;
 
+    /**
+     * The mode and work of the last search since a route was shown, or null if there wasn't one.
+     */
+    private SearchMode lastMode;
+    private SearchStats lastSearch;
+
     /**
      * Creates a new TextInterfaceController with the provided model and view
      * classes to manage.
@@ -63,6 +71,18 @@ public class TextInterfaceController implements InputHandler {
         view.begin();
     }
 
+    /**
+     * Notes the work of a search the model did, to show with the route it found. Give this to
+     * the model's search listener to show how much work each route took.
+     *
+     * @param mode  The algorithm the search used.
+     * @param stats The work the search did.
+     */
+    public void searched(SearchMode mode, SearchStats stats) {
+        this.lastMode = mode;
+        this.lastSearch = stats;
+    }
+
     /**
      * Responds to user commands based on the text of the command. Echoes blank commands and
      * lines beginning with "#" to the standard output.
@@ -136,6 +156,11 @@ public class TextInterfaceController implements InputHandler {
             throw new IllegalStateException("No found path between " + start + " and " + end);
         }
         view.showPath(model.longNameForShort(start), model.longNameForShort(end), path);
+        if(lastSearch != null) {
+            view.showSearchStats(lastMode, lastSearch);
+            lastMode = null;
+            lastSearch = null;
+        }
         view.basePrompt();
     }
 
@@ -11,6 +11,8 @@
 
 package pathfinder.textInterface;
 
+import pathfinder.SearchMode;
+import pathfinder.SearchStats;
 import pathfinder.datastructures.Path;
 import pathfinder.datastructures.Point;
 
@@ -157,6 +159,26 @@ public class TextInterfaceView {
         System.out.println();
     }
 
+    /**
+     * Displays how much work the search for a path did.
+     *
+     * @param mode  The algorithm the search used.
+     * @param stats The work the search did.
+     */
+    public void showSearchStats(SearchMode mode, SearchStats stats) {
+        System.out.printf("Search (%s): settled %d nodes, relaxed %d edges, %d pushes, %d pops "
+                          + "(%d stale), peak queue %d, %.3f ms",
+                          mode.name(),
+                          stats.getNodesSettled(),
+                          stats.getEdgesRelaxed(),
+                          stats.getHeapPushes(),
+                          stats.getHeapPops(),
+                          stats.getStaleSkipped(),
+                          stats.getPeakQueueSize(),
+                          stats.getNanos() / 1e6);
+        System.out.println();
+    }
+
     /**
      * Blocks until the user has inputted an complete line of text, then returns that line of
      * text and resumes operation as normal.
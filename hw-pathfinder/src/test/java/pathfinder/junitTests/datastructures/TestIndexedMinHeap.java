@@ -0,0 +1,87 @@
+package pathfinder.junitTests.datastructures;
+
+import org.junit.Test;
+import pathfinder.datastructures.IndexedMinHeap;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestIndexedMinHeap {
+
+    @Test
+    public void testEmptyHeap() {
+        IndexedMinHeap heap = new IndexedMinHeap(3);
+        assertTrue(heap.isEmpty());
+        assertEquals(0, heap.size());
+        assertFalse(heap.contains(0));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testRemoveFromEmptyHeap() {
+        new IndexedMinHeap(3).removeMin();
+    }
+
+    @Test
+    public void testRemovesInKeyOrder() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        heap.insertOrDecrease(0, 3.0);
+        heap.insertOrDecrease(1, 1.0);
+        heap.insertOrDecrease(2, 2.0);
+        heap.insertOrDecrease(3, 0.5);
+        assertEquals(3, heap.removeMin());
+        assertEquals(1, heap.removeMin());
+        assertEquals(2, heap.removeMin());
+        assertEquals(0, heap.removeMin());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testDecreaseKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(3);
+        heap.insertOrDecrease(0, 1.0);
+        heap.insertOrDecrease(1, 2.0);
+        heap.insertOrDecrease(2, 3.0);
+        assertTrue(heap.insertOrDecrease(2, 0.5));
+        assertFalse(heap.insertOrDecrease(1, 5.0));
+        // lowering a key doesn't add the id again.
+        assertEquals(3, heap.size());
+        assertEquals(2, heap.removeMin());
+        assertEquals(0, heap.removeMin());
+        assertEquals(1, heap.removeMin());
+    }
+
+    @Test
+    public void testIdReusableAfterRemove() {
+        IndexedMinHeap heap = new IndexedMinHeap(2);
+        heap.insertOrDecrease(1, 1.0);
+        assertEquals(1, heap.removeMin());
+        assertFalse(heap.contains(1));
+        heap.insertOrDecrease(1, 4.0);
+        assertTrue(heap.contains(1));
+        assertEquals(1, heap.removeMin());
+    }
+
+    @Test
+    public void testRandomKeysComeOutSorted() {
+        Random random = new Random(331);
+        IndexedMinHeap heap = new IndexedMinHeap(1000);
+        double[] keys = new double[1000];
+        for(int i = 0; i < 1000; i++) {
+            keys[i] = random.nextDouble();
+            heap.insertOrDecrease(i, keys[i]);
+        }
+        for(int i = 0; i < 1000; i += 3) {
+            keys[i] = Math.min(keys[i], random.nextDouble() / 2);
+            heap.insertOrDecrease(i, keys[i]);
+        }
+        double last = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < 1000; i++) {
+            int id = heap.removeMin();
+            assertTrue(keys[id] >= last);
+            last = keys[id];
+        }
+        assertTrue(heap.isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+package pathfinder.junitTests.datastructures;
+
+import org.junit.Test;
+import pathfinder.datastructures.KdTree;
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class TestKdTree {
+
+    private static List<Point> randomPoints(Random random, int count) {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // few distinct coordinates, so there are plenty of ties on each axis.
+            points.add(new Point(random.nextInt(100), random.nextInt(100) + random.nextDouble()));
+        }
+        return points;
+    }
+
+    private static double distance(Point point, double x, double y) {
+        return (point.getX() - x) * (point.getX() - x) + (point.getY() - y) * (point.getY() - y);
+    }
+
+    @Test
+    public void testEmptyTree() {
+        KdTree tree = new KdTree(List.of());
+        assertEquals(0, tree.size());
+        assertEquals(-1, tree.nearest(1, 2));
+        assertEquals(0, tree.nearest(1, 2, 3).length);
+    }
+
+    @Test
+    public void testNearestMatchesBruteForce() {
+        Random random = new Random(331);
+        List<Point> points = randomPoints(random, 5000);
+        KdTree tree = new KdTree(points);
+        for (int query = 0; query < 500; query++) {
+            double x = random.nextDouble() * 120 - 10;
+            double y = random.nextDouble() * 120 - 10;
+            double best = points.stream().mapToDouble(p -> distance(p, x, y)).min().getAsDouble();
+            assertEquals(best, distance(points.get(tree.nearest(x, y)), x, y), 0);
+        }
+    }
+
+    @Test
+    public void testKNearestMatchesBruteForce() {
+        Random random = new Random(332);
+        List<Point> points = randomPoints(random, 2000);
+        KdTree tree = new KdTree(points);
+        for (int query = 0; query < 200; query++) {
+            double x = random.nextDouble() * 100;
+            double y = random.nextDouble() * 100;
+            List<Double> expected = IntStream.range(0, points.size())
+                    .mapToObj(i -> distance(points.get(i), x, y))
+                    .sorted(Comparator.naturalOrder()).limit(7).collect(Collectors.toList());
+            List<Double> actual = IntStream.of(tree.nearest(x, y, 7))
+                    .mapToObj(i -> distance(points.get(i), x, y)).collect(Collectors.toList());
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testKLargerThanTree() {
+        KdTree tree = new KdTree(List.of(new Point(0, 0), new Point(3, 0), new Point(1, 0)));
+        assertArrayEquals(new int[] {1, 2, 0}, tree.nearest(4, 0, 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeK() {
+        new KdTree(List.of(new Point(0, 0))).nearest(0, 0, -1);
+    }
+}
@@ -6,6 +6,7 @@ import pathfinder.datastructures.Path;
 import pathfinder.datastructures.Point;
 
 import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
@@ -106,4 +107,36 @@ public class TestPath {
         assertEquals(path2.hashCode(), path2.hashCode());
         assertEquals(path3.hashCode(), path3.hashCode());
     }
+
+    @Test
+    public void testOfMatchesExtend() {
+        List<Point> nodes = List.of(new Point(1.0, 2.0), new Point(3.0, 2.0), new Point(3.0, 5.0), new Point(1.0, 2.0));
+        double[] costs = {2.0D, 3.0D, 0.5D};
+        Path<Point> extended = new Path<>(nodes.get(0));
+        for (int i = 0; i < costs.length; i++) {
+            extended = extended.extend(nodes.get(i + 1), costs[i]);
+        }
+        Path<Point> built = Path.of(nodes, costs);
+        assertEquals(extended, built);
+        assertEquals(extended.getCost(), built.getCost(), 0);
+        assertEquals(nodes.get(0), built.getStart());
+        assertEquals(nodes.get(3), built.getEnd());
+    }
+
+    @Test
+    public void testOfOneNodeIsEmpty() {
+        Path<Point> path = Path.of(List.of(new Point(1.0, 2.0)), new double[0]);
+        assertEquals(new Path<>(new Point(1.0, 2.0)), path);
+        assertEquals(0, path.getCost(), EPSILON);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfWrongNumberOfCosts() {
+        Path.of(List.of(new Point(1.0, 2.0), new Point(3.0, 2.0)), new double[] {1.0D, 2.0D});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfInfiniteCost() {
+        Path.of(List.of(new Point(1.0, 2.0), new Point(3.0, 2.0)), new double[] {Double.POSITIVE_INFINITY});
+    }
 }
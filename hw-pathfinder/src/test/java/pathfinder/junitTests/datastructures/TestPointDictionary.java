@@ -0,0 +1,67 @@
+package pathfinder.junitTests.datastructures;
+
+import org.junit.Test;
+import pathfinder.datastructures.Point;
+import pathfinder.datastructures.PointDictionary;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestPointDictionary {
+
+    @Test
+    public void testInternGivesDenseIds() {
+        PointDictionary points = new PointDictionary();
+        assertEquals(0, points.intern(1.0, 2.0));
+        assertEquals(1, points.intern(2.0, 1.0));
+        assertEquals(0, points.intern(1.0, 2.0));
+        assertEquals(2, points.size());
+        assertEquals(List.of(new Point(1.0, 2.0), new Point(2.0, 1.0)), points.points());
+    }
+
+    @Test
+    public void testPointsAreShared() {
+        PointDictionary points = new PointDictionary();
+        int id = points.intern(3.5, -4.25);
+        assertSame(points.point(id), points.point(points.intern(3.5, -4.25)));
+        assertEquals(3.5, points.getX(id), 0);
+        assertEquals(-4.25, points.getY(id), 0);
+    }
+
+    @Test
+    public void testIdOfMissingPoint() {
+        PointDictionary points = new PointDictionary();
+        points.intern(0.0, 0.0);
+        assertEquals(-1, points.id(1.0, 0.0));
+        // Point.equals tells 0.0 and -0.0 apart, so the dictionary does too.
+        assertEquals(-1, points.id(-0.0, 0.0));
+        assertEquals(0, points.id(new Point(0.0, 0.0)));
+    }
+
+    @Test
+    public void testGrowsPastExpectedSize() {
+        PointDictionary points = new PointDictionary(2);
+        Random random = new Random(331);
+        double[] xs = new double[10000];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextDouble();
+            assertEquals(i, points.intern(xs[i], i));
+        }
+        for (int i = 0; i < xs.length; i++) {
+            assertEquals(i, points.id(xs[i], i));
+        }
+        assertEquals(xs.length, points.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInternNaN() {
+        new PointDictionary().intern(Double.NaN, 0.0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testPointNotExist() {
+        new PointDictionary().point(0);
+    }
+}
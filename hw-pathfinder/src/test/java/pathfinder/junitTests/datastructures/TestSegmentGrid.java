@@ -0,0 +1,119 @@
+package pathfinder.junitTests.datastructures;
+
+import org.junit.Test;
+import pathfinder.datastructures.SegmentGrid;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class TestSegmentGrid {
+
+    /**
+     * Returns whether the segment from (x1, y1) to (x2, y2) has a point in the rectangle: either
+     * an end is inside it, or the segment crosses one of its sides.
+     */
+    private static boolean crosses(double x1, double y1, double x2, double y2,
+                                   double minX, double minY, double maxX, double maxY) {
+        if (minX <= x1 && x1 <= maxX && minY <= y1 && y1 <= maxY) {
+            return true;
+        }
+        return intersect(x1, y1, x2, y2, minX, minY, maxX, minY)
+               || intersect(x1, y1, x2, y2, maxX, minY, maxX, maxY)
+               || intersect(x1, y1, x2, y2, maxX, maxY, minX, maxY)
+               || intersect(x1, y1, x2, y2, minX, maxY, minX, minY);
+    }
+
+    /**
+     * Returns whether segments ab and cd, in general position, cross.
+     */
+    private static boolean intersect(double ax, double ay, double bx, double by,
+                                     double cx, double cy, double dx, double dy) {
+        return Math.signum(turn(ax, ay, bx, by, cx, cy)) != Math.signum(turn(ax, ay, bx, by, dx, dy))
+               && Math.signum(turn(cx, cy, dx, dy, ax, ay)) != Math.signum(turn(cx, cy, dx, dy, bx, by));
+    }
+
+    private static double turn(double ax, double ay, double bx, double by, double cx, double cy) {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+    }
+
+    private static int[] sorted(int[] ids) {
+        int[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    @Test
+    public void testEmptyGrid() {
+        SegmentGrid grid = new SegmentGrid(new double[0], new double[0], new double[0], new double[0]);
+        assertEquals(0, grid.size());
+        assertEquals(0, grid.query(-1, -1, 1, 1).length);
+    }
+
+    @Test
+    public void testDiagonalPassesBetweenCorners() {
+        // the segment's bounding box covers the rectangle, but the segment misses it.
+        SegmentGrid grid = new SegmentGrid(new double[] {0, 0}, new double[] {0, 1},
+                                           new double[] {10, 10}, new double[] {10, 1});
+        assertArrayEquals(new int[] {1}, grid.query(7, 0, 9, 2));
+        assertArrayEquals(new int[] {0}, grid.query(4, 4, 6, 6));
+    }
+
+    @Test
+    public void testTouchingCounts() {
+        SegmentGrid grid = new SegmentGrid(new double[] {0}, new double[] {0},
+                                           new double[] {10}, new double[] {0});
+        assertArrayEquals(new int[] {0}, grid.query(10, -1, 12, 1));
+        assertArrayEquals(new int[] {0}, grid.query(3, 0, 4, 5));
+        assertEquals(0, grid.query(11, -1, 12, 1).length);
+    }
+
+    @Test
+    public void testEmptyRectangle() {
+        SegmentGrid grid = new SegmentGrid(new double[] {0}, new double[] {0},
+                                           new double[] {10}, new double[] {10});
+        assertEquals(0, grid.query(5, 5, 4, 6).length);
+        assertEquals(0, grid.query(Double.NaN, 0, 10, 10).length);
+    }
+
+    @Test
+    public void testQueryMatchesBruteForce() {
+        Random random = new Random(331);
+        int n = 3000;
+        double[] x1 = new double[n];
+        double[] y1 = new double[n];
+        double[] x2 = new double[n];
+        double[] y2 = new double[n];
+        for (int i = 0; i < n; i++) {
+            x1[i] = random.nextDouble() * 1000;
+            y1[i] = random.nextDouble() * 1000;
+            // mostly short segments, with a few long ones spanning many cells.
+            double length = i % 100 == 0 ? 500 : 20;
+            x2[i] = x1[i] + (random.nextDouble() - 0.5) * length;
+            y2[i] = y1[i] + (random.nextDouble() - 0.5) * length;
+        }
+        SegmentGrid grid = new SegmentGrid(x1, y1, x2, y2);
+        for (int query = 0; query < 100; query++) {
+            double minX = random.nextDouble() * 1100 - 50;
+            double minY = random.nextDouble() * 1100 - 50;
+            double maxX = minX + random.nextDouble() * 200;
+            double maxY = minY + random.nextDouble() * 200;
+            int[] expected = IntStream.range(0, n)
+                    .filter(i -> crosses(x1[i], y1[i], x2[i], y2[i], minX, minY, maxX, maxY))
+                    .toArray();
+            assertArrayEquals(expected, sorted(grid.query(minX, minY, maxX, maxY)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMismatchedLengths() {
+        new SegmentGrid(new double[1], new double[1], new double[1], new double[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNaNCoordinate() {
+        new SegmentGrid(new double[] {Double.NaN}, new double[1], new double[1], new double[1]);
+    }
+}
@@ -0,0 +1,165 @@
+package pathfinder.junitTests.parser;
+
+import graph.CompactGraph;
+import graph.Graph;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pathfinder.CampusDataset;
+import pathfinder.CampusMap;
+import pathfinder.ContractionHierarchy;
+import pathfinder.SearchMode;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class TestCampusDataset {
+
+    private static CampusDataset csv;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void parseCsv() {
+        csv = CampusDataset.fromCsv("campus_buildings.csv", "campus_paths.csv");
+    }
+
+    @Test
+    public void testLoadWrittenDataset() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("campus.bin");
+        csv.write(file);
+        CampusDataset loaded = CampusDataset.load(file);
+
+        assertEquals(csv.getBuildings(), loaded.getBuildings());
+        CompactGraph<Point> expected = csv.getGraph();
+        CompactGraph<Point> actual = loaded.getGraph();
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int node = 0; node < expected.nodeCount(); node++) {
+            assertEquals(expected.node(node), actual.node(node));
+            assertEquals(expected.firstEdge(node), actual.firstEdge(node));
+        }
+        for (int edge = 0; edge < expected.edgeCount(); edge++) {
+            assertEquals(expected.target(edge), actual.target(edge));
+            assertEquals(expected.weight(edge), actual.weight(edge), 0);
+        }
+    }
+
+    @Test
+    public void testLoadedMapFindsSamePaths() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("campus.bin");
+        csv.write(file);
+        CampusMap expected = new CampusMap(csv, SearchMode.DIJKSTRA);
+        CampusMap actual = new CampusMap(CampusDataset.load(file), SearchMode.DIJKSTRA);
+        assertEquals(expected.buildingNames(), actual.buildingNames());
+        for (String start : expected.buildingNames().keySet()) {
+            assertEquals(expected.findShortestPath(start, "CSE"), actual.findShortestPath(start, "CSE"));
+        }
+    }
+
+    @Test
+    public void testEdgesMatchGraph() {
+        Graph<Point, Double> graph = new Graph<>(Graph.Validation.OFF);
+        Set<Point> nodes = new HashSet<>();
+        for (CampusPath path : CampusPathsParser.parseCampusPaths("campus_paths.csv")) {
+            Point from = new Point(path.getX1(), path.getY1());
+            Point to = new Point(path.getX2(), path.getY2());
+            for (Point point : List.of(from, to)) {
+                if (nodes.add(point)) {
+                    graph.addNode(point);
+                }
+            }
+            graph.addEdge(new Graph.Edge<>(from, to, path.getDistance()));
+            // a repeat of the same edge is dropped, but not one with another distance.
+            graph.addEdge(new Graph.Edge<>(from, to, path.getDistance()));
+        }
+
+        CompactGraph<Point> compact = csv.getGraph();
+        int edges = 0;
+        for (int node = 0; node < compact.nodeCount(); node++) {
+            Point point = compact.node(node);
+            List<Graph.Edge<Point, Double>> expected = nodes.contains(point)
+                                                       ? new ArrayList<>(graph.getEdgesFrom(point)) : List.of();
+            assertEquals(point.toString(), expected.size(), compact.endEdge(node) - compact.firstEdge(node));
+            for (int i = 0; i < expected.size(); i++) {
+                int edge = compact.firstEdge(node) + i;
+                assertEquals(expected.get(i).getChild(), compact.node(compact.target(edge)));
+                assertEquals(expected.get(i).getLabel(), compact.weight(edge), 0);
+            }
+            edges += expected.size();
+        }
+        assertEquals(edges, compact.edgeCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadTruncated() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("campus.bin");
+        csv.write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        CampusDataset.load(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadNotADataset() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("campus.csv");
+        Files.write(file, "1,2,3,4,5\n1,2,3,4,5\n1,2,3,4,5\n".getBytes());
+        CampusDataset.load(file);
+    }
+
+    @Test
+    public void testHierarchyFileIsNextToDataset() {
+        Path file = folder.getRoot().toPath().resolve("campus.bin");
+        assertEquals(folder.getRoot().toPath().resolve("campus.ch"), CampusDataset.hierarchyFile(file));
+    }
+
+    @Test
+    public void testNoStoredHierarchy() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("campus.bin");
+        csv.write(file);
+        assertNull(csv.loadHierarchy());
+        assertNull(CampusDataset.load(file).loadHierarchy());
+    }
+
+    @Test
+    public void testLoadStoredHierarchy() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("campus.bin");
+        csv.write(file);
+        try (OutputStream out = Files.newOutputStream(CampusDataset.hierarchyFile(file))) {
+            ContractionHierarchy.build(csv.getGraph()).write(out);
+        }
+        CampusDataset loaded = CampusDataset.load(file);
+        assertNotNull(loaded.loadHierarchy());
+
+        CampusMap expected = new CampusMap(csv, SearchMode.DIJKSTRA);
+        CampusMap actual = new CampusMap(loaded, SearchMode.CONTRACTION_HIERARCHY);
+        for (String start : expected.buildingNames().keySet()) {
+            assertEquals(expected.findShortestPath(start, "CSE").getCost(),
+                         actual.findShortestPath(start, "CSE").getCost(), 1e-9);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadCorruptHierarchy() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("campus.bin");
+        csv.write(file);
+        Files.write(CampusDataset.hierarchyFile(file), new byte[] {1, 2, 3, 4});
+        CampusDataset.load(file).loadHierarchy();
+    }
+}
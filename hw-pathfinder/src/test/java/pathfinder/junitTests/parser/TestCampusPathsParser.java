@@ -0,0 +1,109 @@
+package pathfinder.junitTests.parser;
+
+import org.junit.Test;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestCampusPathsParser {
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testStreamingBuildingsMatchList() {
+        List<CampusBuilding> streamed = new ArrayList<>();
+        CampusPathsParser.parseCampusBuildings("campus_buildings.csv", streamed::add);
+        assertEquals(CampusPathsParser.parseCampusBuildings("campus_buildings.csv"), streamed);
+    }
+
+    @Test
+    public void testStreamingPathsMatchList() {
+        List<CampusPath> streamed = new ArrayList<>();
+        CampusPathsParser.parseCampusPaths("campus_paths.csv", streamed::add);
+        assertEquals(CampusPathsParser.parseCampusPaths("campus_paths.csv"), streamed);
+    }
+
+    @Test
+    public void testNumbersMatchParseDouble() {
+        String[] numbers = {"0", "-0", "+3", "1.5", "-2.25", ".5", "5.", "1e3", "2.5E-4", "1e-30",
+                            "50.227561307636904", "123456789012345678901234", "0.1", "9007199254740993",
+                            "1e22", "1e23", " 7.5", "NaN", "-Infinity"};
+        StringBuilder text = new StringBuilder();
+        for (String number : numbers) {
+            text.append(number).append(",1,2,3,4\r\n");
+        }
+        List<CampusPath> paths = new ArrayList<>();
+        CampusPathsParser.parseCampusPaths(stream(text.toString()), paths::add);
+        assertEquals(numbers.length, paths.size());
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(numbers[i], Double.doubleToRawLongBits(Double.parseDouble(numbers[i])),
+                         Double.doubleToRawLongBits(paths.get(i).getX1()));
+        }
+    }
+
+    @Test
+    public void testLastLineWithoutNewline() {
+        List<CampusBuilding> buildings = new ArrayList<>();
+        CampusPathsParser.parseCampusBuildings(stream("A,Long A,1,2\nB,Long B,3.5,4"), buildings::add);
+        assertEquals(List.of(new CampusBuilding("A", "Long A", 1, 2), new CampusBuilding("B", "Long B", 3.5, 4)),
+                     buildings);
+    }
+
+    @Test
+    public void testErrorsNameTheLine() {
+        try {
+            CampusPathsParser.parseCampusPaths(stream("1,2,3,4,5\n1,2,3,4\n"), path -> { });
+            fail("expected a ParserException");
+        } catch (CampusPathsParser.ParserException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("line 2"));
+        }
+        try {
+            CampusPathsParser.parseCampusBuildings(stream("A,Long A,1,2\nB,Long B,x,4\n"), building -> { });
+            fail("expected a ParserException");
+        } catch (CampusPathsParser.ParserException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("line 2"));
+        }
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        List<CampusPath> expected = CampusPathsParser.parseCampusPaths("campus_paths.csv");
+        assertEquals(expected, CampusPathsParser.parseCampusPathsParallel("campus_paths.csv"));
+        InputStream stream = CampusPathsParser.class.getResourceAsStream("/data/campus_paths.csv");
+        assertEquals(expected, CampusPathsParser.parseCampusPathsParallel(stream, 4096));
+    }
+
+    @Test
+    public void testParallelChunksWithoutFinalNewline() {
+        assertEquals(List.of(new CampusPath(1, 2, 3, 4, 5), new CampusPath(6, 7, 8, 9, 10),
+                             new CampusPath(11, 12, 13, 14, 15)),
+                     CampusPathsParser.parseCampusPathsParallel(stream("1,2,3,4,5\n6,7,8,9,10\n11,12,13,14,15"), 3));
+        assertEquals(List.of(), CampusPathsParser.parseCampusPathsParallel(stream(""), 3));
+    }
+
+    @Test
+    public void testParallelErrorNamesFirstBadLine() {
+        StringBuilder text = new StringBuilder();
+        for (int line = 1; line <= 1000; line++) {
+            text.append(line == 617 || line == 900 ? "1,2,3\n" : "1,2,3,4,5\n");
+        }
+        try {
+            CampusPathsParser.parseCampusPathsParallel(stream(text.toString()), 64);
+            fail("expected a ParserException");
+        } catch (CampusPathsParser.ParserException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("line 617"));
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package pathfinder.junitTests.routing;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pathfinder.CampusMap;
+import pathfinder.Isochrone;
+import pathfinder.SearchMode;
+import pathfinder.SearchStats;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusPath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class TestCampusMap {
+
+    private static final double EPSILON = Math.pow(10.0D, -9.0D); // Accuracy required to 1 PPB
+
+    private static CampusMap map;
+
+    @BeforeClass
+    public static void loadMap() {
+        map = new CampusMap();
+    }
+
+    /**
+     * Checks that searching with mode finds paths as short as dijkstra's, between every pair of
+     * buildings of the given map.
+     */
+    private static void assertMatchesDijkstra(CampusMap campusMap, SearchMode mode) {
+        for (String start : campusMap.buildingNames().keySet()) {
+            for (String end : campusMap.buildingNames().keySet()) {
+                Path<Point> expected = campusMap.findShortestPath(start, end, SearchMode.DIJKSTRA);
+                Path<Point> actual = campusMap.findShortestPath(start, end, mode);
+                assertEquals(start + " to " + end, expected.getCost(), actual.getCost(), EPSILON);
+                assertEquals(expected.getStart(), actual.getStart());
+                assertEquals(expected.getEnd(), actual.getEnd());
+            }
+        }
+    }
+
+    @Test
+    public void testAStarCostsMatchDijkstra() {
+        assertMatchesDijkstra(map, SearchMode.A_STAR);
+    }
+
+    @Test
+    public void testBidirectionalCostsMatchDijkstra() {
+        assertMatchesDijkstra(map, SearchMode.BIDIRECTIONAL);
+    }
+
+    @Test
+    public void testRouteTableCostsMatchDijkstra() {
+        assertMatchesDijkstra(new CampusMap(SearchMode.ROUTE_TABLE), SearchMode.ROUTE_TABLE);
+    }
+
+    @Test
+    public void testContractionHierarchyCostsMatchDijkstra() {
+        assertMatchesDijkstra(new CampusMap(SearchMode.CONTRACTION_HIERARCHY), SearchMode.CONTRACTION_HIERARCHY);
+    }
+
+    @Test
+    public void testRouteFromCoordinates() {
+        for (String start : map.buildingNames().keySet()) {
+            Path<Point> fromBuilding = map.findShortestPath(start, "CSE");
+            // a little off the building's own point, which is still the nearest node.
+            Point point = fromBuilding.getStart();
+            Path<Point> fromCoordinates = map.findShortestPath(point.getX() + 1e-3, point.getY() - 1e-3, "CSE");
+            assertEquals(start, fromBuilding.getStart(), fromCoordinates.getStart());
+            assertEquals(start, fromBuilding.getCost(), fromCoordinates.getCost(), EPSILON);
+        }
+    }
+
+    @Test
+    public void testNearestNodes() {
+        List<Point> nearest = map.nearestNodes(1000, 1000, 5);
+        assertEquals(5, nearest.size());
+        for (int i = 1; i < nearest.size(); i++) {
+            assertTrue(distance(nearest.get(i - 1)) <= distance(nearest.get(i)));
+        }
+    }
+
+    private static double distance(Point point) {
+        return Math.hypot(point.getX() - 1000, point.getY() - 1000);
+    }
+
+    @Test
+    public void testMatricesMatchSinglePaths() {
+        List<String> starts = List.of("CSE", "MGH", "KNE");
+        List<String> ends = List.of("PAR", "CSE", "MGH", "CSE");
+        double[][] costs = map.costMatrix(starts, ends);
+        List<List<Path<Point>>> paths = map.pathMatrix(starts, ends);
+        assertEquals(starts.size(), costs.length);
+        for (int i = 0; i < starts.size(); i++) {
+            assertEquals(ends.size(), costs[i].length);
+            for (int j = 0; j < ends.size(); j++) {
+                Path<Point> expected = map.findShortestPath(starts.get(i), ends.get(j));
+                assertEquals(expected.getCost(), costs[i][j], EPSILON);
+                assertEquals(expected.getCost(), paths.get(i).get(j).getCost(), EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void testMatricesRunOnExecutor() {
+        List<String> starts = List.of("CSE", "MGH", "KNE");
+        List<String> ends = List.of("PAR", "CSE");
+        AtomicInteger parts = new AtomicInteger();
+        Executor counting = part -> {
+            parts.incrementAndGet();
+            part.run();
+        };
+        // at most one part per core, and no more parts than starts.
+        int expected = Math.min(starts.size(), Runtime.getRuntime().availableProcessors());
+        double[][] costs = map.costMatrix(starts, ends, counting);
+        assertEquals(expected, parts.get());
+        List<List<Path<Point>>> paths = map.pathMatrix(starts, ends, counting);
+        assertEquals(2 * expected, parts.get());
+        for (int i = 0; i < starts.size(); i++) {
+            for (int j = 0; j < ends.size(); j++) {
+                assertEquals(map.findShortestPath(starts.get(i), ends.get(j)).getCost(), costs[i][j], EPSILON);
+                assertEquals(costs[i][j], paths.get(i).get(j).getCost(), EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void testMatrixRepeatedStartsSearchOnce() {
+        List<String> starts = new ArrayList<>(Collections.nCopies(100, "CSE"));
+        starts.add("MGH");
+        List<String> ends = List.of("PAR", "KNE");
+        AtomicInteger searches = new AtomicInteger();
+        map.setSearchListener((mode, stats) -> searches.incrementAndGet());
+        double[][] costs;
+        List<List<Path<Point>>> paths;
+        try {
+            costs = map.costMatrix(starts, ends);
+            assertEquals(2, searches.get());
+            paths = map.pathMatrix(starts, ends);
+            assertEquals(4, searches.get());
+        } finally {
+            map.setSearchListener(null);
+        }
+        assertEquals(starts.size(), costs.length);
+        assertEquals(starts.size(), paths.size());
+        for (int i = 0; i < starts.size(); i++) {
+            assertEquals(map.findShortestPath(starts.get(i), "PAR").getCost(), costs[i][0], EPSILON);
+            assertEquals(costs[i][1], paths.get(i).get(1).getCost(), EPSILON);
+        }
+        // repeated starts get rows of their own.
+        costs[0][0] = -1;
+        assertTrue(costs[1][0] > 0);
+        assertTrue(costs[0] != costs[1] && paths.get(0) != paths.get(1));
+    }
+
+    @Test
+    public void testRejectedMatrixCancelsQueuedParts() {
+        // with one core there is one part, and nothing else to refuse.
+        assumeTrue(Runtime.getRuntime().availableProcessors() > 1);
+        // an executor that queues its first part and refuses the rest, like a full pool.
+        List<Runnable> queued = new ArrayList<>();
+        Executor full = part -> {
+            if (!queued.isEmpty()) {
+                throw new RejectedExecutionException();
+            }
+            queued.add(part);
+        };
+        List<String> starts = new ArrayList<>(map.buildingNames().keySet());
+        AtomicInteger searches = new AtomicInteger();
+        map.setSearchListener((mode, stats) -> searches.incrementAndGet());
+        try {
+            map.costMatrix(starts, List.of("PAR"), full);
+            fail("Expected the second part to be refused.");
+        } catch (RejectedExecutionException e) {
+            // the queued part was cancelled, so running it now searches nothing.
+            assertEquals(1, queued.size());
+            queued.get(0).run();
+            assertEquals(0, searches.get());
+        } finally {
+            map.setSearchListener(null);
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testRejectedBatchThrows() {
+        map.findShortestPaths(List.of("CSE", "MGH"), List.of("PAR", "PAR"), part -> {
+            throw new RejectedExecutionException();
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMatrixUnknownBuilding() {
+        map.costMatrix(List.of("CSE"), List.of("not a building"));
+    }
+
+    @Test
+    public void testBatchMatchesSinglePaths() {
+        // repeated starts share a search, and a repeated pair appears twice in the result.
+        List<String> starts = List.of("CSE", "MGH", "CSE", "KNE", "CSE", "MGH");
+        List<String> ends = List.of("PAR", "CSE", "MGH", "KNE", "PAR", "MGH");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Path<Point>> paths = map.findShortestPaths(starts, ends, executor);
+            assertEquals(starts.size(), paths.size());
+            for (int i = 0; i < starts.size(); i++) {
+                Path<Point> expected = map.findShortestPath(starts.get(i), ends.get(i));
+                assertEquals(expected.getCost(), paths.get(i).getCost(), EPSILON);
+                assertEquals(expected.getStart(), paths.get(i).getStart());
+                assertEquals(expected.getEnd(), paths.get(i).getEnd());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchLengthsDiffer() {
+        map.findShortestPaths(List.of("CSE", "MGH"), List.of("PAR"), Runnable::run);
+    }
+
+    @Test
+    public void testReachableWithin() {
+        double limit = 1500;
+        Isochrone<Point> isochrone = map.reachableWithin("CSE", limit);
+        assertEquals(0, isochrone.costTo(isochrone.getStart()), 0);
+        for (Point point : isochrone.nodes()) {
+            assertTrue(isochrone.costTo(point) <= limit);
+        }
+        Path<Point> farther = map.findShortestPath("CSE", "PAR");
+        assertTrue(farther.getCost() > limit);
+        assertTrue(!isochrone.reaches(farther.getEnd()));
+
+        List<CampusPath> boundary = map.boundarySegments(isochrone);
+        assertTrue(boundary.size() > 0);
+        for (CampusPath segment : boundary) {
+            Point from = new Point(segment.getX1(), segment.getY1());
+            // each boundary segment starts inside and ends exactly at the limit.
+            assertTrue(isochrone.reaches(from));
+            assertEquals(limit, isochrone.costTo(from) + segment.getDistance(), EPSILON);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReachableWithinNegative() {
+        map.reachableWithin("CSE", -1);
+    }
+
+    @Test
+    public void testSearchListener() {
+        Map<SearchMode, Long> settled = new EnumMap<>(SearchMode.class);
+        map.setSearchListener((mode, stats) -> settled.merge(mode, stats.getNodesSettled(), Long::sum));
+        try {
+            map.findShortestPath("CSE", "PAR", SearchMode.DIJKSTRA);
+            map.findShortestPath("CSE", "PAR", SearchMode.A_STAR);
+            map.findShortestPath("CSE", "PAR", SearchMode.BIDIRECTIONAL);
+        } finally {
+            map.setSearchListener(null);
+        }
+        assertEquals(3, settled.size());
+        assertTrue(settled.get(SearchMode.DIJKSTRA) > 0);
+        // A* heads towards the end instead of searching in all directions.
+        assertTrue(settled.get(SearchMode.A_STAR) <= settled.get(SearchMode.DIJKSTRA));
+        assertTrue(settled.get(SearchMode.BIDIRECTIONAL) > 0);
+
+        // without a listener, nothing is counted.
+        map.findShortestPath("CSE", "PAR", SearchMode.DIJKSTRA);
+        assertEquals(3, settled.size());
+    }
+
+    @Test
+    public void testSearchListenerCountsOneToManySearches() {
+        Map<SearchMode, Long> searches = new ConcurrentHashMap<>();
+        Map<SearchMode, Long> settled = new ConcurrentHashMap<>();
+        map.setSearchListener((mode, stats) -> {
+            searches.merge(mode, 1L, Long::sum);
+            settled.merge(mode, stats.getNodesSettled(), Long::sum);
+        });
+        try {
+            List<String> starts = List.of("CSE", "MGH", "KNE");
+            map.costMatrix(starts, List.of("PAR"));
+            map.pathMatrix(starts, List.of("PAR", "CSE"));
+            map.findShortestPaths(List.of("CSE", "CSE", "MGH"), List.of("PAR", "KNE", "PAR"), Runnable::run);
+            map.reachableWithin("CSE", 300);
+        } finally {
+            map.setSearchListener(null);
+        }
+        // one dijkstra search per start of each matrix and batch, and one for the isochrone.
+        assertEquals(Map.of(SearchMode.DIJKSTRA, 3L + 3L + 2L + 1L), searches);
+        assertTrue(settled.get(SearchMode.DIJKSTRA) > 0);
+    }
+
+    @Test
+    public void testSearchListenerIsToldRouteTableBuild() {
+        CampusMap routeTable = new CampusMap(SearchMode.ROUTE_TABLE);
+        List<SearchStats> built = new ArrayList<>();
+        routeTable.setSearchListener((mode, stats) -> {
+            assertEquals(SearchMode.ROUTE_TABLE, mode);
+            built.add(stats);
+        });
+        // one search from each building, each settling at least that building.
+        assertEquals(routeTable.buildingNames().size(), built.size());
+        for (SearchStats stats : built) {
+            assertTrue(stats.getNodesSettled() > 0);
+        }
+
+        // only the first listener is told, and lookups settle nothing.
+        List<SearchStats> later = new ArrayList<>();
+        routeTable.setSearchListener((mode, stats) -> later.add(stats));
+        assertTrue(later.isEmpty());
+        routeTable.findShortestPath("CSE", "PAR");
+        assertEquals(1, later.size());
+        assertEquals(0, later.get(0).getNodesSettled());
+    }
+
+    @Test
+    public void testSegmentsIn() {
+        List<CampusPath> segments = map.segmentsIn(1500, 1500, 1700, 1900);
+        assertTrue(segments.size() > 0);
+        for (CampusPath segment : segments) {
+            // an exact crossing test is in TestSegmentGrid; here only the bounding boxes overlap.
+            assertTrue(Math.min(segment.getX1(), segment.getX2()) <= 1700);
+            assertTrue(Math.max(segment.getX1(), segment.getX2()) >= 1500);
+            assertTrue(Math.min(segment.getY1(), segment.getY2()) <= 1900);
+            assertTrue(Math.max(segment.getY1(), segment.getY2()) >= 1500);
+        }
+        // each path goes both ways, but is only listed once.
+        assertEquals(segments.size(), segments.stream()
+                .map(segment -> Set.of(new Point(segment.getX1(), segment.getY1()),
+                                       new Point(segment.getX2(), segment.getY2())))
+                .distinct().count());
+        assertEquals(0, map.segmentsIn(-10, -10, -5, -5).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRouteFromNaN() {
+        map.findShortestPath(Double.NaN, 0, "CSE");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownBuilding() {
+        map.findShortestPath("not a building", "CSE", SearchMode.A_STAR);
+    }
+}
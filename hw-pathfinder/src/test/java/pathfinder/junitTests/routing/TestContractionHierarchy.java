@@ -0,0 +1,114 @@
+package pathfinder.junitTests.routing;
+
+import graph.CompactGraph;
+import graph.Graph;
+import org.junit.Before;
+import org.junit.Test;
+import pathfinder.ContractionHierarchy;
+import pathfinder.ShortestPath;
+import pathfinder.datastructures.Path;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TestContractionHierarchy {
+
+    private static final double EPSILON = Math.pow(10.0D, -9.0D); // Accuracy required to 1 PPB
+
+    private Graph<String, Double> graph;
+    private CompactGraph<String> compact;
+
+    @Before
+    public void createGraph() {
+        graph = new Graph<>();
+        for (String node : new String[] {"a", "b", "c", "d", "e", "island"}) {
+            graph.addNode(node);
+        }
+        graph.addEdge(new Graph.Edge<>("a", "b", 1.0));
+        graph.addEdge(new Graph.Edge<>("b", "c", 1.5));
+        graph.addEdge(new Graph.Edge<>("a", "c", 3.0));
+        graph.addEdge(new Graph.Edge<>("c", "d", 0.5));
+        graph.addEdge(new Graph.Edge<>("c", "d", 0.25));
+        graph.addEdge(new Graph.Edge<>("d", "a", 4.0));
+        graph.addEdge(new Graph.Edge<>("d", "e", 2.0));
+        graph.addEdge(new Graph.Edge<>("e", "b", 1.0));
+        graph.addEdge(new Graph.Edge<>("b", "b", 0.5));
+        compact = graph.toCompact(Double::doubleValue);
+    }
+
+    private void assertMatchesDijkstra(ContractionHierarchy<String> hierarchy) {
+        for (String start : graph.getNodes()) {
+            for (String end : graph.getNodes()) {
+                Path<String> expected = ShortestPath.dijkstra(graph, start, end);
+                Path<String> actual = hierarchy.shortestPath(start, end);
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected, actual);
+                    assertEquals(expected.getCost(), actual.getCost(), EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesDijkstra() {
+        assertMatchesDijkstra(ContractionHierarchy.build(compact));
+    }
+
+    @Test
+    public void testReadWrittenHierarchy() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContractionHierarchy.build(compact).write(out);
+        assertMatchesDijkstra(ContractionHierarchy.read(new ByteArrayInputStream(out.toByteArray()), compact));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadForOtherGraph() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContractionHierarchy.build(compact).write(out);
+        graph.addNode("another");
+        ContractionHierarchy.read(new ByteArrayInputStream(out.toByteArray()), graph.toCompact(Double::doubleValue));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadForGraphWithOtherWeights() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContractionHierarchy.build(compact).write(out);
+        // the same nodes and number of edges, but one edge is longer.
+        graph.removeEdge(new Graph.Edge<>("e", "b", 1.0));
+        graph.addEdge(new Graph.Edge<>("e", "b", 2.0));
+        ContractionHierarchy.read(new ByteArrayInputStream(out.toByteArray()), graph.toCompact(Double::doubleValue));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadEdgeOutOfRange() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContractionHierarchy.build(compact).write(out);
+        // the header is 4 ints and a long, then the length of edgeFrom, then edgeFrom's first entry.
+        byte[] bytes = out.toByteArray();
+        ByteBuffer.wrap(bytes).putInt(5 * Integer.BYTES + Long.BYTES, compact.nodeCount());
+        ContractionHierarchy.read(new ByteArrayInputStream(bytes), compact);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadUpEdgeOutOfRange() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContractionHierarchy.build(compact).write(out);
+        // the last int written is the last of downEdges.
+        byte[] bytes = out.toByteArray();
+        ByteBuffer.wrap(bytes).putInt(bytes.length - Integer.BYTES, Integer.MAX_VALUE);
+        ContractionHierarchy.read(new ByteArrayInputStream(bytes), compact);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeight() {
+        graph.addEdge(new Graph.Edge<>("a", "island", -1.0));
+        ContractionHierarchy.build(graph.toCompact(Double::doubleValue));
+    }
+}
@@ -0,0 +1,55 @@
+package pathfinder.junitTests.routing;
+
+import graph.Graph;
+import org.junit.Before;
+import org.junit.Test;
+import pathfinder.EuclideanHeuristic;
+import pathfinder.datastructures.Point;
+
+import static org.junit.Assert.*;
+
+public class TestEuclideanHeuristic {
+
+    // The scale is kept a hair below the lowest ratio, so only check it to 1 PPM.
+    private static final double EPSILON = Math.pow(10.0D, -6.0D);
+
+    private static final Point ORIGIN = new Point(0, 0);
+    private static final Point EAST = new Point(3, 0);
+    private static final Point NORTH_EAST = new Point(3, 4);
+
+    private Graph<Point, Double> graph;
+
+    @Before
+    public void createGraph() {
+        graph = new Graph<>();
+        graph.addNode(ORIGIN);
+        graph.addNode(EAST);
+        graph.addNode(NORTH_EAST);
+        graph.addEdge(new Graph.Edge<>(ORIGIN, EAST, 6.0));
+        graph.addEdge(new Graph.Edge<>(EAST, NORTH_EAST, 12.0));
+    }
+
+    @Test
+    public void testScaleIsLowestRatio() {
+        EuclideanHeuristic heuristic = EuclideanHeuristic.of(graph.toCompact(Double::doubleValue));
+        assertTrue(heuristic.isUsable());
+        assertEquals(2.0, heuristic.getScale(), EPSILON);
+        assertEquals(10.0, heuristic.towards(NORTH_EAST).applyAsDouble(ORIGIN), EPSILON);
+        assertTrue(heuristic.towards(NORTH_EAST).applyAsDouble(ORIGIN) <= 18.0);
+    }
+
+    @Test
+    public void testZeroWeightEdgeDisablesHeuristic() {
+        graph.addEdge(new Graph.Edge<>(NORTH_EAST, ORIGIN, 0.0));
+        EuclideanHeuristic heuristic = EuclideanHeuristic.of(graph.toCompact(Double::doubleValue));
+        assertFalse(heuristic.isUsable());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNegativeWeightDisablesHeuristic() {
+        graph.addEdge(new Graph.Edge<>(NORTH_EAST, ORIGIN, -1.0));
+        EuclideanHeuristic heuristic = EuclideanHeuristic.of(graph.toCompact(Double::doubleValue));
+        assertFalse(heuristic.isUsable());
+        heuristic.towards(ORIGIN);
+    }
+}
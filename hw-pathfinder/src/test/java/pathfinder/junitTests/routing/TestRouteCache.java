@@ -0,0 +1,181 @@
+package pathfinder.junitTests.routing;
+
+import org.junit.Before;
+import org.junit.Test;
+import pathfinder.ModelAPI;
+import pathfinder.RouteCache;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestRouteCache {
+
+    private static final double EPSILON = Math.pow(10.0D, -9.0D); // Accuracy required to 1 PPB
+
+    /**
+     * A model with buildings A at (0, 0), B at (1, 0) and C at (1, 1), where every route goes
+     * A - B - C, that counts how many routes it is asked for. Like CampusMap, it throws an
+     * IllegalArgumentException for names that are null or not buildings.
+     */
+    private static class CountingModel implements ModelAPI {
+        private static final Map<String, Point> POINTS =
+                Map.of("A", new Point(0, 0), "B", new Point(1, 0), "C", new Point(1, 1));
+        private int searches = 0;
+
+        @Override
+        public boolean shortNameExists(String shortName) {
+            return POINTS.containsKey(shortName);
+        }
+
+        @Override
+        public String longNameForShort(String shortName) {
+            return "Building " + shortName;
+        }
+
+        @Override
+        public Map<String, String> buildingNames() {
+            return Map.of("A", "Building A", "B", "Building B", "C", "Building C");
+        }
+
+        @Override
+        public Path<Point> findShortestPath(double x, double y, String endShortName) {
+            searches++;
+            return new Path<>(new Point(x, y));
+        }
+
+        @Override
+        public Path<Point> findShortestPath(String startShortName, String endShortName) {
+            searches++;
+            if (!POINTS.containsKey(startShortName) || !POINTS.containsKey(endShortName)) {
+                throw new IllegalArgumentException("No such building.");
+            }
+            String order = "ABC";
+            int from = order.indexOf(startShortName);
+            int to = order.indexOf(endShortName);
+            int step = Integer.signum(to - from);
+            Path<Point> path = new Path<>(POINTS.get(startShortName));
+            for (int i = from; i != to; i += step) {
+                String next = String.valueOf(order.charAt(i + step));
+                path = path.extend(POINTS.get(next), 1.0 + i);
+            }
+            return path;
+        }
+    }
+
+    private CountingModel model;
+
+    @Before
+    public void createModel() {
+        model = new CountingModel();
+    }
+
+    @Test
+    public void testRepeatedRouteIsCached() {
+        RouteCache cache = new RouteCache(model, 4, false);
+        Path<Point> first = cache.findShortestPath("A", "C");
+        Path<Point> second = cache.findShortestPath("A", "C");
+        assertSame(first, second);
+        assertEquals(1, model.searches);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        RouteCache cache = new RouteCache(model, 2, false);
+        cache.findShortestPath("A", "B");
+        cache.findShortestPath("A", "C");
+        cache.findShortestPath("A", "B");
+        cache.findShortestPath("B", "C");
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+
+        cache.findShortestPath("A", "B");
+        assertEquals(3, model.searches);
+        cache.findShortestPath("A", "C");
+        assertEquals(4, model.searches);
+    }
+
+    @Test
+    public void testReverseRouteIsReused() {
+        RouteCache cache = new RouteCache(model, 4, true);
+        Path<Point> forward = cache.findShortestPath("A", "C");
+        Path<Point> backward = cache.findShortestPath("C", "A");
+        assertEquals(1, model.searches);
+        assertEquals(1, cache.getHits());
+        assertEquals(forward.getEnd(), backward.getStart());
+        assertEquals(forward.getStart(), backward.getEnd());
+        assertEquals(forward.getCost(), backward.getCost(), EPSILON);
+    }
+
+    @Test
+    public void testReverseRouteNotReusedUnlessAllowed() {
+        RouteCache cache = new RouteCache(model, 4, false);
+        cache.findShortestPath("A", "C");
+        cache.findShortestPath("C", "A");
+        assertEquals(2, model.searches);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityMustBePositive() {
+        new RouteCache(model, 0, false);
+    }
+
+    @Test
+    public void testCoordinateRoutesAreNotCached() {
+        RouteCache cache = new RouteCache(model, 4, false);
+        cache.findShortestPath(0.5, 0.5, "C");
+        cache.findShortestPath(0.5, 0.5, "C");
+        assertEquals(2, model.searches);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testCachedDoesNotSearch() {
+        RouteCache cache = new RouteCache(model, 4, true);
+        assertNull(cache.cached("A", "C"));
+        assertEquals(0, model.searches);
+        assertEquals(0, cache.getHits() + cache.getMisses());
+
+        Path<Point> path = cache.findShortestPath("A", "C");
+        assertSame(path, cache.cached("A", "C"));
+        assertNotNull(cache.cached("C", "A"));
+        assertEquals(1, model.searches);
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCachedNullThrows() {
+        new RouteCache(model, 4, true).cached("A", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullStartThrows() {
+        new RouteCache(model, 4, true).findShortestPath(null, "C");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullEndThrows() {
+        new RouteCache(model, 4, true).findShortestPath("A", null);
+    }
+
+    @Test
+    public void testUnknownNamesAreNotCached() {
+        RouteCache cache = new RouteCache(model, 4, true);
+        cache.findShortestPath("A", "C");
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.findShortestPath("A", "Z");
+                fail("Expected an IllegalArgumentException for an unknown building.");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        assertEquals(3, model.searches);
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.getHits());
+    }
+}
@@ -0,0 +1,268 @@
+package pathfinder.junitTests.routing;
+
+import graph.CompactGraph;
+import graph.Graph;
+import org.junit.Before;
+import org.junit.Test;
+import pathfinder.Isochrone;
+import pathfinder.SearchStats;
+import pathfinder.ShortestPath;
+import pathfinder.ShortestPathTree;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestShortestPath {
+
+    private static final double EPSILON = Math.pow(10.0D, -9.0D); // Accuracy required to 1 PPB
+
+    private Graph<String, Double> graph;
+    private CompactGraph<String> compact;
+
+    @Before
+    public void createGraph() {
+        graph = new Graph<>();
+        for (String node : new String[] {"a", "b", "c", "d", "island"}) {
+            graph.addNode(node);
+        }
+        graph.addEdge(new Graph.Edge<>("a", "b", 1.0));
+        graph.addEdge(new Graph.Edge<>("b", "c", 1.5));
+        graph.addEdge(new Graph.Edge<>("a", "c", 3.0));
+        graph.addEdge(new Graph.Edge<>("c", "d", 0.5));
+        graph.addEdge(new Graph.Edge<>("d", "a", 4.0));
+        compact = graph.toCompact(Double::doubleValue);
+    }
+
+    @Test
+    public void testCompactMatchesGraph() {
+        for (String start : graph.getNodes()) {
+            for (String end : graph.getNodes()) {
+                Path<String> expected = ShortestPath.dijkstra(graph, start, end);
+                Path<String> actual = ShortestPath.dijkstra(compact, start, end);
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected, actual);
+                    assertEquals(expected.getCost(), actual.getCost(), EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBidirectionalMatchesGraph() {
+        for (String start : graph.getNodes()) {
+            for (String end : graph.getNodes()) {
+                Path<String> expected = ShortestPath.dijkstra(graph, start, end);
+                Path<String> actual = ShortestPath.bidirectionalDijkstra(compact, start, end);
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected, actual);
+                    assertEquals(expected.getCost(), actual.getCost(), EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTreeMatchesGraph() {
+        for (String start : graph.getNodes()) {
+            ShortestPathTree<String> tree = ShortestPath.shortestPathTree(compact, start);
+            assertEquals(start, tree.getStart());
+            for (String end : graph.getNodes()) {
+                Path<String> expected = ShortestPath.dijkstra(graph, start, end);
+                Path<String> actual = tree.pathTo(end);
+                assertEquals(expected != null, tree.reaches(end));
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected, actual);
+                    assertEquals(expected.getCost(), actual.getCost(), EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOneToManyMatchesGraph() {
+        // every node, with a repeat, so the search can't stop at the first one it settles.
+        List<String> ends = List.of("d", "a", "b", "c", "island", "d");
+        for (String start : graph.getNodes()) {
+            double[] costs = ShortestPath.costs(compact, start, ends);
+            List<Path<String>> paths = ShortestPath.paths(compact, start, ends);
+            assertEquals(ends.size(), costs.length);
+            assertEquals(ends.size(), paths.size());
+            for (int i = 0; i < ends.size(); i++) {
+                Path<String> expected = ShortestPath.dijkstra(graph, start, ends.get(i));
+                if (expected == null) {
+                    assertEquals(Double.POSITIVE_INFINITY, costs[i], 0);
+                    assertNull(paths.get(i));
+                } else {
+                    assertEquals(expected.getCost(), costs[i], EPSILON);
+                    assertEquals(expected, paths.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIsochroneMatchesGraph() {
+        for (String start : graph.getNodes()) {
+            for (double limit : new double[] {0, 1, 2.5, 3, 100}) {
+                Isochrone<String> isochrone = ShortestPath.isochrone(compact, start, limit);
+                assertEquals(start, isochrone.getStart());
+                assertEquals(start, isochrone.nodes().get(0));
+                int reached = 0;
+                for (String end : graph.getNodes()) {
+                    Path<String> expected = ShortestPath.dijkstra(graph, start, end);
+                    boolean within = expected != null && expected.getCost() <= limit;
+                    assertEquals(start + " to " + end + " within " + limit, within, isochrone.reaches(end));
+                    if (within) {
+                        reached++;
+                        assertEquals(expected.getCost(), isochrone.costTo(end), EPSILON);
+                    } else {
+                        assertEquals(Double.POSITIVE_INFINITY, isochrone.costTo(end), 0);
+                    }
+                }
+                assertEquals(reached, isochrone.nodes().size());
+            }
+        }
+    }
+
+    @Test
+    public void testIsochroneBoundary() {
+        Isochrone<String> isochrone = ShortestPath.isochrone(compact, "a", 2);
+        // a and b are within 2, and c is 2.5 away through b or 3 directly.
+        assertEquals(List.of("a", "b"), isochrone.nodes());
+        assertEquals(Set.of(new Graph.Edge<>("a", "c", 3.0), new Graph.Edge<>("b", "c", 1.5)),
+                     Set.copyOf(isochrone.boundary()));
+    }
+
+    @Test
+    public void testOneToNone() {
+        assertEquals(0, ShortestPath.costs(compact, "a", List.of()).length);
+        assertEquals(0, ShortestPath.paths(compact, "a", List.of()).size());
+    }
+
+    @Test
+    public void testSearchStats() {
+        // a settles, pushing b and c; b settles, lowering c; c settles and is the end.
+        SearchStats graphStats = new SearchStats();
+        SearchStats compactStats = new SearchStats();
+        assertEquals(ShortestPath.dijkstra(graph, "a", "c"), ShortestPath.dijkstra(graph, "a", "c", graphStats));
+        assertEquals(ShortestPath.dijkstra(compact, "a", "c"), ShortestPath.dijkstra(compact, "a", "c", compactStats));
+        for (SearchStats stats : List.of(graphStats, compactStats)) {
+            assertEquals(3, stats.getNodesSettled());
+            assertEquals(3, stats.getEdgesRelaxed());
+            assertEquals(4, stats.getHeapPushes());
+            assertEquals(3, stats.getHeapPops());
+            assertEquals(0, stats.getStaleSkipped());
+            assertEquals(2, stats.getPeakQueueSize());
+            assertTrue(stats.getNanos() > 0);
+        }
+
+        // the graph dijkstra leaves c's costlier entry in its queue, and skips it once c settles.
+        graphStats.reset();
+        ShortestPath.dijkstra(graph, "a", "island", graphStats);
+        assertEquals(4, graphStats.getNodesSettled());
+        assertEquals(1, graphStats.getStaleSkipped());
+        assertEquals(graphStats.getNodesSettled() + graphStats.getStaleSkipped(), graphStats.getHeapPops());
+
+        // stats add up over searches, and the other engines count every pop as settling a node.
+        SearchStats stats = new SearchStats();
+        ShortestPath.bidirectionalDijkstra(compact, "a", "d", stats);
+        long settled = stats.getNodesSettled();
+        assertTrue(settled > 0);
+        ShortestPath.aStar(compact, "a", "d", node -> 0, stats);
+        assertTrue(stats.getNodesSettled() > settled);
+        assertEquals(stats.getNodesSettled(), stats.getHeapPops());
+        assertEquals(0, stats.getStaleSkipped());
+    }
+
+    @Test
+    public void testOneToManySearchStats() {
+        // the tree settles every node a reaches, and looks at each of their edges.
+        SearchStats stats = new SearchStats();
+        ShortestPathTree<String> tree = ShortestPath.shortestPathTree(compact, "a", stats);
+        assertEquals(ShortestPath.shortestPathTree(compact, "a").pathTo("d"), tree.pathTo("d"));
+        assertEquals(4, stats.getNodesSettled());
+        assertEquals(5, stats.getEdgesRelaxed());
+        assertEquals(5, stats.getHeapPushes());
+        assertEquals(4, stats.getHeapPops());
+        assertEquals(2, stats.getPeakQueueSize());
+        assertTrue(stats.getNanos() > 0);
+
+        // costs and paths stop once c settles, before looking at its edges.
+        SearchStats costStats = new SearchStats();
+        SearchStats pathStats = new SearchStats();
+        assertEquals(2.5, ShortestPath.costs(compact, "a", List.of("c"), costStats)[0], EPSILON);
+        assertEquals(ShortestPath.paths(compact, "a", List.of("c")),
+                     ShortestPath.paths(compact, "a", List.of("c"), pathStats));
+        for (SearchStats oneToMany : List.of(costStats, pathStats)) {
+            assertEquals(3, oneToMany.getNodesSettled());
+            assertEquals(3, oneToMany.getEdgesRelaxed());
+            assertEquals(4, oneToMany.getHeapPushes());
+            assertEquals(3, oneToMany.getHeapPops());
+            assertTrue(oneToMany.getNanos() > 0);
+        }
+
+        // the isochrone only queues nodes within its limit.
+        stats.reset();
+        Isochrone<String> isochrone = ShortestPath.isochrone(compact, "a", 2.5, stats);
+        assertEquals(Set.of("a", "b", "c"), Set.copyOf(isochrone.nodes()));
+        assertEquals(3, stats.getNodesSettled());
+        assertEquals(4, stats.getEdgesRelaxed());
+        assertEquals(3, stats.getHeapPushes());
+        assertEquals(stats.getNodesSettled(), stats.getHeapPops());
+        assertEquals(1, stats.getPeakQueueSize());
+    }
+
+    @Test
+    public void testCompactPathToSelf() {
+        Path<String> path = ShortestPath.dijkstra(compact, "b", "b");
+        assertEquals(new Path<>("b"), path);
+        assertEquals(0, path.getCost(), EPSILON);
+    }
+
+    @Test
+    public void testCompactNoPath() {
+        assertNull(ShortestPath.dijkstra(compact, "a", "island"));
+    }
+
+    @Test
+    public void testCompactCostsMatchOnCampus() {
+        List<CampusBuilding> buildings = CampusPathsParser.parseCampusBuildings("campus_buildings.csv");
+        Graph<Point, Double> campus = new Graph<>(Graph.Validation.OFF);
+        for (CampusBuilding building : buildings) {
+            campus.addNode(new Point(building.getX(), building.getY()));
+        }
+        for (CampusPath path : CampusPathsParser.parseCampusPaths("campus_paths.csv")) {
+            Point node1 = new Point(path.getX1(), path.getY1());
+            Point node2 = new Point(path.getX2(), path.getY2());
+            campus.addNode(node1);
+            campus.addNode(node2);
+            campus.addEdge(new Graph.Edge<>(node1, node2, path.getDistance()));
+        }
+        CompactGraph<Point> compactCampus = campus.toCompact(Double::doubleValue);
+
+        for (CampusBuilding from : buildings) {
+            Point start = new Point(from.getX(), from.getY());
+            for (CampusBuilding to : buildings) {
+                Point end = new Point(to.getX(), to.getY());
+                Path<Point> expected = ShortestPath.dijkstra(campus, start, end);
+                Path<Point> actual = ShortestPath.dijkstra(compactCampus, start, end);
+                assertEquals(expected.getCost(), actual.getCost(), 0);
+            }
+        }
+    }
+}
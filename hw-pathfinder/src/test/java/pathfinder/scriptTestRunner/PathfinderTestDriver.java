@@ -187,7 +187,7 @@ public class PathfinderTestDriver {
     private void listChildren(String graphName, String parentName) {
         String head = "the children of " + parentName + " in " + graphName + " are:";
         Graph<String, Double> graph = graphs.get(graphName);
-        List<Graph.Edge<String, Double>> edgesFrom = graph.getEdgesFrom(parentName);
+        List<Graph.Edge<String, Double>> edgesFrom = new ArrayList<>(graph.getEdgesFrom(parentName));
         edgesFrom.sort((o1, o2) -> {
             int compareLabel = o1.getLabel().compareTo(o2.getLabel());
             int compareChild = o1.getChild().compareTo(o2.getChild());
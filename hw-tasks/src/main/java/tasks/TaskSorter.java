@@ -71,7 +71,7 @@ public class TaskSorter {
      * @return set of dependencies with {@code t} as the "before" task
      */
     public Set<Dependency> getOutgoingDependencies(Task t) {
-        List<Graph.Edge<Task, Dependency>> tasksFrom = dependencyGraph.getEdgesFrom(t);
+        Set<Graph.Edge<Task, Dependency>> tasksFrom = dependencyGraph.getEdgesFrom(t);
         Set<Dependency> dependenciesFrom = new HashSet<>();
         for (Graph.Edge<Task, Dependency> edge : tasksFrom) {
             dependenciesFrom.add(edge.getLabel());